@@ -0,0 +1,82 @@
+package com.example.polydb.bench;
+
+import com.example.polydb.ConnectionPool;
+import com.example.polydb.SqlDialect;
+import com.example.polydb.SqlDialects;
+import com.example.polydb.TableSchema;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/*
+ * In-process H2 standing in for each backend, in the matching compatibility mode.
+ * The PolyDB pool for the database type is re-pointed at it, so benchmarks go through
+ * the same pool, dialect, statement cache and schema loading as the app.
+ */
+final class BenchDatabase {
+
+    static final String TABLE = "bench_rows";
+
+    private BenchDatabase() {
+    }
+
+    static String url(String dbType) {
+        switch (dbType) {
+            case "PostgreSQL":
+                return "jdbc:h2:mem:pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+            case "MySQL":
+                return "jdbc:h2:mem:mysql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+            case "OracleDB":
+                return "jdbc:h2:mem:oracle;MODE=Oracle;DB_CLOSE_DELAY=-1";
+            default:
+                throw new IllegalArgumentException("Unknown database type: " + dbType);
+        }
+    }
+
+    //(re)creates bench_rows with rowCount rows: id, name, amount, active, created
+    static TableSchema setUp(String dbType, int rowCount) throws SQLException {
+        ConnectionPool.register(new ConnectionPool(dbType, url(dbType), "sa", "", 1, 4, 300_000, 10_000));
+        SqlDialect dialect = SqlDialects.forType(dbType);
+        String table = dialect.quoteIdentifier(TABLE);
+
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+                stmt.execute("CREATE TABLE " + table + " ("
+                        + dialect.quoteIdentifier("id") + " BIGINT PRIMARY KEY, "
+                        + dialect.quoteIdentifier("name") + " VARCHAR(100), "
+                        + dialect.quoteIdentifier("amount") + " DECIMAL(12,2), "
+                        + dialect.quoteIdentifier("active") + " BOOLEAN, "
+                        + dialect.quoteIdentifier("created") + " DATE)");
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table + " VALUES (?, ?, ?, ?, ?)")) {
+                LocalDate start = LocalDate.of(2020, 1, 1);
+                for (int i = 1; i <= rowCount; i++) {
+                    ps.setLong(1, i);
+                    ps.setString(2, "customer " + i);
+                    ps.setBigDecimal(3, BigDecimal.valueOf(i * 37L % 100_000, 2));
+                    ps.setBoolean(4, i % 3 == 0);
+                    ps.setDate(5, Date.valueOf(start.plusDays(i % 1500)));
+                    ps.addBatch();
+                    if (i % 1000 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+            return TableSchema.load(conn, dbType, TABLE);
+        }
+    }
+
+    static void tearDown() {
+        ConnectionPool.shutdownAll();
+    }
+}
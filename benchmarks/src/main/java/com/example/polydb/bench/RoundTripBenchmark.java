@@ -0,0 +1,122 @@
+package com.example.polydb.bench;
+
+import com.example.polydb.ColumnarRowStore;
+import com.example.polydb.ConnectionPool;
+import com.example.polydb.DmlEngine;
+import com.example.polydb.SqlDialect;
+import com.example.polydb.SqlDialects;
+import com.example.polydb.StreamingFetch;
+import com.example.polydb.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Full operations as the table editor runs them, per dialect: borrow a pooled connection,
+ * build/bind through DmlEngine or the dialect's paging clause, execute, read back.
+ * H2 runs in-process, so this is client overhead plus H2's work, no network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    private static final int TABLE_ROWS = 20_000;
+    private static final int PAGE_SIZE = 500;
+    //ids of rows added by the insert benchmark start here
+    private static final long INSERT_BASE = 10_000_000L;
+
+    @Param({"PostgreSQL", "MySQL", "OracleDB"})
+    public String dbType;
+
+    private TableSchema schema;
+    private DmlEngine dml;
+    private String pageSql;
+    private String deleteInserted;
+    private long nextId;
+    private boolean flip;
+
+    @Setup
+    public void setUp() throws SQLException {
+        schema = BenchDatabase.setUp(dbType, TABLE_ROWS);
+        dml = new DmlEngine(schema);
+        SqlDialect dialect = SqlDialects.forType(dbType);
+        String table = dialect.quoteIdentifier(BenchDatabase.TABLE);
+        String id = dialect.quoteIdentifier("id");
+        pageSql = "SELECT * FROM " + table + " WHERE " + id + " > ? ORDER BY " + id + dialect.limitClause(PAGE_SIZE, 0);
+        deleteInserted = "DELETE FROM " + table + " WHERE " + id + " >= " + INSERT_BASE;
+    }
+
+    //keep the table the same size from one iteration to the next
+    @Setup(Level.Iteration)
+    public void resetInserted() throws SQLException {
+        nextId = INSERT_BASE;
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(deleteInserted);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchDatabase.tearDown();
+    }
+
+    //one page of the table view, keyset style from the middle of the table
+    @Benchmark
+    public ColumnarRowStore.Batch loadPage() throws SQLException {
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
+             PreparedStatement ps = StreamingFetch.prepare(conn, dbType, pageSql, PAGE_SIZE + 1)) {
+            ps.setLong(1, TABLE_ROWS / 2);
+            try (ResultSet rs = ps.executeQuery()) {
+                ColumnarRowStore.Kind[] kinds = ColumnarRowStore.kindsFor(rs.getMetaData());
+                ColumnarRowStore.BatchBuilder batch = new ColumnarRowStore.BatchBuilder(kinds, PAGE_SIZE);
+                while (rs.next()) {
+                    batch.appendRow(rs);
+                }
+                return batch.build(false);
+            }
+        }
+    }
+
+    //Add Row
+    @Benchmark
+    public int insertRow() throws SQLException {
+        long id = nextId++;
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            return dml.insert(conn, List.of(Long.toString(id), "new customer", "12.50", "1", "2024-06-01"));
+        }
+    }
+
+    //Edit Row, found by primary key
+    @Benchmark
+    public int updateRow() throws SQLException {
+        flip = !flip;
+        List<String> before = List.of("1", flip ? "customer 1" : "renamed 1", "0.37", "0", "2020-01-02");
+        List<String> after = List.of("1", flip ? "renamed 1" : "customer 1", "0.37", "0", "2020-01-02");
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            return dml.update(conn, before, after);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.polydb.bench;
+
+import com.example.polydb.ColumnarRowStore;
+import com.example.polydb.ConnectionPool;
+import com.example.polydb.SqlDialects;
+import com.example.polydb.StreamingFetch;
+import com.example.polydb.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Turning a result set into rows for the table view: one String per cell (how getTableData
+ * used to build its ObservableList<ObservableList<String>>), one Object per cell, and the
+ * typed ColumnarRowStore the table view reads from now. Same query for all three.
+ * Run with -prof gc to compare allocation per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMaterializationBenchmark {
+
+    private static final String DB_TYPE = "PostgreSQL";
+
+    @Param({"1000", "50000"})
+    public int rows;
+
+    private TableSchema schema;
+    private String sql;
+
+    @Setup
+    public void setUp() throws SQLException {
+        schema = BenchDatabase.setUp(DB_TYPE, rows);
+        sql = "SELECT * FROM " + SqlDialects.forType(DB_TYPE).quoteIdentifier(BenchDatabase.TABLE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchDatabase.tearDown();
+    }
+
+    @Benchmark
+    public List<List<String>> stringPerCell() throws SQLException {
+        try (Connection conn = ConnectionPool.forType(DB_TYPE).getConnection();
+             PreparedStatement ps = StreamingFetch.prepare(conn, DB_TYPE, sql, StreamingFetch.initialFetchSize(schema));
+             ResultSet rs = ps.executeQuery()) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            List<List<String>> data = new ArrayList<>();
+            while (rs.next()) {
+                List<String> row = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    String value = rs.getString(i);
+                    row.add(value == null ? "" : value);
+                }
+                data.add(row);
+            }
+            return data;
+        }
+    }
+
+    @Benchmark
+    public List<Object[]> objectPerCell() throws SQLException {
+        try (Connection conn = ConnectionPool.forType(DB_TYPE).getConnection();
+             PreparedStatement ps = StreamingFetch.prepare(conn, DB_TYPE, sql, StreamingFetch.initialFetchSize(schema));
+             ResultSet rs = ps.executeQuery()) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            List<Object[]> data = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                data.add(row);
+            }
+            return data;
+        }
+    }
+
+    @Benchmark
+    public ColumnarRowStore columnarStore() throws SQLException {
+        try (Connection conn = ConnectionPool.forType(DB_TYPE).getConnection();
+             PreparedStatement ps = StreamingFetch.prepare(conn, DB_TYPE, sql, StreamingFetch.initialFetchSize(schema));
+             ResultSet rs = ps.executeQuery()) {
+            ColumnarRowStore.Kind[] kinds = ColumnarRowStore.kindsFor(rs.getMetaData());
+            ColumnarRowStore store = new ColumnarRowStore(schema.getColumnNames(), kinds);
+            ColumnarRowStore.BatchBuilder batch = new ColumnarRowStore.BatchBuilder(kinds, 1000);
+            while (rs.next()) {
+                batch.appendRow(rs);
+                if (batch.getRowCount() == 1000) {
+                    store.append(batch.build(false));
+                    batch = batch.newBuilder(1000);
+                }
+            }
+            store.append(batch.build(false));
+            return store;
+        }
+    }
+}
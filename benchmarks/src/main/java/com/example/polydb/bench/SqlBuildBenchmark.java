@@ -0,0 +1,78 @@
+package com.example.polydb.bench;
+
+import com.example.polydb.DmlEngine;
+import com.example.polydb.TableFilter;
+import com.example.polydb.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Client-side statement building only, no database round trip: the SQL behind Add Row / Edit Row
+ * (DmlEngine), the multi-row INSERT used by CSV import and the WHERE clause of column filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlBuildBenchmark {
+
+    @Param({"PostgreSQL", "MySQL", "OracleDB"})
+    public String dbType;
+
+    private TableSchema schema;
+    private DmlEngine dml;
+    private TableFilter filter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        schema = BenchDatabase.setUp(dbType, 0);
+        dml = new DmlEngine(schema);
+        filter = TableFilter.NONE
+                .with(new TableFilter.Condition("name", TableFilter.Operator.STARTS_WITH, "cust", null))
+                .with(new TableFilter.Condition("amount", TableFilter.Operator.RANGE, "10", "500"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchDatabase.tearDown();
+    }
+
+    @Benchmark
+    public String insertSql() {
+        return dml.insertSql(schema.getColumns());
+    }
+
+    //what every Add Row paid when the statement was built from scratch each time
+    @Benchmark
+    public String insertSqlNewEngine() {
+        return new DmlEngine(schema).insertSql(schema.getColumns());
+    }
+
+    @Benchmark
+    public String multiRowInsertSql100() {
+        return dml.insertSql(schema.getColumns(), 100);
+    }
+
+    @Benchmark
+    public String filterCompile() throws SQLException {
+        List<Object> params = new ArrayList<>(4);
+        return filter.compile(schema, params);
+    }
+}
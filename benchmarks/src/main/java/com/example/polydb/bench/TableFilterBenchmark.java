@@ -0,0 +1,83 @@
+package com.example.polydb.bench;
+
+import com.example.polydb.DatabaseTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/*
+ * One keystroke in the table search box: the filterTables predicate run over 100k tables,
+ * which is what FilteredList does on every change of the search text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableFilterBenchmark {
+
+    private static final int TABLE_COUNT = 100_000;
+    private static final String[] TYPES = {"PostgreSQL", "MySQL", "OracleDB"};
+    private static final String[] WORDS = {"Order", "customer", "INVOICE", "Payment", "audit_log", "Stock"};
+
+    //"" = cleared box, a common prefix, and text that matches nothing
+    @Param({"", "ord", "zzz"})
+    public String filterText;
+
+    private List<DatabaseTable> tables;
+
+    @Setup
+    public void setUp() {
+        tables = new ArrayList<>(TABLE_COUNT);
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            String name = WORDS[i % WORDS.length] + "_" + i;
+            tables.add(new DatabaseTable(name, TYPES[i % TYPES.length]));
+        }
+    }
+
+    @Benchmark
+    public int nameFilter() {
+        return count(DatabaseTable.nameFilter(filterText));
+    }
+
+    //allocation-free alternative to toLowerCase().contains(), for comparison
+    @Benchmark
+    public int regionMatchesFilter() {
+        String text = filterText;
+        return count(table -> containsIgnoreCase(table.getName(), text));
+    }
+
+    private int count(Predicate<DatabaseTable> predicate) {
+        int matches = 0;
+        for (DatabaseTable table : tables) {
+            if (predicate.test(table)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static boolean containsIgnoreCase(String name, String text) {
+        int last = name.length() - text.length();
+        for (int i = 0; i <= last; i++) {
+            if (name.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,573 @@
+package com.example.polydb;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Column-oriented storage for loaded rows.
+ * Rows arrive in batches; each batch keeps one array per column: numbers and dates as primitives,
+ * repetitive strings dictionary-encoded, and nulls in a BitSet. Values are only turned into
+ * text when a cell is actually displayed.
+ * A batch is immutable once built, so the loader thread can build it and hand it to the FX thread.
+ */
+public class ColumnarRowStore {
+
+    //FLOAT is a single precision column (REAL, float4), kept apart so it shows as 1.1 and not as the widened double
+    public enum Kind { LONG, FLOAT, DOUBLE, BOOLEAN, DATE, TIMESTAMP, STRING }
+
+    private final List<String> columnNames;
+    private final Kind[] kinds;
+    private final List<Batch> batches = new ArrayList<>();
+    private int[] batchStarts = new int[8];
+    private int rowCount = 0;
+
+    public ColumnarRowStore(List<String> columnNames, Kind[] kinds) {
+        this.columnNames = columnNames;
+        this.kinds = kinds;
+    }
+
+    //pick the storage kind for each column of a result set
+    public static Kind[] kindsFor(ResultSetMetaData metaData) throws SQLException {
+        Kind[] kinds = new Kind[metaData.getColumnCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = kindFor(metaData.getColumnType(i + 1), metaData.getPrecision(i + 1), metaData.getScale(i + 1));
+        }
+        return kinds;
+    }
+
+    public static Kind kindFor(int sqlType, int precision, int scale) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return Kind.LONG;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                //whole numbers that fit in a long (Oracle NUMBER(10) ids, etc.), everything else stays exact as text
+                return scale == 0 && precision > 0 && precision <= 18 ? Kind.LONG : Kind.STRING;
+            case Types.REAL:
+                return Kind.FLOAT;
+            //JDBC FLOAT is double precision
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Kind.DOUBLE;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return Kind.BOOLEAN;
+            case Types.DATE:
+                return Kind.DATE;
+            case Types.TIMESTAMP:
+                return Kind.TIMESTAMP;
+            default:
+                return Kind.STRING;
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int getColumnCount() {
+        return kinds.length;
+    }
+
+    public Kind getKind(int column) {
+        return kinds[column];
+    }
+
+    public Kind[] getKindsCopy() {
+        return kinds.clone();
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    //returns the index of the first row of the batch
+    public int append(Batch batch) {
+        int start = rowCount;
+        if (batches.size() == batchStarts.length) {
+            batchStarts = Arrays.copyOf(batchStarts, batchStarts.length * 2);
+        }
+        batchStarts[batches.size()] = start;
+        batches.add(batch);
+        rowCount += batch.rowCount;
+        return start;
+    }
+
+    public boolean isNull(int row, int column) {
+        int b = batchOf(row);
+        return batches.get(b).columns[column].isNull(row - batchStarts[b]);
+    }
+
+    //the typed value (Long, Float, Double, Boolean, LocalDate, Timestamp or String), null for SQL NULL
+    public Object getValue(int row, int column) {
+        int b = batchOf(row);
+        return batches.get(b).columns[column].value(row - batchStarts[b]);
+    }
+
+    //text for display, "" for SQL NULL like the old getString() based loading
+    public String format(int row, int column) {
+        int b = batchOf(row);
+        return batches.get(b).columns[column].format(row - batchStarts[b]);
+    }
+
+    private int batchOf(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        int index = Arrays.binarySearch(batchStarts, 0, batches.size(), row);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    //rough heap footprint, used for the status line
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Batch batch : batches) {
+            for (Column column : batch.columns) {
+                bytes += column.estimateBytes();
+            }
+        }
+        return bytes;
+    }
+
+    //an immutable group of rows
+    public static class Batch {
+        private final int rowCount;
+        private final Column[] columns;
+
+        private Batch(int rowCount, Column[] columns) {
+            this.rowCount = rowCount;
+            this.columns = columns;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+    }
+
+    //fills one batch straight from a ResultSet, one row at a time
+    public static class BatchBuilder {
+        private final Kind[] kinds;
+        private final ColumnBuilder[] columns;
+        private int rowCount = 0;
+
+        public BatchBuilder(Kind[] kinds, int expectedRows) {
+            this.kinds = kinds;
+            this.columns = new ColumnBuilder[kinds.length];
+            int capacity = Math.max(16, expectedRows);
+            for (int i = 0; i < kinds.length; i++) {
+                columns[i] = new ColumnBuilder(kinds[i], capacity);
+            }
+        }
+
+        public void appendRow(ResultSet rs) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(rs, i + 1, rowCount);
+            }
+            rowCount++;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public boolean isEmpty() {
+            return rowCount == 0;
+        }
+
+        //reverse=true flips the row order (used for pages read backwards)
+        public Batch build(boolean reverse) {
+            Column[] built = new Column[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                built[i] = columns[i].build(rowCount, reverse);
+            }
+            return new Batch(rowCount, built);
+        }
+
+        public BatchBuilder newBuilder(int expectedRows) {
+            return new BatchBuilder(kinds, expectedRows);
+        }
+    }
+
+    //growable primitive arrays for one column while a batch is being read
+    private static class ColumnBuilder {
+        //give up on the dictionary once most values are distinct
+        private static final int DICTIONARY_CHECK_ROWS = 64;
+
+        private final Kind kind;
+        private final BitSet nulls = new BitSet();
+        private long[] longs;
+        private double[] doubles;
+        private BitSet booleans;
+        private String[] strings;
+        private int[] codes;
+        private Map<String, Integer> dictionary;
+        private List<String> dictionaryValues;
+
+        ColumnBuilder(Kind kind, int capacity) {
+            this.kind = kind;
+            switch (kind) {
+                case LONG:
+                case DATE:
+                case TIMESTAMP:
+                    longs = new long[capacity];
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    doubles = new double[capacity];
+                    break;
+                case BOOLEAN:
+                    booleans = new BitSet(capacity);
+                    break;
+                case STRING:
+                    codes = new int[capacity];
+                    dictionary = new HashMap<>();
+                    dictionaryValues = new ArrayList<>();
+                    break;
+            }
+        }
+
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            switch (kind) {
+                case LONG: {
+                    long value = rs.getLong(index);
+                    if (rs.wasNull()) {
+                        nulls.set(row);
+                    }
+                    longs = ensure(longs, row);
+                    longs[row] = value;
+                    break;
+                }
+                case FLOAT:
+                case DOUBLE: {
+                    //a float widens to a double exactly, getFloat keeps the driver from rounding it first
+                    double value = kind == Kind.FLOAT ? rs.getFloat(index) : rs.getDouble(index);
+                    if (rs.wasNull()) {
+                        nulls.set(row);
+                    }
+                    doubles = ensure(doubles, row);
+                    doubles[row] = value;
+                    break;
+                }
+                case BOOLEAN: {
+                    boolean value = rs.getBoolean(index);
+                    if (rs.wasNull()) {
+                        nulls.set(row);
+                    } else if (value) {
+                        booleans.set(row);
+                    }
+                    break;
+                }
+                case DATE: {
+                    java.sql.Date value = rs.getDate(index);
+                    longs = ensure(longs, row);
+                    if (value == null) {
+                        nulls.set(row);
+                    } else {
+                        longs[row] = value.toLocalDate().toEpochDay();
+                    }
+                    break;
+                }
+                case TIMESTAMP: {
+                    Timestamp value = rs.getTimestamp(index);
+                    longs = ensure(longs, row);
+                    if (value == null) {
+                        nulls.set(row);
+                    } else {
+                        //microseconds since the epoch
+                        longs[row] = Math.floorDiv(value.getTime(), 1000) * 1_000_000 + value.getNanos() / 1000;
+                    }
+                    break;
+                }
+                case STRING: {
+                    String value = rs.getString(index);
+                    if (value == null) {
+                        nulls.set(row);
+                    }
+                    addString(value, row);
+                    break;
+                }
+            }
+        }
+
+        private void addString(String value, int row) {
+            if (strings != null) {
+                strings = ensure(strings, row);
+                strings[row] = value;
+                return;
+            }
+
+            codes = ensure(codes, row);
+            if (value == null) {
+                codes[row] = -1;
+            } else {
+                Integer code = dictionary.get(value);
+                if (code == null) {
+                    code = dictionaryValues.size();
+                    dictionary.put(value, code);
+                    dictionaryValues.add(value);
+                }
+                codes[row] = code;
+            }
+
+            if (row + 1 >= DICTIONARY_CHECK_ROWS && dictionaryValues.size() > (row + 1) / 2) {
+                //high cardinality, plain references are cheaper than codes + dictionary
+                strings = new String[codes.length];
+                for (int i = 0; i <= row; i++) {
+                    strings[i] = codes[i] < 0 ? null : dictionaryValues.get(codes[i]);
+                }
+                codes = null;
+                dictionary = null;
+                dictionaryValues = null;
+            }
+        }
+
+        Column build(int rowCount, boolean reverse) {
+            BitSet nullBits = reverse ? reverse(nulls, rowCount) : nulls;
+            switch (kind) {
+                case LONG:
+                case DATE:
+                case TIMESTAMP: {
+                    long[] values = Arrays.copyOf(longs, rowCount);
+                    if (reverse) reverse(values);
+                    return new LongColumn(kind, values, nullBits);
+                }
+                case FLOAT:
+                case DOUBLE: {
+                    double[] values = Arrays.copyOf(doubles, rowCount);
+                    if (reverse) reverse(values);
+                    return new DoubleColumn(kind == Kind.FLOAT, values, nullBits);
+                }
+                case BOOLEAN:
+                    return new BooleanColumn(reverse ? reverse(booleans, rowCount) : booleans, nullBits);
+                default:
+                    if (strings != null) {
+                        String[] values = Arrays.copyOf(strings, rowCount);
+                        if (reverse) reverse(values);
+                        return new PlainStringColumn(values, nullBits);
+                    }
+                    int[] values = Arrays.copyOf(codes, rowCount);
+                    if (reverse) reverse(values);
+                    return new DictionaryStringColumn(values, dictionaryValues.toArray(new String[0]), nullBits);
+            }
+        }
+
+        private static long[] ensure(long[] array, int index) {
+            return index < array.length ? array : Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        }
+
+        private static double[] ensure(double[] array, int index) {
+            return index < array.length ? array : Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        }
+
+        private static int[] ensure(int[] array, int index) {
+            return index < array.length ? array : Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        }
+
+        private static String[] ensure(String[] array, int index) {
+            return index < array.length ? array : Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        }
+
+        private static BitSet reverse(BitSet bits, int size) {
+            BitSet reversed = new BitSet(size);
+            for (int i = bits.nextSetBit(0); i >= 0 && i < size; i = bits.nextSetBit(i + 1)) {
+                reversed.set(size - 1 - i);
+            }
+            return reversed;
+        }
+
+        private static void reverse(long[] a) {
+            for (int i = 0, j = a.length - 1; i < j; i++, j--) { long t = a[i]; a[i] = a[j]; a[j] = t; }
+        }
+
+        private static void reverse(double[] a) {
+            for (int i = 0, j = a.length - 1; i < j; i++, j--) { double t = a[i]; a[i] = a[j]; a[j] = t; }
+        }
+
+        private static void reverse(int[] a) {
+            for (int i = 0, j = a.length - 1; i < j; i++, j--) { int t = a[i]; a[i] = a[j]; a[j] = t; }
+        }
+
+        private static void reverse(String[] a) {
+            for (int i = 0, j = a.length - 1; i < j; i++, j--) { String t = a[i]; a[i] = a[j]; a[j] = t; }
+        }
+    }
+
+    private abstract static class Column {
+        final BitSet nulls;
+
+        Column(BitSet nulls) {
+            this.nulls = nulls;
+        }
+
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        abstract Object value(int row);
+
+        String format(int row) {
+            Object value = value(row);
+            return value == null ? "" : value.toString();
+        }
+
+        abstract long estimateBytes();
+    }
+
+    private static class LongColumn extends Column {
+        private final Kind kind;
+        private final long[] values;
+
+        LongColumn(Kind kind, long[] values, BitSet nulls) {
+            super(nulls);
+            this.kind = kind;
+            this.values = values;
+        }
+
+        @Override
+        Object value(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            long value = values[row];
+            switch (kind) {
+                case DATE:
+                    return LocalDate.ofEpochDay(value);
+                case TIMESTAMP: {
+                    Timestamp ts = new Timestamp(Math.floorDiv(value, 1_000_000) * 1000);
+                    ts.setNanos(Math.floorMod(value, 1_000_000) * 1000);
+                    return ts;
+                }
+                default:
+                    return value;
+            }
+        }
+
+        @Override
+        long estimateBytes() {
+            return 16 + values.length * 8L + nulls.size() / 8;
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        //values are floats widened to double
+        private final boolean single;
+        private final double[] values;
+
+        DoubleColumn(boolean single, double[] values, BitSet nulls) {
+            super(nulls);
+            this.single = single;
+            this.values = values;
+        }
+
+        @Override
+        Object value(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            return single ? (Object) (float) values[row] : (Object) values[row];
+        }
+
+        @Override
+        String format(int row) {
+            if (isNull(row)) {
+                return "";
+            }
+            double value = values[row];
+            if (!Double.isFinite(value)) {
+                return single ? Float.toString((float) value) : Double.toString(value);
+            }
+            //shortest digits of the float (or double), and no 1.0E10 style output for ordinary numbers
+            BigDecimal decimal = single ? new BigDecimal(Float.toString((float) value)) : BigDecimal.valueOf(value);
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+
+        @Override
+        long estimateBytes() {
+            return 16 + values.length * 8L + nulls.size() / 8;
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        private final BitSet values;
+
+        BooleanColumn(BitSet values, BitSet nulls) {
+            super(nulls);
+            this.values = values;
+        }
+
+        @Override
+        Object value(int row) {
+            return isNull(row) ? null : values.get(row);
+        }
+
+        @Override
+        long estimateBytes() {
+            return 16 + values.size() / 8 + nulls.size() / 8;
+        }
+    }
+
+    private static class DictionaryStringColumn extends Column {
+        private final int[] codes;
+        private final String[] dictionary;
+
+        DictionaryStringColumn(int[] codes, String[] dictionary, BitSet nulls) {
+            super(nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        Object value(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        @Override
+        long estimateBytes() {
+            long bytes = 16 + codes.length * 4L + nulls.size() / 8;
+            for (String value : dictionary) {
+                bytes += 40 + value.length();
+            }
+            return bytes;
+        }
+    }
+
+    private static class PlainStringColumn extends Column {
+        private final String[] values;
+
+        PlainStringColumn(String[] values, BitSet nulls) {
+            super(nulls);
+            this.values = values;
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+
+        @Override
+        long estimateBytes() {
+            long bytes = 16 + values.length * 4L + nulls.size() / 8;
+            for (String value : values) {
+                if (value != null) {
+                    bytes += 40 + value.length();
+                }
+            }
+            return bytes;
+        }
+    }
+}
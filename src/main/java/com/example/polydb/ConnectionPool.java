@@ -0,0 +1,558 @@
+package com.example.polydb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Small JDBC connection pool, one per database type.
+ * Controllers borrow with ConnectionPool.forType(type).getConnection() and give the
+ * connection back by closing it (try-with-resources), so opening a connection no longer
+ * pays the TCP/TLS/auth handshake every time.
+ */
+public class ConnectionPool {
+
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    //one shared daemon thread that trims idle connections for every pool
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "polydb-pool-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final long EVICTION_INTERVAL_MILLIS = 30_000;
+    //connections used within this window are handed out without an isValid() round trip
+    private static final long VALIDATION_SKIP_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    //prepared statements kept open per physical connection
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final String dbType;
+    private final String driverClassName;
+    private final String url;
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long maxWaitMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private int totalConnections = 0;
+    private boolean closed = false;
+    //resolved on the first connect, null until then
+    private volatile Driver driver;
+
+    //counters
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LatencyHistogram acquireTimer;
+    private final LatencyHistogram openTimer;
+    private final ScheduledFuture<?> maintenance;
+
+    public ConnectionPool(String dbType, String url, String user, String password,
+                          int minSize, int maxSize, long idleTimeoutMillis, long maxWaitMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + " max=" + maxSize);
+        }
+        this.dbType = dbType;
+        this.driverClassName = SqlDialects.of(dbType).getDriverClassName();
+        this.url = url;
+        this.properties = new Properties();
+        this.properties.setProperty("user", user);
+        this.properties.setProperty("password", password);
+        //driver side statement caching and streaming settings for this backend
+        SqlDialects.of(dbType).configureDriver(this.properties);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.acquireTimer = Metrics.timer("connection.acquire", dbType, null);
+        this.openTimer = Metrics.timer("connection.open", dbType, null);
+
+        //open the first minSize connections in the background, then keep trimming and topping up
+        EVICTOR.execute(this::fillToMinSize);
+        this.maintenance = EVICTOR.scheduleWithFixedDelay(this::maintain,
+                EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    //get the shared pool for "PostgreSQL", "MySQL", "OracleDB" or any other registered SqlDialect
+    public static ConnectionPool forType(String dbType) throws SQLException {
+        SqlDialect dialect = SqlDialects.forType(dbType);
+        return POOLS.computeIfAbsent(dialect.getName(), type -> createDefault(dialect));
+    }
+
+    private static ConnectionPool createDefault(SqlDialect dialect) {
+        return new ConnectionPool(dialect.getName(), dialect.getDefaultUrl(),
+                dialect.getDefaultUser(), dialect.getDefaultPassword(), 1, 8, 300_000, 10_000);
+    }
+
+    //use this pool for its database type instead of the default one (another server, an embedded database)
+    public static void register(ConnectionPool pool) {
+        ConnectionPool previous = POOLS.put(pool.getDbType(), pool);
+        if (previous != null && previous != pool) {
+            previous.close();
+        }
+        SchemaCache.invalidateAll();
+    }
+
+    //close every pool (called when the application exits)
+    public static void shutdownAll() {
+        for (ConnectionPool pool : POOLS.values()) {
+            pool.close();
+        }
+        POOLS.clear();
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Connection getConnection() throws SQLException {
+        DbEvents.ConnectionAcquire event = new DbEvents.ConnectionAcquire();
+        event.begin();
+        boolean opened = false;
+        long start = System.nanoTime();
+        try {
+            PooledConnection pooled = borrow(start);
+            //never handed out before means borrow() just opened it
+            opened = pooled.lastBorrowed == 0;
+            pooled.lastBorrowed = System.currentTimeMillis();
+            pooled.returned = false;
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            Metrics.increment("connection.acquire.errors", dbType, null);
+            throw e;
+        } finally {
+            long took = System.nanoTime() - start;
+            borrowCount.increment();
+            borrowNanos.add(took);
+            acquireTimer.record(took);
+            event.finish(dbType, opened);
+        }
+    }
+
+    private PooledConnection borrow(long start) throws SQLException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool for " + dbType + " is closed");
+                    }
+                    //most recently returned first, it is the one most likely to still be alive
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        create = true;
+                        break;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + maxWaitMillis
+                                + " ms waiting for a " + dbType + " connection");
+                    }
+                    long waitStart = System.nanoTime();
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a " + dbType + " connection", e);
+                    } finally {
+                        waitCount.increment();
+                        waitNanos.add(System.nanoTime() - waitStart);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                return openConnection();
+            }
+
+            if (isUsable(candidate)) {
+                return candidate;
+            }
+            destroy(candidate);
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        long started = System.nanoTime();
+        try {
+            Connection physical = connect();
+            openTimer.record(System.nanoTime() - started);
+            createdCount.increment();
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            Metrics.increment("connection.open.errors", dbType, null);
+            lock.lock();
+            try {
+                totalConnections--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Talks to this dialect's driver directly. The first DriverManager call loads and registers
+     * every JDBC driver on the path (the Oracle one alone takes hundreds of ms), even for a
+     * session that only ever opens MySQL tables.
+     */
+    private Connection connect() throws SQLException {
+        Driver resolved = driver;
+        if (resolved == null) {
+            resolved = loadDriver();
+            driver = resolved;
+        }
+        Properties connectProperties = properties;
+        int connectTimeout = OperationTimeouts.getSeconds(OperationTimeouts.Kind.CONNECT);
+        if (connectTimeout > 0) {
+            //read at connect time, the timeout can be changed while the app runs
+            connectProperties = new Properties();
+            connectProperties.putAll(properties);
+            SqlDialects.of(dbType).configureConnectTimeout(connectProperties, connectTimeout);
+        }
+        Connection conn = resolved.connect(url, connectProperties);
+        if (conn == null) {
+            throw new SQLException("No suitable driver found for " + url);
+        }
+        return conn;
+    }
+
+    private Driver loadDriver() throws SQLException {
+        long started = System.nanoTime();
+        try {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            Class<?> driverClass = Class.forName(driverClassName, true,
+                    loader != null ? loader : ClassLoader.getSystemClassLoader());
+            Driver loaded = (Driver) driverClass.getDeclaredConstructor().newInstance();
+            if (!loaded.acceptsURL(url)) {
+                //pool pointed at another driver (e.g. H2 in a compatibility mode for benchmarks)
+                return DriverManager.getDriver(url);
+            }
+            StartupTimer.mark(dbType + " driver loaded", (System.nanoTime() - started) / 1_000_000);
+            return loaded;
+        } catch (ClassNotFoundException e) {
+            //driver packaged some other way, let DriverManager find it
+            return DriverManager.getDriver(url);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new SQLException("Could not load JDBC driver " + driverClassName, e);
+        }
+    }
+
+    //validation on borrow, skipped for connections that were just used
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturned < VALIDATION_SKIP_MILLIS) {
+            return true;
+        }
+        try {
+            if (pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return true;
+            }
+        } catch (SQLException e) {
+            //treat as invalid
+        }
+        validationFailures.increment();
+        return false;
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean healthy = true;
+        try {
+            //make sure the next borrower gets a clean connection
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (pooled.physical.isReadOnly()) {
+                pooled.physical.setReadOnly(false);
+            }
+            pooled.physical.clearWarnings();
+            pooled.statementCache.releaseAll();
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        if (!healthy) {
+            destroy(pooled);
+            return;
+        }
+
+        pooled.lastReturned = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (closed) {
+                healthy = false;
+            } else {
+                idle.addFirst(pooled);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!healthy) {
+            destroy(pooled);
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.statementCache.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            //already broken
+        }
+        destroyedCount.increment();
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void maintain() {
+        evictIdle();
+        fillToMinSize();
+    }
+
+    //close connections that sat idle too long, but never go below minSize
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator(); //oldest first
+            while (it.hasNext() && totalConnections - expired.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturned > idleTimeoutMillis) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : expired) {
+            destroy(pooled);
+        }
+    }
+
+    //open idle connections until there are minSize, stops at the first failure (retried on the next run)
+    private void fillToMinSize() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledConnection pooled;
+            try {
+                pooled = openConnection();
+            } catch (SQLException | RuntimeException e) {
+                //already counted in connection.open.errors, the borrower will see the real error
+                return;
+            }
+            //pre-opened, the first borrower did not pay for the connect
+            pooled.lastBorrowed = pooled.lastReturned;
+
+            boolean added = false;
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.addLast(pooled);
+                    available.signal();
+                    added = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!added) {
+                destroy(pooled);
+                return;
+            }
+        }
+    }
+
+    public void close() {
+        maintenance.cancel(false);
+        Deque<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : toClose) {
+            destroy(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(dbType, totalConnections, idle.size(),
+                    borrowCount.sum(), borrowNanos.sum(), waitCount.sum(), waitNanos.sum(),
+                    createdCount.sum(), destroyedCount.sum(), validationFailures.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //snapshot of the pool counters
+    public static class Stats {
+        private final String dbType;
+        private final int total;
+        private final int idle;
+        private final long borrows;
+        private final long borrowNanos;
+        private final long waits;
+        private final long waitNanos;
+        private final long created;
+        private final long destroyed;
+        private final long validationFailures;
+
+        public Stats(String dbType, int total, int idle, long borrows, long borrowNanos, long waits,
+                     long waitNanos, long created, long destroyed, long validationFailures) {
+            this.dbType = dbType;
+            this.total = total;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.borrowNanos = borrowNanos;
+            this.waits = waits;
+            this.waitNanos = waitNanos;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.validationFailures = validationFailures;
+        }
+
+        public String getDbType() { return dbType; }
+        public int getTotal() { return total; }
+        public int getIdle() { return idle; }
+        public int getActive() { return total - idle; }
+        public long getBorrows() { return borrows; }
+        public long getBorrowNanos() { return borrowNanos; }
+        public long getWaits() { return waits; }
+        public long getWaitNanos() { return waitNanos; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getValidationFailures() { return validationFailures; }
+
+        public double getAverageBorrowMillis() {
+            return borrows == 0 ? 0 : borrowNanos / 1_000_000.0 / borrows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s pool: total=%d active=%d idle=%d borrows=%d avgBorrow=%.2fms "
+                            + "waits=%d waitTime=%.1fms created=%d destroyed=%d invalid=%d",
+                    dbType, total, getActive(), idle, borrows, getAverageBorrowMillis(),
+                    waits, waitNanos / 1_000_000.0, created, destroyed, validationFailures);
+        }
+    }
+
+    //a physical connection plus the proxy handed to callers
+    private class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final StatementCache statementCache = new StatementCache(STATEMENT_CACHE_SIZE);
+        private volatile boolean returned = true;
+        private volatile long lastBorrowed;
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + dbType + "] " + physical;
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            //plain prepareStatement(sql) goes through the statement cache
+            if (method.getName().equals("prepareStatement") && args != null && args.length == 1) {
+                return statementCache.prepare(physical, this.proxy, (String) args[0]);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.polydb;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+
+/*
+ * Which key ranges of a TableCopier run are committed in the target, so a failed or cancelled
+ * copy can carry on where it stopped. The file starts with the copy and how its key was split,
+ * then gets one "done=<range>" line per committed range, flushed right after the commit:
+ *
+ *   copy=PostgreSQL.orders -> MySQL.orders
+ *   key=id
+ *   start=1
+ *   chunkKeys=10000
+ *   chunks=31250
+ *   done=0
+ *   done=2
+ *
+ * A range committed just before a crash but not yet written here is copied again on resume, which
+ * fails on its primary key; that is the only case where the target needs a look by hand.
+ */
+public class CopyCheckpoint implements AutoCloseable {
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("user.home"), ".polydb-copy");
+
+    private final Path file;
+    private final String keyColumn;
+    private final long start;
+    private final long chunkKeys;
+    private final int chunks;
+    private final BitSet done;
+    private BufferedWriter writer;
+
+    private CopyCheckpoint(Path file, String keyColumn, long start, long chunkKeys, int chunks, BitSet done) {
+        this.file = file;
+        this.keyColumn = keyColumn;
+        this.start = start;
+        this.chunkKeys = chunkKeys;
+        this.chunks = chunks;
+        this.done = done;
+    }
+
+    //~/.polydb-copy/<source>.<table>-<target>.<table>.checkpoint
+    public static Path defaultPath(String sourceType, String sourceTable, String targetType, String targetTable) {
+        String name = sourceType + "." + sourceTable + "-" + targetType + "." + targetTable;
+        return DIRECTORY.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".checkpoint");
+    }
+
+    public static String copyId(String sourceType, String sourceTable, String targetType, String targetTable) {
+        return sourceType + "." + sourceTable + " -> " + targetType + "." + targetTable;
+    }
+
+    //a new checkpoint, replacing the file of an earlier run
+    public static CopyCheckpoint create(Path file, String copyId, String keyColumn, long start, long chunkKeys,
+                                        int chunks) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        CopyCheckpoint checkpoint = new CopyCheckpoint(file, keyColumn, start, chunkKeys, chunks, new BitSet(chunks));
+        checkpoint.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        checkpoint.writer.write("copy=" + copyId + "\nkey=" + keyColumn + "\nstart=" + start
+                + "\nchunkKeys=" + chunkKeys + "\nchunks=" + chunks + "\n");
+        checkpoint.writer.flush();
+        return checkpoint;
+    }
+
+    //the checkpoint left by an earlier run of the same copy, null if there is none
+    public static CopyCheckpoint load(Path file, String copyId) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        String copy = null;
+        String keyColumn = null;
+        long start = 0;
+        long chunkKeys = 0;
+        int chunks = 0;
+        BitSet done = new BitSet();
+        for (String line : lines) {
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String value = line.substring(eq + 1);
+            try {
+                switch (line.substring(0, eq)) {
+                    case "copy": copy = value; break;
+                    case "key": keyColumn = value; break;
+                    case "start": start = Long.parseLong(value); break;
+                    case "chunkKeys": chunkKeys = Long.parseLong(value); break;
+                    case "chunks": chunks = Integer.parseInt(value); break;
+                    case "done": done.set(Integer.parseInt(value)); break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                //a line cut short by a crash, that range is simply copied again
+                System.err.println("Skipping damaged line in " + file + ": " + line);
+            }
+        }
+        if (!copyId.equals(copy) || keyColumn == null || chunkKeys <= 0 || chunks <= 0) {
+            return null;
+        }
+
+        CopyCheckpoint checkpoint = new CopyCheckpoint(file, keyColumn, start, chunkKeys, chunks, done);
+        checkpoint.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        //the last line may be incomplete, start on a fresh one
+        checkpoint.writer.newLine();
+        checkpoint.writer.flush();
+        return checkpoint;
+    }
+
+    public static boolean exists(Path file) {
+        return Files.exists(file);
+    }
+
+    public String getKeyColumn() { return keyColumn; }
+    public long getStart() { return start; }
+    public long getChunkKeys() { return chunkKeys; }
+    public int getChunks() { return chunks; }
+
+    public synchronized boolean isDone(int chunk) {
+        return done.get(chunk);
+    }
+
+    public synchronized int getDoneCount() {
+        return done.cardinality();
+    }
+
+    //called by the workers right after a range is committed
+    public synchronized void markDone(int chunk) throws IOException {
+        done.set(chunk);
+        writer.write("done=" + chunk);
+        writer.newLine();
+        writer.flush();
+    }
+
+    //the copy finished, nothing to resume
+    public synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
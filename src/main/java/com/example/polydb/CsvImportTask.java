@@ -0,0 +1,40 @@
+package com.example.polydb;
+
+import javafx.concurrent.Task;
+
+import java.nio.file.Path;
+
+/*
+ * Runs a CsvImporter in the background and shows its progress on the FX thread.
+ */
+public class CsvImportTask extends Task<CsvImporter.ImportResult> {
+
+    public static final int DEFAULT_COMMIT_EVERY = CsvImporter.DEFAULT_COMMIT_EVERY;
+
+    private final CsvImporter importer;
+
+    public CsvImportTask(String dbType, TableSchema schema, Path csvFile, Path rejectFile, int commitEvery) {
+        this.importer = new CsvImporter(dbType, schema, csvFile, rejectFile, commitEvery, new JobProgress() {
+            @Override
+            public void message(String text) {
+                updateMessage(text);
+            }
+
+            @Override
+            public void progress(double done, double total) {
+                updateProgress(done, total);
+            }
+        });
+    }
+
+    @Override
+    protected CsvImporter.ImportResult call() throws Exception {
+        return importer.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        importer.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
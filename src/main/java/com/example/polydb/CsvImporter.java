@@ -0,0 +1,464 @@
+package com.example.polydb;
+
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Streams a CSV file into a table. The header row is matched to table columns by name,
+ * every value goes through the same conversion as the Add Row dialog (DmlEngine.convert),
+ * and rows that can't be converted or inserted go to a reject file instead of stopping the job.
+ *
+ * Rows are loaded in chunks of commitEvery rows, each chunk in its own transaction:
+ *  - COPY (PostgreSQL): COPY ... FROM STDIN through the driver's CopyManager
+ *  - MULTI_ROW_VALUES (MySQL, or PostgreSQL without COPY): INSERTs of up to BATCH_SIZE rows each
+ *  - otherwise (Oracle): batched INSERTs, which the Oracle driver sends as one array-bound execution
+ * The path is picked from the table's SqlDialect capabilities.
+ * If a chunk fails on the server it is rolled back and replayed row by row to find the bad rows.
+ * No JavaFX in here: the GUI runs it through CsvImportTask, the command line (PolyCli) directly.
+ */
+public class CsvImporter {
+
+    public static final int DEFAULT_COMMIT_EVERY = 10_000;
+    private static final int BATCH_SIZE = 1000;
+    //bind parameters per statement, PostgreSQL's protocol tops out at 32767 in older drivers
+    private static final int MAX_BIND_PARAMS = 32_000;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+
+    private final String dbType;
+    private final DmlEngine dml;
+    private final Path csvFile;
+    private final Path rejectFile;
+    private final int commitEvery;
+    private final JobProgress progress;
+    private volatile boolean cancelled = false;
+
+    private List<TableSchema.ColumnInfo> columns;
+    private String[] header;
+    private CsvWriter rejects;
+    private BufferedWriter rejectOut;
+
+    private boolean multiRow;
+
+    private long imported = 0;
+    private long rejected = 0;
+
+    public CsvImporter(String dbType, TableSchema schema, Path csvFile, Path rejectFile, int commitEvery,
+                       JobProgress progress) {
+        this.dbType = dbType;
+        this.dml = new DmlEngine(schema);
+        this.csvFile = csvFile;
+        this.rejectFile = rejectFile;
+        this.commitEvery = commitEvery;
+        this.progress = progress;
+    }
+
+    //stops after the current chunk, what was committed stays
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public ImportResult run() throws SQLException, IOException {
+        long started = System.nanoTime();
+        long fileSize = Math.max(1, Files.size(csvFile));
+        SqlDialect dialect = dml.getSchema().getDialect();
+        boolean useCopy = dialect.supports(SqlDialect.Capability.COPY) && copyAvailable();
+        multiRow = !useCopy && dialect.supports(SqlDialect.Capability.MULTI_ROW_VALUES);
+
+        progress.message("Importing " + csvFile.getFileName() + "...");
+
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(csvFile));
+             Reader in = new InputStreamReader(counted, StandardCharsets.UTF_8);
+             Connection conn = ConnectionPool.forType(dbType).getConnection();
+             RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.BULK, dbType,
+                     "Import " + csvFile.getFileName() + " into " + dml.getSchema().getTableName(), conn)) {
+            op.onCancel(this::cancel);
+
+            CsvReader csv = new CsvReader(in);
+            header = csv.next();
+            if (header == null) {
+                throw new SQLException("The file is empty");
+            }
+            mapColumns();
+
+            conn.setAutoCommit(false);
+            String insertSql = dml.insertSql(columns);
+            String copySql = useCopy ? copySql() : null;
+
+            List<String[]> rawChunk = new ArrayList<>(commitEvery);
+            List<Object[]> valueChunk = new ArrayList<>(commitEvery);
+            long lastProgress = 0;
+
+            String[] record;
+            while ((record = csv.next()) != null) {
+                if (isCancelled()) {
+                    break;
+                }
+
+                Object[] values = new Object[columns.size()];
+                String error = convertRecord(record, values);
+                if (error != null) {
+                    reject(record, "record " + csv.getRecordNumber() + ": " + error);
+                } else {
+                    rawChunk.add(record);
+                    valueChunk.add(values);
+                }
+
+                if (valueChunk.size() >= commitEvery) {
+                    loadChunk(conn, rawChunk, valueChunk, insertSql, copySql);
+                    rawChunk.clear();
+                    valueChunk.clear();
+                }
+
+                long now = System.nanoTime();
+                if (now - lastProgress > PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    progress.progress(counted.getCount(), fileSize);
+                    progress.message(progressText(started));
+                }
+            }
+
+            if (!isCancelled() && !valueChunk.isEmpty()) {
+                loadChunk(conn, rawChunk, valueChunk, insertSql, copySql);
+            }
+        } finally {
+            if (rejectOut != null) {
+                rejectOut.close();
+            }
+        }
+
+        progress.progress(1, 1);
+        progress.message(progressText(started));
+        return new ImportResult(imported, rejected, (System.nanoTime() - started) / 1_000_000,
+                rejected > 0 ? rejectFile : null,
+                useCopy ? "COPY" : multiRow ? "multi-row INSERT" : "batched INSERT", isCancelled());
+    }
+
+    //header names -> table columns, unknown names stop the import before anything is written
+    private void mapColumns() throws SQLException {
+        TableSchema schema = dml.getSchema();
+        columns = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            TableSchema.ColumnInfo column = schema.getColumn(header[i].trim());
+            if (column == null) {
+                throw new SQLException("CSV column '" + header[i] + "' does not exist in " + schema.getTableName());
+            }
+            columns.add(column);
+        }
+    }
+
+    //null when the record is fine, otherwise the reason it is rejected
+    private String convertRecord(String[] record, Object[] values) {
+        if (record.length != header.length) {
+            return "expected " + header.length + " fields but found " + record.length;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            try {
+                values[i] = DmlEngine.convert(columns.get(i), record[i]);
+            } catch (SQLException | NumberFormatException e) {
+                return columns.get(i).getName() + ": " + e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    private void loadChunk(Connection conn, List<String[]> raw, List<Object[]> values,
+                           String insertSql, String copySql) throws SQLException, IOException {
+        try {
+            long loaded = copySql != null ? copyIn(conn, copySql, values)
+                    : multiRow ? insertMultiRow(conn, values)
+                    : insertBatches(conn, insertSql, values);
+            conn.commit();
+            imported += loaded;
+        } catch (SQLException e) {
+            conn.rollback();
+            replayRowByRow(conn, insertSql, raw, values);
+        }
+    }
+
+    private long insertBatches(Connection conn, String insertSql, List<Object[]> rows) throws SQLException {
+        long inserted = 0;
+        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+            int pending = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    DmlEngine.bindValue(ps, i + 1, columns.get(i), row[i]);
+                }
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    inserted += countBatch(ps.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += countBatch(ps.executeBatch());
+            }
+        }
+        return inserted;
+    }
+
+    //full groups share one SQL text, so only the last, shorter statement is prepared separately
+    private long insertMultiRow(Connection conn, List<Object[]> rows) throws SQLException {
+        int columnCount = columns.size();
+        int rowsPerStatement = Math.max(1, Math.min(BATCH_SIZE, MAX_BIND_PARAMS / Math.max(1, columnCount)));
+        long inserted = 0;
+        for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+            int end = Math.min(rows.size(), start + rowsPerStatement);
+            try (PreparedStatement ps = conn.prepareStatement(dml.insertSql(columns, end - start))) {
+                int index = 1;
+                for (int r = start; r < end; r++) {
+                    Object[] row = rows.get(r);
+                    for (int i = 0; i < columnCount; i++) {
+                        DmlEngine.bindValue(ps, index++, columns.get(i), row[i]);
+                    }
+                }
+                inserted += ps.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    private static long countBatch(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            //SUCCESS_NO_INFO: the driver ran the row but doesn't report a count
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    //the chunk failed as a whole, find out which rows are bad so the good ones still get in
+    private void replayRowByRow(Connection conn, String insertSql, List<String[]> raw, List<Object[]> values)
+            throws SQLException, IOException {
+        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+            for (int r = 0; r < values.size(); r++) {
+                if (isCancelled()) {
+                    return;
+                }
+                Object[] row = values.get(r);
+                try {
+                    for (int i = 0; i < row.length; i++) {
+                        DmlEngine.bindValue(ps, i + 1, columns.get(i), row[i]);
+                    }
+                    imported += ps.executeUpdate();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    reject(raw.get(r), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private String copySql() {
+        StringBuilder sql = new StringBuilder("COPY ").append(dml.quotedTable()).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(dml.quoteColumn(columns.get(i).getName()));
+        }
+        return sql.append(") FROM STDIN WITH (FORMAT csv)").toString();
+    }
+
+    //the PostgreSQL driver is only needed at runtime, so CopyManager is reached through reflection
+    private static boolean copyAvailable() {
+        try {
+            Class.forName("org.postgresql.copy.CopyManager");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private long copyIn(Connection conn, String copySql, List<Object[]> rows) throws SQLException {
+        try {
+            Class<?> pgConnection = Class.forName("org.postgresql.PGConnection");
+            Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager");
+            Object copyManager = pgConnection.getMethod("getCopyAPI").invoke(conn.unwrap(pgConnection));
+            Object copied = copyManagerClass.getMethod("copyIn", String.class, Reader.class)
+                    .invoke(copyManager, copySql, new CopyReader(rows));
+            return (Long) copied;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("COPY failed: " + cause.getMessage(), cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("PostgreSQL COPY is not available", e);
+        }
+    }
+
+    private void reject(String[] record, String reason) throws IOException {
+        rejected++;
+        if (rejects == null) {
+            rejectOut = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8);
+            rejects = new CsvWriter(rejectOut);
+            rejects.writeRecord(withError(header, "error"));
+        }
+        rejects.writeRecord(withError(record, reason));
+    }
+
+    private static String[] withError(String[] record, String error) {
+        String[] line = new String[record.length + 1];
+        System.arraycopy(record, 0, line, 0, record.length);
+        line[record.length] = error;
+        return line;
+    }
+
+    private String progressText(long started) {
+        double seconds = Math.max(0.001, (System.nanoTime() - started) / 1e9);
+        return String.format("%,d rows imported, %,d rejected (%,.0f rows/s)", imported, rejected, imported / seconds);
+    }
+
+    //feeds a chunk to COPY as CSV text one row at a time, so it is never built as one big string
+    private static class CopyReader extends Reader {
+        private final List<Object[]> rows;
+        private int nextRow = 0;
+        private String line = "";
+        private int linePosition = 0;
+
+        CopyReader(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int written = 0;
+            while (written < len) {
+                if (linePosition >= line.length()) {
+                    if (nextRow >= rows.size()) {
+                        break;
+                    }
+                    line = toCsvLine(rows.get(nextRow++));
+                    linePosition = 0;
+                }
+                int n = Math.min(len - written, line.length() - linePosition);
+                line.getChars(linePosition, linePosition + n, cbuf, off + written);
+                linePosition += n;
+                written += n;
+            }
+            return written == 0 ? -1 : written;
+        }
+
+        private static String toCsvLine(Object[] row) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) sb.append(',');
+                //unquoted empty field is NULL in COPY csv format
+                CsvWriter.writeField(sb, copyText(row[i]));
+            }
+            return sb.append('\n').toString();
+        }
+
+        private static String copyText(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            }
+            if (value instanceof Timestamp) {
+                return ((Timestamp) value).toLocalDateTime().toString().replace('T', ' ');
+            }
+            return value.toString();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    //bytes read so far, for the progress bar
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    public static class ImportResult {
+        private final long importedRows;
+        private final long rejectedRows;
+        private final long elapsedMillis;
+        private final Path rejectFile;
+        private final String method;
+        private final boolean cancelled;
+
+        public ImportResult(long importedRows, long rejectedRows, long elapsedMillis, Path rejectFile,
+                            String method, boolean cancelled) {
+            this.importedRows = importedRows;
+            this.rejectedRows = rejectedRows;
+            this.elapsedMillis = elapsedMillis;
+            this.rejectFile = rejectFile;
+            this.method = method;
+            this.cancelled = cancelled;
+        }
+
+        public long getImportedRows() {
+            return importedRows;
+        }
+
+        public long getRejectedRows() {
+            return rejectedRows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        //null when nothing was rejected
+        public Path getRejectFile() {
+            return rejectFile;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? importedRows : importedRows * 1000.0 / elapsedMillis;
+        }
+    }
+}
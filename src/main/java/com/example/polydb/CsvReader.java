@@ -0,0 +1,113 @@
+package com.example.polydb;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Streaming RFC 4180 CSV parser: one record at a time, so files of any size can be read
+ * with constant memory. Handles quoted fields, "" escapes, line breaks inside quotes,
+ * CRLF/LF line endings and a leading UTF-8 BOM.
+ */
+public class CsvReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private long recordNumber = 0;
+    private boolean firstRead = true;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    //next record, or null at end of file
+    public String[] next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAnything = false;
+
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (!sawAnything) {
+                    return null;
+                }
+                fields.add(field.toString());
+                break;
+            }
+            sawAnything = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+
+        recordNumber++;
+        return fields.toArray(new String[0]);
+    }
+
+    //1-based number of the record last returned by next()
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = in.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        //skip the byte order mark Excel puts at the start of UTF-8 files
+        if (firstRead) {
+            firstRead = false;
+            if (buffer[0] == '\uFEFF') {
+                position = 1;
+                return limit > 1 || fill();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.polydb;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*
+ * Writes RFC 4180 CSV records. Fields are only quoted when they contain a comma,
+ * a quote or a line break; null is written as an empty unquoted field.
+ */
+public class CsvWriter {
+
+    private final Writer out;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeRecord(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(out, fields[i]);
+        }
+        out.write('\n');
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public static void writeField(Appendable out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    //an empty string is quoted too, so it can't be mistaken for NULL
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.polydb;
 
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.time.LocalDateTime;
+import java.util.function.Predicate;
+
 public class DatabaseTable {
     private final StringProperty name;
     private final StringProperty type;
+    //catalog statistics from discovery, null when the server has none (never analyzed, no privilege)
+    private final ObjectProperty<Long> estimatedRows = new SimpleObjectProperty<>();
+    private final ObjectProperty<Long> sizeBytes = new SimpleObjectProperty<>();
+    private final ObjectProperty<LocalDateTime> lastAnalyzed = new SimpleObjectProperty<>();
 
     public DatabaseTable(String name, String type) {
         this.name = new SimpleStringProperty(name);
@@ -35,4 +44,51 @@ public class DatabaseTable {
     public void setType(String type) {
         this.type.set(type);
     }
+
+    //row count the optimizer works with, only as fresh as the last statistics run
+    public Long getEstimatedRows() {
+        return estimatedRows.get();
+    }
+
+    public ObjectProperty<Long> estimatedRowsProperty() {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows(Long estimatedRows) {
+        this.estimatedRows.set(estimatedRows);
+    }
+
+    //table plus its indexes (and LOB/TOAST storage) on disk
+    public Long getSizeBytes() {
+        return sizeBytes.get();
+    }
+
+    public ObjectProperty<Long> sizeBytesProperty() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes.set(sizeBytes);
+    }
+
+    public LocalDateTime getLastAnalyzed() {
+        return lastAnalyzed.get();
+    }
+
+    public ObjectProperty<LocalDateTime> lastAnalyzedProperty() {
+        return lastAnalyzed;
+    }
+
+    public void setLastAnalyzed(LocalDateTime lastAnalyzed) {
+        this.lastAnalyzed.set(lastAnalyzed);
+    }
+
+    //search box filter: case-insensitive "name contains", everything for empty text
+    public static Predicate<DatabaseTable> nameFilter(String filterText) {
+        if (filterText == null || filterText.isEmpty()) {
+            return table -> true;
+        }
+        String lowerCaseFilter = filterText.toLowerCase();
+        return table -> table.getName().toLowerCase().contains(lowerCaseFilter);
+    }
 }
\ No newline at end of file
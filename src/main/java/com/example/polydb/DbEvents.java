@@ -0,0 +1,185 @@
+package com.example.polydb;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/*
+ * PolyDB's Java Flight Recorder events, so database waits show up in the same recording as GC,
+ * JIT and JavaFX thread stalls. They cost next to nothing unless a recording enables them;
+ * src/main/jfr/polydb.jfc turns them all on:
+ *   java -XX:StartFlightRecording:settings=default,settings=src/main/jfr/polydb.jfc,filename=polydb.jfr ...
+ * Fields are only filled in when the event is actually going to be written (shouldCommit()).
+ */
+public final class DbEvents {
+
+    private static final int MAX_FINGERPRINT_LENGTH = 500;
+
+    private DbEvents() {
+    }
+
+    @Name("polydb.Query")
+    @Label("Database Query")
+    @Category({"PolyDB", "Database"})
+    @Description("One statement (DML, DDL or a page read) from send until the last row or update count")
+    public static class Query extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Dialect")
+        String dialect;
+        @Label("Table")
+        String table;
+        @Label("SQL Fingerprint")
+        @Description("Statement text with literals replaced by ?")
+        String sql;
+        @Label("Rows")
+        long rows;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Failed")
+        @Description("The statement threw or was cancelled")
+        boolean failed;
+
+        void finish(String operation, String dialect, String table, String sql, long rows, long bytes, boolean failed) {
+            end();
+            if (shouldCommit()) {
+                this.operation = operation;
+                this.dialect = dialect;
+                this.table = table;
+                this.sql = fingerprint(sql);
+                this.rows = rows;
+                this.bytes = bytes;
+                this.failed = failed;
+                commit();
+            }
+        }
+    }
+
+    @Name("polydb.ConnectionAcquire")
+    @Label("Connection Acquire")
+    @Category({"PolyDB", "Database"})
+    @Description("Borrowing a connection from the pool, including waiting for one and opening a new one")
+    public static class ConnectionAcquire extends Event {
+        @Label("Dialect")
+        String dialect;
+        @Label("New Connection")
+        @Description("A physical connection was opened for this borrow")
+        boolean opened;
+
+        void finish(String dialect, boolean opened) {
+            end();
+            if (shouldCommit()) {
+                this.dialect = dialect;
+                this.opened = opened;
+                commit();
+            }
+        }
+    }
+
+    @Name("polydb.RowMaterialize")
+    @Label("Row Materialize")
+    @Category({"PolyDB", "Database"})
+    @Description("Reading a result set into a ColumnarRowStore, network fetches included")
+    public static class RowMaterialize extends Event {
+        @Label("Dialect")
+        String dialect;
+        @Label("Table")
+        String table;
+        @Label("Rows")
+        long rows;
+        @Label("Bytes")
+        @Description("Estimated from sampled rows")
+        @DataAmount
+        long bytes;
+        @Label("Fetches")
+        long fetches;
+
+        void finish(String dialect, String table, long rows, long bytes, long fetches) {
+            end();
+            if (shouldCommit()) {
+                this.dialect = dialect;
+                this.table = table;
+                this.rows = rows;
+                this.bytes = bytes;
+                this.fetches = fetches;
+                commit();
+            }
+        }
+    }
+
+    @Name("polydb.MetadataLookup")
+    @Label("Metadata Lookup")
+    @Category({"PolyDB", "Database"})
+    @Description("Catalog reads: the table list of a backend (its catalog query on pg_class, information_schema.TABLES "
+            + "or ALL_TABLES, DatabaseMetaData for a dialect without one) or the columns and keys of a table")
+    public static class MetadataLookup extends Event {
+        @Label("Dialect")
+        String dialect;
+        @Label("Table")
+        String table;
+        @Label("Kind")
+        String kind;
+        @Label("Items")
+        @Description("Tables or columns found")
+        long items;
+
+        void finish(String dialect, String table, String kind, long items) {
+            end();
+            if (shouldCommit()) {
+                this.dialect = dialect;
+                this.table = table;
+                this.kind = kind;
+                this.items = items;
+                commit();
+            }
+        }
+    }
+
+    //statement text with string and number literals replaced by ?, so equal statements group together
+    static String fingerprint(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(Math.min(sql.length(), MAX_FINGERPRINT_LENGTH));
+        int i = 0;
+        while (i < sql.length() && sb.length() < MAX_FINGERPRINT_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                //skip to the closing quote, '' is an escaped quote inside the literal
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                sb.append('?');
+                i++;
+            } else if (Character.isDigit(c) && (sb.length() == 0 || !Character.isLetterOrDigit(sb.charAt(sb.length() - 1))
+                    && sb.charAt(sb.length() - 1) != '_')) {
+                //a number on its own, not part of a name like col2
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else if (Character.isWhitespace(c)) {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                    sb.append(' ');
+                }
+                i++;
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,578 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Builds parameterized INSERT / UPDATE / DELETE statements for one table from its TableSchema
+ * and binds the user's text values with the right JDBC types.
+ * The SQL for each (operation, column set) is built once; the PreparedStatement itself is reused
+ * through the pooled connection's StatementCache, so repeated edits hit the server's plan cache.
+ */
+public class DmlEngine {
+
+    //Oracle rejects IN lists with more than 1000 items
+    private static final int MAX_IN_LIST = 1000;
+
+    public enum BatchMode { ALL_OR_NOTHING, BEST_EFFORT }
+
+    private final TableSchema schema;
+    private final Map<String, String> sqlCache = new HashMap<>();
+
+    public DmlEngine(TableSchema schema) {
+        this.schema = schema;
+    }
+
+    public TableSchema getSchema() {
+        return schema;
+    }
+
+    //values are in table column order, "" means NULL
+    public int insert(Connection conn, List<String> values) throws SQLException {
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        String sql = sqlCache.computeIfAbsent("I", key -> buildInsert());
+
+        return Metrics.timed("dml.insert", schema.getDbType(), schema.getTableName(), sql, () -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 RunningOperations.Operation op = startOperation(conn, sql)) {
+                op.track(ps);
+                for (int i = 0; i < columns.size(); i++) {
+                    bind(ps, i + 1, columns.get(i), values.get(i));
+                }
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    //inserts the row and reads it back the way the server stored it, so the table view can show it without a reload.
+    //Returns null when the row can't be read back in the given column kinds (no primary key, columns changed)
+    public ColumnarRowStore.Batch insertAndRead(Connection conn, List<String> values,
+                                                ColumnarRowStore.Kind[] kinds) throws SQLException {
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        String insert = sqlCache.computeIfAbsent("I", key -> buildInsert());
+        String returning = schema.getDialect().insertReturningRowSql(insert);
+
+        if (returning != null) {
+            //PostgreSQL: INSERT ... RETURNING * gives the whole row in the same round trip
+            return Metrics.timed("dml.insert", schema.getDbType(), schema.getTableName(), returning, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(returning);
+                     RunningOperations.Operation op = startOperation(conn, returning)) {
+                    op.track(ps);
+                    for (int i = 0; i < columns.size(); i++) {
+                        bind(ps, i + 1, columns.get(i), values.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return readRow(rs, kinds);
+                    }
+                }
+            });
+        }
+        if (!schema.hasPrimaryKey()) {
+            insert(conn, values);
+            return null;
+        }
+
+        //the key as typed, with whatever the server generated for it (AUTO_INCREMENT, identity) filled in
+        List<String> keyValues = new ArrayList<>(values);
+        String[] keyColumns = schema.getPrimaryKeys().toArray(new String[0]);
+        Metrics.timed("dml.insert", schema.getDbType(), schema.getTableName(), insert, () -> {
+            //not the plain prepareStatement(sql), so this one bypasses the statement cache
+            try (PreparedStatement ps = conn.prepareStatement(insert, keyColumns);
+                 RunningOperations.Operation op = startOperation(conn, insert)) {
+                op.track(ps);
+                for (int i = 0; i < columns.size(); i++) {
+                    bind(ps, i + 1, columns.get(i), values.get(i));
+                }
+                int count = ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        fillGeneratedKeys(keys, keyValues);
+                    }
+                }
+                return count;
+            }
+        });
+        return selectRow(conn, keyValues, kinds);
+    }
+
+    //reads one row by its primary key into a one-row batch (empty if the row is gone);
+    //null when the table has no key or its columns no longer match the given kinds
+    public ColumnarRowStore.Batch selectRow(Connection conn, List<String> rowValues,
+                                            ColumnarRowStore.Kind[] kinds) throws SQLException {
+        if (!schema.hasPrimaryKey()) {
+            return null;
+        }
+        boolean[] whereColumns = whereColumns();
+        boolean[] nullInWhere = nullMask(rowValues, whereColumns);
+        String sql = sqlCache.computeIfAbsent("R" + maskKey(nullInWhere),
+                key -> "SELECT * FROM " + quotedTable() + " WHERE " + whereClause(whereColumns, nullInWhere));
+
+        return Metrics.timed("dml.read_back", schema.getDbType(), schema.getTableName(), sql, () -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.READ,
+                         schema.getDbType(), sql, conn)) {
+                op.track(ps);
+                bindWhere(ps, 1, rowValues, whereColumns, nullInWhere);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return readRow(rs, kinds);
+                }
+            }
+        });
+    }
+
+    //MySQL names its single key column GENERATED_KEY, Oracle returns the requested columns by name
+    private void fillGeneratedKeys(ResultSet keys, List<String> keyValues) throws SQLException {
+        ResultSetMetaData metaData = keys.getMetaData();
+        List<String> keyColumns = schema.getPrimaryKeys();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String keyColumn = null;
+            for (String candidate : keyColumns) {
+                if (candidate.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    keyColumn = candidate;
+                }
+            }
+            if (keyColumn == null && metaData.getColumnCount() == keyColumns.size()) {
+                keyColumn = keyColumns.get(i - 1);
+            }
+            String value = keys.getString(i);
+            if (keyColumn != null && value != null) {
+                keyValues.set(schema.indexOf(keyColumn), value);
+            }
+        }
+    }
+
+    //a changed column list (ALTER TABLE by someone else) can't go into the store on screen
+    private static ColumnarRowStore.Batch readRow(ResultSet rs, ColumnarRowStore.Kind[] kinds) throws SQLException {
+        if (!Arrays.equals(ColumnarRowStore.kindsFor(rs.getMetaData()), kinds)) {
+            return null;
+        }
+        ColumnarRowStore.BatchBuilder builder = new ColumnarRowStore.BatchBuilder(kinds, 1);
+        if (rs.next()) {
+            builder.appendRow(rs);
+        }
+        return builder.build(false);
+    }
+
+    //sets every column to newValues, finds the row by primary key (or all columns without one)
+    public int update(Connection conn, List<String> oldValues, List<String> newValues) throws SQLException {
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        boolean[] whereColumns = whereColumns();
+        boolean[] nullInWhere = nullMask(oldValues, whereColumns);
+        String sql = sqlCache.computeIfAbsent("U" + maskKey(nullInWhere),
+                key -> "UPDATE " + quotedTable() + " SET " + setClause() + " WHERE " + whereClause(whereColumns, nullInWhere));
+
+        return Metrics.timed("dml.update", schema.getDbType(), schema.getTableName(), sql, () -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 RunningOperations.Operation op = startOperation(conn, sql)) {
+                op.track(ps);
+                int index = 1;
+                for (int i = 0; i < columns.size(); i++) {
+                    bind(ps, index++, columns.get(i), newValues.get(i));
+                }
+                bindWhere(ps, index, oldValues, whereColumns, nullInWhere);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    //deletes the row by primary key, or by matching every column when the table has none
+    public int delete(Connection conn, List<String> rowValues) throws SQLException {
+        boolean[] whereColumns = whereColumns();
+        boolean[] nullInWhere = nullMask(rowValues, whereColumns);
+        String sql = deleteSql(whereColumns, nullInWhere);
+
+        return Metrics.timed("dml.delete", schema.getDbType(), schema.getTableName(), sql, () -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 RunningOperations.Operation op = startOperation(conn, sql)) {
+                op.track(ps);
+                bindWhere(ps, 1, rowValues, whereColumns, nullInWhere);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    //deletes all given rows in one transaction, WHERE pk IN (...) for single-column keys, a JDBC batch otherwise
+    public BatchResult deleteRows(Connection conn, List<? extends List<String>> rows, BatchMode mode) throws SQLException {
+        return runBatch("dml.delete_rows", "DELETE FROM " + quotedTable(), conn, rows, mode, (c, chunk) -> {
+            TableSchema.ColumnInfo key = singleKey();
+            if (key != null) {
+                return executeInList(c, "DELETE FROM " + quotedTable(), null, null, key, chunk);
+            }
+            boolean[] whereColumns = whereColumns();
+            return executeGrouped(c, chunk, whereColumns,
+                    nullInWhere -> deleteSql(whereColumns, nullInWhere),
+                    (ps, row, nullInWhere) -> bindWhere(ps, 1, row, whereColumns, nullInWhere));
+        });
+    }
+
+    //sets one column to the same value on all given rows
+    public BatchResult updateColumn(Connection conn, List<? extends List<String>> rows, String columnName,
+                                    String value, BatchMode mode) throws SQLException {
+        int columnIndex = schema.indexOf(columnName);
+        if (columnIndex < 0) {
+            throw new SQLException("Unknown column: " + columnName);
+        }
+        TableSchema.ColumnInfo column = schema.getColumns().get(columnIndex);
+        String set = "UPDATE " + quotedTable() + " SET " + quoteColumn(column.getName()) + " = ?";
+
+        return runBatch("dml.update_column", set, conn, rows, mode, (c, chunk) -> {
+            TableSchema.ColumnInfo key = singleKey();
+            if (key != null) {
+                return executeInList(c, set, column, value, key, chunk);
+            }
+            boolean[] whereColumns = whereColumns();
+            return executeGrouped(c, chunk, whereColumns,
+                    nullInWhere -> sqlCache.computeIfAbsent("S" + columnIndex + "/" + maskKey(nullInWhere),
+                            k -> set + " WHERE " + whereClause(whereColumns, nullInWhere)),
+                    (ps, row, nullInWhere) -> {
+                        bind(ps, 1, column, value);
+                        bindWhere(ps, 2, row, whereColumns, nullInWhere);
+                    });
+        });
+    }
+
+    private String deleteSql(boolean[] whereColumns, boolean[] nullInWhere) {
+        return sqlCache.computeIfAbsent("D" + maskKey(nullInWhere), key -> {
+            String delete = "DELETE FROM " + quotedTable() + " WHERE " + whereClause(whereColumns, nullInWhere);
+            // without a primary key only remove one of any identical rows (MySQL LIMIT 1)
+            if (!schema.hasPrimaryKey()) {
+                delete += schema.getDialect().singleRowDeleteSuffix();
+            }
+            return delete;
+        });
+    }
+
+    /*
+     * All-or-nothing: the rows go in one transaction and any failure rolls everything back.
+     * Best-effort: same single transaction first; if it fails it is rolled back and the rows
+     * are retried one at a time in autocommit, so only the bad rows are skipped.
+     */
+    //the whole batch is one timing under metric, including the row-by-row retry of BEST_EFFORT;
+    //sqlPrefix is the part of the statements shared by every chunk
+    private BatchResult runBatch(String metric, String sqlPrefix, Connection conn, List<? extends List<String>> rows,
+                                 BatchMode mode, BatchAction action) throws SQLException {
+        //statements are built per chunk, the network timeout bounds them and Cancel aborts the connection
+        RunningOperations.Operation op = startOperation(conn, sqlPrefix + " (" + rows.size() + " rows)");
+        try {
+            return Metrics.timed(metric, schema.getDbType(), schema.getTableName(), sqlPrefix,
+                    () -> runBatch(conn, rows, mode, action));
+        } finally {
+            op.close();
+        }
+    }
+
+    private RunningOperations.Operation startOperation(Connection conn, String description) {
+        return RunningOperations.start(OperationTimeouts.Kind.DML, schema.getDbType(), description, conn);
+    }
+
+    private BatchResult runBatch(Connection conn, List<? extends List<String>> rows, BatchMode mode,
+                                 BatchAction action) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        SQLException batchError;
+        conn.setAutoCommit(false);
+        try {
+            int affected = action.execute(conn, rows);
+            conn.commit();
+            return new BatchResult(affected, 0, null);
+        } catch (SQLException e) {
+            conn.rollback();
+            batchError = e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        if (mode == BatchMode.ALL_OR_NOTHING) {
+            throw batchError;
+        }
+
+        conn.setAutoCommit(true);
+        int affected = 0;
+        int failed = 0;
+        String firstError = null;
+        for (List<String> row : rows) {
+            try {
+                affected += action.execute(conn, List.of(row));
+            } catch (SQLException e) {
+                failed++;
+                if (firstError == null) {
+                    firstError = e.getMessage();
+                }
+            }
+        }
+        conn.setAutoCommit(autoCommit);
+        return new BatchResult(affected, failed, firstError);
+    }
+
+    //one statement per MAX_IN_LIST keys: <prefix> WHERE pk IN (?, ?, ...)
+    private int executeInList(Connection conn, String prefix, TableSchema.ColumnInfo setColumn, String setValue,
+                              TableSchema.ColumnInfo key, List<? extends List<String>> rows) throws SQLException {
+        int keyIndex = schema.indexOf(key.getName());
+        int affected = 0;
+        for (int start = 0; start < rows.size(); start += MAX_IN_LIST) {
+            List<? extends List<String>> chunk = rows.subList(start, Math.min(rows.size(), start + MAX_IN_LIST));
+            StringBuilder sql = new StringBuilder(prefix)
+                    .append(" WHERE ").append(quoteColumn(key.getName())).append(" IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                if (setColumn != null) {
+                    bind(ps, index++, setColumn, setValue);
+                }
+                for (List<String> row : chunk) {
+                    bind(ps, index++, key, row.get(keyIndex));
+                }
+                affected += ps.executeUpdate();
+            }
+        }
+        return affected;
+    }
+
+    //rows with the same NULL pattern share a statement, each group goes to the server as one JDBC batch
+    private int executeGrouped(Connection conn, List<? extends List<String>> rows, boolean[] whereColumns,
+                               SqlForMask sqlForMask, RowBinder binder) throws SQLException {
+        Map<String, List<List<String>>> groups = new LinkedHashMap<>();
+        Map<String, boolean[]> masks = new HashMap<>();
+        for (List<String> row : rows) {
+            boolean[] nullInWhere = nullMask(row, whereColumns);
+            String maskKey = maskKey(nullInWhere);
+            masks.putIfAbsent(maskKey, nullInWhere);
+            groups.computeIfAbsent(maskKey, k -> new ArrayList<>()).add(row);
+        }
+
+        int affected = 0;
+        for (Map.Entry<String, List<List<String>>> group : groups.entrySet()) {
+            boolean[] nullInWhere = masks.get(group.getKey());
+            String sql = sqlForMask.sql(nullInWhere);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (List<String> row : group.getValue()) {
+                    binder.bind(ps, row, nullInWhere);
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    //SUCCESS_NO_INFO: the driver ran the row but doesn't report a count
+                    affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                }
+            }
+        }
+        return affected;
+    }
+
+    //the IN-list form needs exactly one key column
+    private TableSchema.ColumnInfo singleKey() {
+        if (schema.getPrimaryKeys().size() != 1) {
+            return null;
+        }
+        return schema.getColumn(schema.getPrimaryKeys().get(0));
+    }
+
+    private String buildInsert() {
+        return insertSql(schema.getColumns());
+    }
+
+    private String setClause() {
+        StringBuilder setClause = new StringBuilder();
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) setClause.append(", ");
+            setClause.append(quoteColumn(columns.get(i).getName())).append(" = ?");
+        }
+        return setClause.toString();
+    }
+
+    //NULLs need IS NULL instead of = ?, so the null pattern is part of the statement shape
+    private String whereClause(boolean[] whereColumns, boolean[] nullInWhere) {
+        StringBuilder where = new StringBuilder();
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (!whereColumns[i]) continue;
+            if (where.length() > 0) where.append(" AND ");
+            where.append(quoteColumn(columns.get(i).getName()));
+            where.append(nullInWhere[i] ? " IS NULL" : " = ?");
+        }
+        return where.toString();
+    }
+
+    private int bindWhere(PreparedStatement ps, int index, List<String> values,
+                          boolean[] whereColumns, boolean[] nullInWhere) throws SQLException {
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (whereColumns[i] && !nullInWhere[i]) {
+                bind(ps, index++, columns.get(i), values.get(i));
+            }
+        }
+        return index;
+    }
+
+    //primary key columns, or every column if there is no key (risky if duplicates exist)
+    private boolean[] whereColumns() {
+        List<TableSchema.ColumnInfo> columns = schema.getColumns();
+        boolean[] where = new boolean[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            where[i] = !schema.hasPrimaryKey() || isPrimaryKey(columns.get(i).getName());
+        }
+        return where;
+    }
+
+    private boolean isPrimaryKey(String columnName) {
+        for (String key : schema.getPrimaryKeys()) {
+            if (key.equalsIgnoreCase(columnName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean[] nullMask(List<String> values, boolean[] whereColumns) {
+        boolean[] mask = new boolean[whereColumns.length];
+        for (int i = 0; i < mask.length; i++) {
+            String value = values.get(i);
+            mask[i] = whereColumns[i] && (value == null || value.trim().isEmpty());
+        }
+        return mask;
+    }
+
+    private static String maskKey(boolean[] mask) {
+        StringBuilder key = new StringBuilder(mask.length);
+        for (boolean b : mask) {
+            key.append(b ? '1' : '0');
+        }
+        return key.toString();
+    }
+
+    //bind one text value using the column type, same rules the old literal-building code used
+    public void bind(PreparedStatement ps, int index, TableSchema.ColumnInfo column, String value) throws SQLException {
+        bindValue(ps, index, column, convert(column, value));
+    }
+
+    //bind a value that already went through convert()
+    public static void bindValue(PreparedStatement ps, int index, TableSchema.ColumnInfo column, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, column.getJdbcType());
+        } else if (value instanceof String) {
+            ps.setString(index, (String) value);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    //text -> the Java value bound for this column, null for an empty value; throws on text the column can't take
+    public static Object convert(TableSchema.ColumnInfo column, String value) throws SQLException {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+
+        String columnType = column.getTypeName().toUpperCase();
+        String text = value.trim();
+
+        // Oracle DATE literal typed by hand - keep just the date
+        if (text.startsWith("DATE '") && text.endsWith("'")) {
+            text = text.substring(6, text.length() - 1);
+        }
+
+        if (columnType.contains("BIT") || columnType.contains("BOOL") || columnType.contains("TINYINT")) {
+            int jdbcType = column.getJdbcType();
+            if (jdbcType == Types.BOOLEAN || jdbcType == Types.BIT) {
+                return JdbcValues.parseBoolean(text);
+            } else if (text.matches("-?\\d+")) {
+                //through parse() so a number too long for a long is an SQLException as well
+                return JdbcValues.parse(text, Types.BIGINT);
+            }
+            // MySQL and Oracle use 0/1 for boolean
+            return JdbcValues.parseBoolean(text) ? 1 : 0;
+        }
+
+        return JdbcValues.parse(text, column.getJdbcType());
+    }
+
+    //INSERT for the given columns only, in that order
+    public String insertSql(List<TableSchema.ColumnInfo> columns) {
+        return insertSql(columns, 1);
+    }
+
+    //INSERT ... VALUES (?, ?), (?, ?), ... for rowCount rows, needs Capability.MULTI_ROW_VALUES when rowCount > 1
+    public String insertSql(List<TableSchema.ColumnInfo> columns, int rowCount) {
+        StringBuilder columnsBuilder = new StringBuilder("(");
+        StringBuilder valuesBuilder = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                columnsBuilder.append(", ");
+                valuesBuilder.append(", ");
+            }
+            columnsBuilder.append(quoteColumn(columns.get(i).getName()));
+            valuesBuilder.append("?");
+        }
+        valuesBuilder.append(")");
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(quotedTable()).append(" ")
+                .append(columnsBuilder).append(") VALUES ").append(valuesBuilder);
+        for (int r = 1; r < rowCount; r++) {
+            sql.append(", ").append(valuesBuilder);
+        }
+        return sql.toString();
+    }
+
+    public String quotedTable() {
+        return quoteName(schema.getTableName());
+    }
+
+    public String quoteColumn(String columnName) {
+        return quoteName(columnName);
+    }
+
+    private String quoteName(String name) {
+        return schema.getDialect().quoteIdentifier(name);
+    }
+
+    private interface BatchAction {
+        int execute(Connection conn, List<? extends List<String>> rows) throws SQLException;
+    }
+
+    private interface SqlForMask {
+        String sql(boolean[] nullInWhere);
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement ps, List<String> row, boolean[] nullInWhere) throws SQLException;
+    }
+
+    //outcome of a multi-row operation, failedRows is only non-zero in best-effort mode
+    public static class BatchResult {
+        private final int affectedRows;
+        private final int failedRows;
+        private final String firstError;
+
+        public BatchResult(int affectedRows, int failedRows, String firstError) {
+            this.affectedRows = affectedRows;
+            this.failedRows = failedRows;
+            this.firstError = firstError;
+        }
+
+        public int getAffectedRows() {
+            return affectedRows;
+        }
+
+        public int getFailedRows() {
+            return failedRows;
+        }
+
+        public String getFirstError() {
+            return firstError;
+        }
+    }
+}
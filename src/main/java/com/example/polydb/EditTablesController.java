@@ -1,19 +1,25 @@
 package com.example.polydb;
 
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,8 +30,36 @@ public class EditTablesController {
     @FXML
     private Label tableNameLabel;
 
-    @FXML private TableView<ObservableList<String>> dataTableView; //sets up tableview that will display data
+    @FXML private TableView<RowStoreList.StoredRow> dataTableView; //sets up tableview that will display data
+    @FXML private ProgressIndicator loadingIndicator;
+    @FXML private Label loadStatusLabel;
+    @FXML private Button cancelLoadButton;
+    @FXML private VBox jobsBox;
+    @FXML private Button firstPageButton;
+    @FXML private Button previousPageButton;
+    @FXML private Button nextPageButton;
+    @FXML private Label pageLabel;
+    @FXML private ComboBox<Integer> pageSizeComboBox;
+    @FXML private TextField jumpField;
+    @FXML private Button jumpButton;
+    @FXML private ComboBox<String> filterColumnComboBox;
+    @FXML private ComboBox<TableFilter.Operator> filterOperatorComboBox;
+    @FXML private TextField filterValueField;
+    @FXML private TextField filterValue2Field;
+    @FXML private Button clearFiltersButton;
+    @FXML private Label filterLabel;
     private DatabaseTable selectedTable;
+    private TableLoadTask currentLoad;
+    private CsvImportTask currentImport;
+    private TableExportTask currentExport;
+    private TableCopyTask currentCopy;
+    private RowBatchTask currentBatch;
+    private KeysetPager pager;
+    private DmlEngine dml;
+    private RowStoreList currentRows;
+    //more changed rows than this and one page query beats reading each row back
+    private static final int MAX_PATCHED_ROWS = 100;
+    private boolean rebuildingColumns = false;
 
 
     public void receiveTable(DatabaseTable table){
@@ -36,141 +70,531 @@ public class EditTablesController {
 
     @FXML
     private void handleRefresh() {
-        dataTableView.getItems().clear();
-        loadData();
+        //a manual refresh also picks up schema changes made outside PolyDB
+        SchemaCache.invalidate(selectedTable.getType(), selectedTable.getName());
+        loadPage(KeysetPager.Direction.CURRENT, null);
     }
 
     //make the table view editable by user
     public void initialize(){
         dataTableView.setEditable(false);
+        dataTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        //header clicks sort on the server, the rows on screen are only one page
+        dataTableView.setSortPolicy(table -> {
+            pushSortOrder();
+            return true;
+        });
+        loadingIndicator.setVisible(false);
+        cancelLoadButton.setVisible(false);
+
+        pageSizeComboBox.getItems().addAll(100, 500, 1000, 5000, 10000);
+        pageSizeComboBox.setValue(KeysetPager.DEFAULT_PAGE_SIZE);
+        pageSizeComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (pager != null && newVal != null) {
+                pager.setPageSize(newVal);
+                loadPage(KeysetPager.Direction.CURRENT, null);
+            }
+        });
+        jumpField.setOnAction(event -> handleJumpToKey());
+
+        filterOperatorComboBox.getItems().addAll(TableFilter.Operator.values());
+        filterOperatorComboBox.setValue(TableFilter.Operator.EQUALS);
+        filterOperatorComboBox.valueProperty().addListener((obs, oldVal, newVal) -> updateFilterFields());
+        filterValueField.setOnAction(event -> handleAddFilter());
+        filterValue2Field.setOnAction(event -> handleAddFilter());
+        updateFilterFields();
+        clearFiltersButton.setDisable(true);
+
+        updatePagingButtons();
+    }
+
+    //turn the header sort order into the pager's ORDER BY; the policy also runs when items change, so only reload on a real change
+    private void pushSortOrder() {
+        if (pager == null || rebuildingColumns) {
+            return;
+        }
+        List<KeysetPager.SortKey> keys = new ArrayList<>();
+        for (TableColumn<RowStoreList.StoredRow, ?> column : dataTableView.getSortOrder()) {
+            keys.add(new KeysetPager.SortKey(column.getText(),
+                    column.getSortType() == TableColumn.SortType.DESCENDING));
+        }
+        if (!keys.equals(pager.getSort())) {
+            pager.setSort(keys);
+            loadPage(KeysetPager.Direction.FIRST, null);
+        }
+    }
+
+    //"To" is only used by ranges, null checks take no value
+    private void updateFilterFields() {
+        TableFilter.Operator operator = filterOperatorComboBox.getValue();
+        boolean needsValue = operator != null && operator.needsValue();
+        filterValueField.setDisable(!needsValue);
+        filterValueField.setPromptText(operator == TableFilter.Operator.RANGE ? "From" : "Value");
+        filterValue2Field.setVisible(operator == TableFilter.Operator.RANGE);
+        filterValue2Field.setManaged(operator == TableFilter.Operator.RANGE);
+    }
+
+    //add a condition to the filter and reload from the first page, the database does the filtering
+    @FXML
+    private void handleAddFilter() {
+        if (pager == null || filterColumnComboBox.getValue() == null || filterOperatorComboBox.getValue() == null) {
+            return;
+        }
+        TableFilter.Condition condition = new TableFilter.Condition(filterColumnComboBox.getValue(),
+                filterOperatorComboBox.getValue(), filterValueField.getText(), filterValue2Field.getText());
+        TableFilter filter = pager.getFilter().with(condition);
+
+        //check the values here so typos show up as a message instead of a failed load
+        try {
+            filter.compile(getSchema(), new ArrayList<>());
+        } catch (SQLException e) {
+            showAlert("Filter Error", e.getMessage(), Alert.AlertType.WARNING);
+            return;
+        }
+
+        filterValueField.clear();
+        filterValue2Field.clear();
+        applyFilter(filter);
+    }
+
+    @FXML
+    private void handleClearFilters() {
+        if (pager != null && !pager.getFilter().isEmpty()) {
+            applyFilter(TableFilter.NONE);
+        }
+    }
+
+    private void applyFilter(TableFilter filter) {
+        pager.setFilter(filter);
+        filterLabel.setText(filter.isEmpty() ? "" : filter.toString());
+        clearFiltersButton.setDisable(filter.isEmpty());
+        loadPage(KeysetPager.Direction.FIRST, null);
     }
 
     private void loadData(){
-        dataTableView.getColumns().clear();
+        pager = new KeysetPager(selectedTable, getTableNameWithQuotes());
+        pager.setPageSize(pageSizeComboBox.getValue());
+        loadPage(KeysetPager.Direction.FIRST, null);
+    }
 
-        try{
-            //1 - get column names from db
-            List<String> columnNames = getColumnNames();
+    //load one page in the background, rows show up in chunks while the query is still running
+    private void loadPage(KeysetPager.Direction direction, String jumpValue){
+        cancelLoad();
+        dataTableView.setItems(FXCollections.observableArrayList());
+
+        TableLoadTask task = new TableLoadTask(selectedTable.getType(), pager, direction, jumpValue,
+                store -> {
+                    createColumns(store.getColumnNames());
+                    currentRows = new RowStoreList(store);
+                    dataTableView.setItems(currentRows);
+                },
+                batch -> currentRows.appendBatch(batch));
+
+        loadStatusLabel.textProperty().bind(task.messageProperty());
+        loadingIndicator.visibleProperty().bind(task.runningProperty());
+        cancelLoadButton.visibleProperty().bind(task.runningProperty());
+
+        task.setOnSucceeded(event -> {
+            KeysetPager.PageResult result = task.getValue();
+            KeysetPager.PageQuery query = task.getQuery();
+            if (query == null) {
+                return;
+            }
+            //stepping back close to the start can give a short page, show a full first page instead
+            if (query.isReversed() && !result.hasMore() && result.getRowCount() < query.getLimit()) {
+                loadPage(KeysetPager.Direction.FIRST, null);
+                return;
+            }
+            pager.pageLoaded(query, result);
+            updatePagingButtons();
+        });
+        task.setOnFailed(event -> {
+            Throwable e = task.getException();
+            updatePagingButtons();
+            // Show error to user
+            showAlert("Database Error", "Failed to load table data: " + e.getMessage(), Alert.AlertType.ERROR);
+        });
+        task.setOnCancelled(event -> {
+            //a newer load may already be running
+            if (currentLoad == task) {
+                updatePagingButtons();
+            }
+        });
 
-            //2 - create tables dynamically
-            for (int i = 0; i < columnNames.size(); i++) {
-                final int columnIndex = i;
+        currentLoad = task;
+        setPagingDisabled(true);
+        Thread.ofVirtual().name("polydb-table-load").start(task);
+    }
+
+    @FXML
+    private void handleNextPage() {
+        loadPage(KeysetPager.Direction.NEXT, null);
+    }
 
-                TableColumn<ObservableList<String>, String> column = new TableColumn<>(columnNames.get(i));
+    @FXML
+    private void handlePreviousPage() {
+        loadPage(KeysetPager.Direction.PREVIOUS, null);
+    }
 
-                //set how to get data for each cell
-                column.setCellValueFactory(cellData -> {
-                    ObservableList<String> row = cellData.getValue();
-                    String cellValue = row.get(columnIndex);
-                    return new SimpleStringProperty(cellValue);
-                });
+    @FXML
+    private void handleFirstPage() {
+        loadPage(KeysetPager.Direction.FIRST, null);
+    }
 
+    @FXML
+    private void handleJumpToKey() {
+        String value = jumpField.getText();
+        if (value == null || value.trim().isEmpty()) {
+            return;
+        }
+        loadPage(KeysetPager.Direction.JUMP, value);
+    }
 
-                //make cells editable
-                column.setCellFactory(TextFieldTableCell.forTableColumn());
+    private void setPagingDisabled(boolean disabled) {
+        firstPageButton.setDisable(disabled);
+        previousPageButton.setDisable(disabled);
+        nextPageButton.setDisable(disabled);
+        jumpButton.setDisable(disabled);
+    }
 
-                //handle the edits
-                column.setOnEditCommit(event -> {
-                    ObservableList<String> row = event.getRowValue();
-                    row.set(columnIndex, event.getNewValue());
-                });
+    private void updatePagingButtons() {
+        if (pager == null) {
+            setPagingDisabled(true);
+            pageLabel.setText("");
+            return;
+        }
+        firstPageButton.setDisable(!pager.hasPrevious());
+        previousPageButton.setDisable(!pager.hasPrevious());
+        nextPageButton.setDisable(!pager.hasNext());
+        jumpButton.setDisable(false);
+        jumpField.setPromptText(pager.isKeyset() ? "Jump to " + pager.getKeyColumns().get(0) : "Jump to page");
+        pageLabel.setText(pager.describePage());
+    }
 
-                dataTableView.getColumns().add(column);
+    //only the page load, imports, exports and copies have their own Cancel in jobsBox
+    @FXML
+    private void handleCancelLoad() {
+        cancelLoad();
+    }
 
+    //a status row with its own Cancel for a long job, removed when the job ends;
+    //page loads come and go under it without touching the row
+    private void showJob(String name, Task<?> task) {
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setPrefSize(24, 24);
+        indicator.progressProperty().bind(task.progressProperty());
+        Label status = new Label();
+        status.setStyle("-fx-font-weight: bold;");
+        status.textProperty().bind(task.messageProperty());
+        Button cancel = new Button("Cancel " + name);
+        cancel.setStyle("-fx-font-weight: bold; -fx-background-color: #FA5F55;");
+        cancel.setOnAction(event -> task.cancel());
+
+        HBox row = new HBox(10, indicator, status, cancel);
+        row.setAlignment(Pos.CENTER_LEFT);
+        jobsBox.getChildren().add(row);
+        task.runningProperty().addListener((obs, wasRunning, running) -> {
+            if (!running) {
+                jobsBox.getChildren().remove(row);
             }
+        });
+    }
 
-            //3 - load the actual table data
-            List<ObservableList<String>> tableData = getTableData();
-            dataTableView.getItems().addAll(tableData);
-        } catch (SQLException e){
-            // Show error to user
-            showAlert("Database Error", "Failed to load table data: " + e.getMessage(), Alert.AlertType.ERROR);
+    //copy all rows into a table on another (or the same) database, creating it with mapped types if needed
+    @FXML
+    private void handleCopyTable() {
+        if (currentCopy != null && currentCopy.isRunning()) {
+            showAlert("Copy Running", "A copy is already running for this table", Alert.AlertType.WARNING);
+            return;
         }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Copy Table");
+        dialog.setHeaderText("Copy all rows of " + selectedTable.getName() + " (" + selectedTable.getType() + ")");
+        ButtonType copyButton = new ButtonType("Copy", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(copyButton, ButtonType.CANCEL);
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(20, 150, 10, 10));
+        ComboBox<String> targetComboBox = new ComboBox<>();
+        targetComboBox.getItems().addAll(SqlDialects.names());
+        targetComboBox.setValue(selectedTable.getType());
+        TextField targetTableField = new TextField(selectedTable.getName());
+        Spinner<Integer> workersSpinner = new Spinner<>(1, 16, TableCopier.DEFAULT_WORKERS);
+        CheckBox createCheckBox = new CheckBox("Create the table if it doesn't exist");
+        createCheckBox.setSelected(true);
+        CheckBox resumeCheckBox = new CheckBox("Resume the previous copy");
+        //only offered when an interrupted copy to that table left a checkpoint
+        Runnable updateResume = () -> {
+            String targetType = targetComboBox.getValue();
+            String targetTable = targetTableField.getText().trim();
+            boolean resumable = targetType != null && !targetTable.isEmpty() && CopyCheckpoint.exists(
+                    TableCopyTask.checkpointFile(selectedTable.getType(), selectedTable.getName(), targetType, targetTable));
+            resumeCheckBox.setDisable(!resumable);
+            resumeCheckBox.setSelected(resumable);
+        };
+        targetComboBox.valueProperty().addListener((obs, oldValue, newValue) -> updateResume.run());
+        targetTableField.textProperty().addListener((obs, oldValue, newValue) -> updateResume.run());
+        updateResume.run();
+
+        form.add(new Label("Target database:"), 0, 0);
+        form.add(targetComboBox, 1, 0);
+        form.add(new Label("Target table:"), 0, 1);
+        form.add(targetTableField, 1, 1);
+        form.add(new Label("Workers:"), 0, 2);
+        form.add(workersSpinner, 1, 2);
+        form.add(createCheckBox, 1, 3);
+        form.add(resumeCheckBox, 1, 4);
+        dialog.getDialogPane().setContent(form);
+
+        Optional<ButtonType> choice = dialog.showAndWait();
+        if (choice.isEmpty() || choice.get() != copyButton) {
+            return;
+        }
+        String targetType = targetComboBox.getValue();
+        String targetTable = targetTableField.getText().trim();
+        if (targetType == null || targetTable.isEmpty()) {
+            showAlert("Input Error", "Target database and table are required", Alert.AlertType.ERROR);
+            return;
+        }
+
+        TableCopyTask task = new TableCopyTask(selectedTable.getType(), selectedTable.getName(), targetType, targetTable,
+                workersSpinner.getValue(), createCheckBox.isSelected(), resumeCheckBox.isSelected());
+
+        showJob("Copy", task);
+
+        task.setOnSucceeded(event -> {
+            TableCopier.CopyResult result = task.getValue();
+            String resumed = result.getResumedChunks() > 0
+                    ? String.format("%n%,d of %,d key ranges were already copied", result.getResumedChunks(), result.getChunks())
+                    : "";
+            showAlert(result.isCancelled() ? "Copy Cancelled" : "Copy Finished",
+                    String.format("Copied %,d rows (%.1f MB) to %s.%s in %.1f s with %d workers%n%,.0f rows/s, %.1f MB/s%s%s",
+                            result.getRows(), result.getBytes() / (1024.0 * 1024.0), targetType, targetTable,
+                            result.getElapsedMillis() / 1000.0, result.getWorkers(), result.getRowsPerSecond(),
+                            result.getMegabytesPerSecond(), resumed, result.isCancelled() ? resumeHint(targetType, targetTable) : ""),
+                    Alert.AlertType.INFORMATION);
+        });
+        task.setOnFailed(event ->
+                showAlert("Copy Error", "Copy failed: " + task.getException().getMessage()
+                        + resumeHint(targetType, targetTable), Alert.AlertType.ERROR));
+
+        currentCopy = task;
+        Thread.ofVirtual().name("polydb-copy").start(task);
     }
 
+    //write the whole table to CSV or JSON Lines (optionally gzipped) without loading it into memory
+    @FXML
+    private void handleExport() {
+        if (currentExport != null && currentExport.isRunning()) {
+            showAlert("Export Running", "An export is already running for this table", Alert.AlertType.WARNING);
+            return;
+        }
 
-    private void showAlert(String title, String message, Alert.AlertType type) {
-        Alert alert = new Alert(type);
-        alert.setTitle(title);
-        alert.setHeaderText(null);
-        alert.setContentText(message);
-        alert.showAndWait();
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Export Table");
+        dialog.setHeaderText("Export all rows of " + selectedTable.getName());
+        ButtonType exportButton = new ButtonType("Export", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(exportButton, ButtonType.CANCEL);
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(20, 150, 10, 10));
+        ComboBox<TableExporter.Format> formatComboBox = new ComboBox<>();
+        formatComboBox.getItems().addAll(TableExporter.Format.values());
+        formatComboBox.setValue(TableExporter.Format.CSV);
+        CheckBox gzipCheckBox = new CheckBox("Compress (gzip)");
+        form.add(new Label("Format:"), 0, 0);
+        form.add(formatComboBox, 1, 0);
+        form.add(gzipCheckBox, 1, 1);
+        dialog.getDialogPane().setContent(form);
+
+        Optional<ButtonType> choice = dialog.showAndWait();
+        if (choice.isEmpty() || choice.get() != exportButton) {
+            return;
+        }
+
+        TableExporter.Format format = formatComboBox.getValue();
+        boolean gzip = gzipCheckBox.isSelected();
+        String extension = (format == TableExporter.Format.CSV ? ".csv" : ".jsonl") + (gzip ? ".gz" : "");
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + selectedTable.getName());
+        chooser.setInitialFileName(selectedTable.getName() + extension);
+        File file = chooser.showSaveDialog(dataTableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TableExportTask task = new TableExportTask(selectedTable.getType(), selectedTable.getName(), getTableNameWithQuotes(),
+                file.toPath(), format, gzip);
+
+        showJob("Export", task);
+
+        task.setOnSucceeded(event -> {
+            TableExporter.ExportResult result = task.getValue();
+            showAlert(result.isCancelled() ? "Export Cancelled" : "Export Finished",
+                    String.format("Wrote %,d rows (%.1f MB) to %s in %.1f s%n%,.0f rows/s, %.1f MB/s%n"
+                                    + "%,d fetch round trips (fetch size %,d)",
+                            result.getRows(), result.getBytes() / (1024.0 * 1024.0), result.getFile(),
+                            result.getElapsedMillis() / 1000.0, result.getRowsPerSecond(),
+                            result.getMegabytesPerSecond(), result.getFetchRoundTrips(), result.getFetchSize()),
+                    Alert.AlertType.INFORMATION);
+        });
+        task.setOnFailed(event ->
+                showAlert("Export Error", "Export failed: " + task.getException().getMessage(), Alert.AlertType.ERROR));
+
+        currentExport = task;
+        Thread.ofVirtual().name("polydb-export").start(task);
     }
 
-    private List<String> getColumnNames() throws SQLException {
-        List<String> columns = new ArrayList<>();
+    private String resumeHint(String targetType, String targetTable) {
+        boolean resumable = CopyCheckpoint.exists(
+                TableCopyTask.checkpointFile(selectedTable.getType(), selectedTable.getName(), targetType, targetTable));
+        return resumable ? "\nCommitted key ranges are kept, copy again to resume." : "";
+    }
 
-        try(Connection conn = getConnection();
-            ResultSet rs = conn.getMetaData().getColumns(null, null, selectedTable.getName(), null)) {
+    //stream a CSV file into the table in the background, bad rows go to <file>.rejects.csv
+    @FXML
+    private void handleImportCsv() {
+        if (currentImport != null && currentImport.isRunning()) {
+            showAlert("Import Running", "An import is already running for this table", Alert.AlertType.WARNING);
+            return;
+        }
 
-            while(rs.next()){
-                String columnName = rs.getString("COLUMN_NAME");
-                // For Oracle, ensure we handle case properly
-                if (selectedTable.getType().equals("OracleDB")) {
-                    columnName = columnName.toUpperCase();
-                }
-                columns.add(columnName);
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import CSV into " + selectedTable.getName());
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv", "*.txt"));
+        File file = chooser.showOpenDialog(dataTableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TableSchema schema;
+        try {
+            schema = getSchema();
+        } catch (SQLException e) {
+            showAlert("Database Error", "Failed to get column information: " + e.getMessage(), Alert.AlertType.ERROR);
+            return;
+        }
+
+        Path rejectFile = file.toPath().resolveSibling(file.getName() + ".rejects.csv");
+        CsvImportTask task = new CsvImportTask(selectedTable.getType(), schema, file.toPath(), rejectFile,
+                CsvImportTask.DEFAULT_COMMIT_EVERY);
+
+        showJob("Import", task);
+
+        task.setOnSucceeded(event -> {
+            CsvImporter.ImportResult result = task.getValue();
+            String summary = String.format("Imported %,d rows in %.1f s (%,.0f rows/s, %s)",
+                    result.getImportedRows(), result.getElapsedMillis() / 1000.0,
+                    result.getRowsPerSecond(), result.getMethod());
+            if (result.getRejectFile() != null) {
+                summary += String.format("%n%,d rows rejected, see %s", result.getRejectedRows(), result.getRejectFile());
             }
+            showAlert("Import Finished", summary,
+                    result.getRejectedRows() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+            handleRefresh();
+        });
+        task.setOnFailed(event ->
+                showAlert("Import Error", "Import failed: " + task.getException().getMessage(), Alert.AlertType.ERROR));
+        task.setOnCancelled(event -> {
+            //committed chunks stay in the table
+            showAlert("Import Cancelled", "Import cancelled, rows committed so far were kept", Alert.AlertType.INFORMATION);
+            handleRefresh();
+        });
+
+        currentImport = task;
+        Thread.ofVirtual().name("polydb-csv-import").start(task);
+    }
+
+    private void cancelLoad() {
+        if (currentLoad != null && currentLoad.isRunning()) {
+            currentLoad.cancel();
         }
-        return columns;
     }
 
+    //create table columns dynamically, keeping the existing ones when paging through the same table
+    private void createColumns(List<String> columnNames) {
+        List<String> currentNames = new ArrayList<>();
+        for (TableColumn<RowStoreList.StoredRow, ?> column : dataTableView.getColumns()) {
+            currentNames.add(column.getText());
+        }
+        if (currentNames.equals(columnNames)) {
+            return;
+        }
+        rebuildingColumns = true;
+        dataTableView.getColumns().clear();
+        filterColumnComboBox.getItems().setAll(columnNames);
+
+        for (int i = 0; i < columnNames.size(); i++) {
+            final int columnIndex = i;
 
-    private List<ObservableList<String>> getTableData() throws SQLException {
-        List<ObservableList<String>> data = new ArrayList<>();
+            TableColumn<RowStoreList.StoredRow, String> column = new TableColumn<>(columnNames.get(i));
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM " + getTableNameWithQuotes())) {
+            //set how to get data for each cell, values are only formatted for cells on screen
+            column.setCellValueFactory(cellData ->
+                    new ReadOnlyStringWrapper(cellData.getValue().get(columnIndex)).getReadOnlyProperty());
+
+            //rows are edited through the Edit Row dialog
+            column.setEditable(false);
 
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
+            dataTableView.getColumns().add(column);
+
+        }
 
-            while (rs.next()) {
-                ObservableList<String> row = FXCollections.observableArrayList();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.add(rs.getString(i) != null ? rs.getString(i) : "");
+        //keep the header arrows in line with the sort the server is using
+        if (pager != null) {
+            for (KeysetPager.SortKey key : pager.getSort()) {
+                for (TableColumn<RowStoreList.StoredRow, ?> column : dataTableView.getColumns()) {
+                    if (column.getText().equalsIgnoreCase(key.getColumn())) {
+                        column.setSortType(key.isDescending() ? TableColumn.SortType.DESCENDING : TableColumn.SortType.ASCENDING);
+                        dataTableView.getSortOrder().add(column);
+                    }
                 }
-                data.add(row);
             }
         }
-        return data;
+        rebuildingColumns = false;
+    }
+
+
+    private void showAlert(String title, String message, Alert.AlertType type) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
     }
 
+    //schema comes from the cache, one metadata pass per table instead of one per call
+    private TableSchema getSchema() throws SQLException {
+        return SchemaCache.get(selectedTable);
+    }
+
+    private List<String> getColumnNames() throws SQLException {
+        return getSchema().getColumnNames();
+    }
+
+
+    //borrow a pooled connection for this table's database, closing it gives it back
     private Connection getConnection() throws SQLException {
-        switch (selectedTable.getType()) {
-            case "PostgreSQL":
-                return DriverManager.getConnection(
-                        "jdbc:postgresql://localhost:5432/TestD",
-                        "postgres", "samplePass");
-            case "MySQL":
-                return DriverManager.getConnection(
-                        "jdbc:mysql://localhost:3306/world",
-                        "root", "samplePass");
-            case "OracleDB":
-                return DriverManager.getConnection(
-                        "jdbc:oracle:thin:@localhost:1521/free",
-                        "system", "samplePass");
-            default:
-                throw new SQLException("Unknown database type");
-        }
+        return ConnectionPool.forType(selectedTable.getType()).getConnection();
+    }
+
+    private SqlDialect getDialect() {
+        return SqlDialects.of(selectedTable.getType());
     }
 
     private String getTableNameWithQuotes() {
-        switch (selectedTable.getType()) {
-            case "PostgreSQL":
-                return "\"" + selectedTable.getName() + "\"";
-            case "MySQL":
-                return "`" + selectedTable.getName() + "`";
-            case "OracleDB":
-                return "\"" + selectedTable.getName().toUpperCase() + "\"";
-            default:
-                return selectedTable.getName();
-        }
+        return getDialect().quoteIdentifier(selectedTable.getName());
     }
 
     @FXML
     private void handleBackButton() throws IOException {
+        cancelLoad();
         Parent root = FXMLLoader.load(getClass().getResource("tableManagement.fxml"));
         Stage stage = (Stage) dataTableView.getScene().getWindow();
         stage.setScene(new Scene(root));
@@ -226,18 +650,7 @@ public class EditTablesController {
                 } else if (type.contains("DATE")) {
                     textField.setPromptText("Enter YYYY-MM-DD");
                 } else if (type.contains("BIT") || type.contains("BOOL") || type.contains("TINYINT")) {
-
-                    switch (selectedTable.getType()){
-                        case "PostgreSQL":
-                            textField.setPromptText("Enter true/false");
-                            break;
-                        case "MySQL":
-                            textField.setPromptText("Enter 1/0");
-                            break;
-                        case "OracleDB":
-                            textField.setPromptText("Enter true/false");
-                            break;
-                    }
+                    textField.setPromptText(getDialect().booleanInputHint());
                 } else if (type.contains("NUMBER") || type.contains("ID") || type.contains("PRIMARY KEY") || type.contains("SERIAL")) {
                     textField.setPromptText("PrimKey Required");
                 }
@@ -275,17 +688,7 @@ public class EditTablesController {
                                 rowData.add("1111-11-11");
                             } else if (type.contains("BIT") || type.contains("BOOL") || type.contains("TINYINT")) {
                                 // Add database-specific default boolean values
-                                switch (selectedTable.getType()) {
-                                    case "PostgreSQL":
-                                        rowData.add("FALSE");  // PostgreSQL accepts 'f' for false
-                                        break;
-                                    case "MySQL":
-                                    case "OracleDB":
-                                        rowData.add("0");  // MySQL and Oracle use 0 for false
-                                        break;
-                                    default:
-                                        rowData.add("0");
-                                }
+                                rowData.add(getDialect().booleanLiteral(false));
                             } else {
                                 rowData.add("null");
                             }
@@ -312,13 +715,8 @@ public class EditTablesController {
             List<String> primaryKeys = getPrimaryKeyColumns();
             result.ifPresent(rowData -> {
                 try {
-                    boolean success = insertRowWithData(rowData);
-                    if (success) {
-                        showAlert("Success", "Row added successfully", Alert.AlertType.INFORMATION);
-                        handleRefresh();
-                    } else {
-                        showAlert("Error", "Failed to add row", Alert.AlertType.ERROR);
-                    }
+                    insertRowWithData(rowData);
+                    showAlert("Success", "Row added successfully", Alert.AlertType.INFORMATION);
                 } catch (SQLException e) {
                     showAlert("Database Error", "(This may be a PRIMARY KEY column) Failed to add row: " + e.getMessage(), Alert.AlertType.ERROR);
                }
@@ -333,147 +731,142 @@ public class EditTablesController {
 
 
     private List<String> getColumnTypes() throws SQLException {
-        List<String> types = new ArrayList<>();
-        try (Connection conn = getConnection();
-             ResultSet rs = conn.getMetaData().getColumns(null, null, selectedTable.getName(), null)) {
-            while (rs.next()) {
-                types.add(rs.getString("TYPE_NAME"));  // Gets the SQL type name
-            }
-        }
-        return types;
+        return getSchema().getColumnTypes();  // Gets the SQL type names
     }
 
 
-    private boolean insertRowWithData(ObservableList<String> rowData) throws SQLException {
-        try (Connection conn = getConnection();
-             Statement statement = conn.createStatement()) {
-
-            List<String> columnNames = getColumnNames();
-            List<String> columnTypes = getColumnTypes(); // Get column types
+    //the new row is read back as stored and added at the end of the page, the table is not loaded again
+    private void insertRowWithData(ObservableList<String> rowData) throws SQLException {
+        //look up metadata first so we don't hold two pooled connections at once
+        DmlEngine dml = getDml();
+        RowStoreList rows = patchableRows();
 
-            // Build the SQL INSERT statement
-            StringBuilder columnsBuilder = new StringBuilder("(");
-            StringBuilder valuesBuilder = new StringBuilder("(");
+        ColumnarRowStore.Batch inserted = null;
+        try (Connection conn = getConnection()) {
+            if (rows == null) {
+                dml.insert(conn, rowData);
+            } else {
+                inserted = dml.insertAndRead(conn, rowData, rows.getStore().getKindsCopy());
+            }
+        }
+        if (inserted == null || inserted.getRowCount() != 1) {
+            reloadCurrentPage();
+            return;
+        }
+        rows.appendBatch(inserted);
+        dataTableView.getSelectionModel().clearAndSelect(rows.size() - 1);
+        dataTableView.scrollTo(rows.size() - 1);
+    }
 
-            for (int i = 0; i < columnNames.size(); i++) {
-                if (i > 0) {
-                    columnsBuilder.append(", ");
-                    valuesBuilder.append(", ");
-                }
-                columnsBuilder.append(getColumnNameWithQuotes(columnNames.get(i)));
+    //the rows on screen if they can be patched in place, null while a page is still loading
+    private RowStoreList patchableRows() {
+        if (currentRows == null || dataTableView.getItems() != currentRows
+                || (currentLoad != null && currentLoad.isRunning())) {
+            return null;
+        }
+        return currentRows;
+    }
 
-                String value = rowData.get(i);
-                String columnType = columnTypes.get(i).toUpperCase();
+    //after row DML the schema is unchanged, so reload the page without dropping the cached schema
+    private void reloadCurrentPage() {
+        loadPage(KeysetPager.Direction.CURRENT, null);
+    }
 
-                if (value == null || value.isEmpty()) {
-                    valuesBuilder.append("NULL");
-                } else {
-                    // Handle different value types properly
-                    if (value.startsWith("DATE '") && value.endsWith("'")) {
-                        // Oracle DATE literal - don't wrap in additional quotes
-                        valuesBuilder.append(value);
-                    } else if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                        // Handle date formatting based on database type
-                        if (selectedTable.getType().equals("OracleDB")) {
-                            valuesBuilder.append("DATE '").append(value).append("'");
-                        } else {
-                            valuesBuilder.append("'").append(value).append("'");
-                        }
-                    } else if (columnType.contains("INT") || columnType.contains("NUMBER") ||
-                            columnType.contains("FLOAT") || columnType.contains("DOUBLE") ||
-                            columnType.contains("REAL") || columnType.contains("DECIMAL")) {
-                        // Numeric types - no quotes needed
-                        valuesBuilder.append(value);
-                    } else if (columnType.contains("BIT") || columnType.contains("BOOL") ||
-                            columnType.contains("TINYINT")) {
-                        String boolValue = value.trim().toLowerCase();
-
-                        switch (selectedTable.getType()) {
-                            case "PostgreSQL":
-                                // PostgreSQL accepts TRUE/FALSE (without quotes)
-                                if (boolValue.equals("f") || boolValue.equals("false") ||
-                                        boolValue.equals("0") || boolValue.equals("FALSE")) {
-                                    valuesBuilder.append("FALSE");
-                                } else if (boolValue.equals("t") || boolValue.equals("true") ||
-                                        boolValue.equals("1") || boolValue.equals("TRUE")) {
-                                    valuesBuilder.append("TRUE");
-                                } else {
-                                    valuesBuilder.append("FALSE");  // default to FALSE
-                                }
-                                break;
-                            case "MySQL":
-                            case "OracleDB":
-                                // MySQL and Oracle use 0/1 for boolean
-                                if (boolValue.equals("1") || boolValue.equals("true") ||
-                                        boolValue.equals("t") || boolValue.equals("TRUE")) {
-                                    valuesBuilder.append("1");
-                                } else {
-                                    valuesBuilder.append("0");
-                                }
-                                break;
-                            default:
-                                valuesBuilder.append(value);
-                        }
-                    } else {
-                        // String types - wrap in quotes
-                        valuesBuilder.append("'").append(value).append("'");
+    //read changed rows back by primary key and swap them into the page; keyValues hold each row's key after the change
+    private void refreshRows(List<RowStoreList.StoredRow> rows, List<? extends List<String>> keyValues) {
+        RowStoreList shown = patchableRows();
+        if (shown == null || rows.size() > MAX_PATCHED_ROWS) {
+            reloadCurrentPage();
+            return;
+        }
+        List<ColumnarRowStore.Batch> fresh = new ArrayList<>();
+        try {
+            DmlEngine dml = getDml();
+            ColumnarRowStore.Kind[] kinds = shown.getStore().getKindsCopy();
+            try (Connection conn = getConnection()) {
+                for (List<String> key : keyValues) {
+                    ColumnarRowStore.Batch batch = dml.selectRow(conn, key, kinds);
+                    if (batch == null) {
+                        reloadCurrentPage();
+                        return;
                     }
+                    fresh.add(batch);
                 }
             }
+        } catch (SQLException e) {
+            //the change itself went through, only the read-back failed
+            System.err.println("Could not read changed rows back, reloading the page: " + e.getMessage());
+            reloadCurrentPage();
+            return;
+        }
 
-            columnsBuilder.append(")");
-            valuesBuilder.append(")");
-
-            String sql = "INSERT INTO " + getTableNameWithQuotes() + " " +
-                    columnsBuilder.toString() + " VALUES " + valuesBuilder.toString();
+        List<Integer> selected = new ArrayList<>(dataTableView.getSelectionModel().getSelectedIndices());
+        List<RowStoreList.StoredRow> gone = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            int index = shown.indexOf(rows.get(i));
+            if (index < 0) {
+                continue;
+            }
+            if (fresh.get(i).getRowCount() == 1) {
+                shown.replaceRow(index, fresh.get(i));
+            } else {
+                //deleted by someone else in the meantime
+                gone.add(rows.get(i));
+            }
+        }
+        if (gone.isEmpty()) {
+            dataTableView.getSelectionModel().clearSelection();
+            for (int index : selected) {
+                dataTableView.getSelectionModel().select(index);
+            }
+        } else {
+            shown.removeRows(gone);
+        }
+    }
 
-            System.out.println("Generated SQL: " + sql); // Debug output
+    //drop deleted rows from the page instead of loading it again
+    private void removeShownRows(List<RowStoreList.StoredRow> rows) {
+        RowStoreList shown = patchableRows();
+        if (shown == null) {
+            reloadCurrentPage();
+        } else {
+            shown.removeRows(rows);
+        }
+    }
 
-            int affectedRows = statement.executeUpdate(sql);
-            return affectedRows > 0;
+    //row DML for the selected table, rebuilt whenever the cached schema changes
+    private DmlEngine getDml() throws SQLException {
+        TableSchema schema = getSchema();
+        if (dml == null || dml.getSchema() != schema) {
+            dml = new DmlEngine(schema);
         }
+        return dml;
     }
 
 
-//understand
-private String getColumnNameWithQuotes(String columnName) {
-    switch (selectedTable.getType()) {
-        case "PostgreSQL":
-            return "\"" + columnName + "\"";
-        case "MySQL":
-            return "`" + columnName + "`";
-        case "OracleDB":
-            // Oracle: use uppercase and quotes
-            return "\"" + columnName.toUpperCase() + "\"";
-        default:
-            return columnName;
-    }
-}
 
     @FXML
     private void handleDeleteRow(){
 
         //selecting row
-        ObservableList<String> selectedRow = dataTableView.getSelectionModel().getSelectedItem();
+        RowStoreList.StoredRow selectedRow = dataTableView.getSelectionModel().getSelectedItem();
         if (selectedRow == null){
             showAlert("Selection Error", "Please select a row to delete", Alert.AlertType.WARNING);
             return;
         }
 
-        try{
-            boolean success = false;
-
-            switch (selectedTable.getType()){
+        //several rows selected: delete them all in one go and refresh once
+        List<RowStoreList.StoredRow> selectedRows = new ArrayList<>(dataTableView.getSelectionModel().getSelectedItems());
+        if (selectedRows.size() > 1) {
+            deleteSelectedRows(selectedRows);
+            return;
+        }
 
-                case "PostgreSQL":
-                case "MySQL":
-                case "OracleDB":
-                    success = deleteGeneralRow(selectedRow);
-                    break;
-            }
+        try{
+            boolean success = deleteGeneralRow(selectedRow);
 
             if (success){
-                handleRefresh();
+                removeShownRows(List.of(selectedRow));
             } else {
                 showAlert("Error", "Failed to delete row", Alert.AlertType.ERROR);
             }
@@ -482,118 +875,209 @@ private String getColumnNameWithQuotes(String columnName) {
         }
     }
 
-    private boolean deleteGeneralRow(ObservableList<String> rowData) throws SQLException {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
+    private void deleteSelectedRows(List<RowStoreList.StoredRow> rows) {
+        if (isBatchRunning()) {
+            return;
+        }
+        try {
+            DmlEngine dml = getDml();
+            String message = "Delete " + rows.size() + " selected rows?";
+            if (!dml.getSchema().hasPrimaryKey()) {
+                message += "\nNo primary key, rows are matched on all columns.";
+            }
+            Optional<DmlEngine.BatchMode> mode = askBatchMode("Delete Rows", message);
+            if (mode.isEmpty()) {
+                return;
+            }
 
-            // Get primary key columns (if any)
-            List<String> primaryKeys = getPrimaryKeyColumns();
-            List<String> columnNames = getColumnNames();
-            List<String> columnTypes = getColumnTypes(); // Add this to get column types
-            StringBuilder whereClause = new StringBuilder();
-
-            if (!primaryKeys.isEmpty()) {
-                // using primary key for deletion (best)
-                for (int i = 0; i < dataTableView.getColumns().size(); i++) {
-                    String columnName = dataTableView.getColumns().get(i).getText();
-                    if (primaryKeys.contains(columnName)) {
-                        String value = rowData.get(i);
-                        String columnType = columnTypes.get(i).toUpperCase();
-
-                        if (whereClause.length() > 0) whereClause.append(" AND ");
-
-                        whereClause.append(getColumnNameWithQuotes(columnName));
-
-                        if (value == null || value.trim().isEmpty()) {
-                            whereClause.append(" IS NULL");
-                        } else if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                            // Handle date formatting based on database type
-                            if (selectedTable.getType().equals("OracleDB")) {
-                                // For Oracle, extract just the date part and use DATE literal
-                                String dateOnly = value.split(" ")[0]; // Get just YYYY-MM-DD part
-                                whereClause.append(" = DATE '").append(dateOnly).append("'");
-                            } else {
-                                whereClause.append(" = '").append(value).append("'");
-                            }
-                        } else {
-                            whereClause.append(" = '").append(value).append("'");
-                        }
-                    }
-                }
-            } else {
-                // Fallback: Match ALL columns (risky if duplicates exist)
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Warning");
-                alert.setHeaderText(null);
-                alert.setContentText("No primary key. Proceed with deleting by matching all columns?");
-
-                ButtonType proceed = new ButtonType("Proceed");
-                ButtonType cancel = new ButtonType("Cancel");
-                alert.getButtonTypes().setAll(proceed,cancel);
-
-                Optional<ButtonType> result = alert.showAndWait();
-                if (result.isEmpty() || result.get() == cancel) {
-                    return false;
+            RowBatchTask task = new RowBatchTask(selectedTable.getType(), "Deleting " + rows.size() + " rows",
+                    conn -> dml.deleteRows(conn, rows, mode.get()));
+            task.setOnSucceeded(event -> {
+                DmlEngine.BatchResult result = task.getValue();
+                showBatchResult("Deleted", result);
+                //best effort doesn't say which rows failed, and without a key more rows than selected may match
+                if (result.getFailedRows() == 0 && result.getAffectedRows() == rows.size()) {
+                    removeShownRows(rows);
                 } else {
-                    for (int i = 0; i < dataTableView.getColumns().size(); i++) {
-                        String columnName = dataTableView.getColumns().get(i).getText();
-                        String value = rowData.get(i);
-                        String columnType = columnTypes.get(i).toUpperCase();
-
-                        if (whereClause.length() > 0) whereClause.append(" AND ");
-
-                        whereClause.append(getColumnNameWithQuotes(columnName));
-
-                        if (value == null || value.trim().isEmpty()) {
-                            whereClause.append(" IS NULL");
-                        } else if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                            // Handle date formatting based on database type
-                            if (selectedTable.getType().equals("OracleDB")) {
-                                // For Oracle, extract just the date part and use DATE literal
-                                String dateOnly = value.split(" ")[0]; // Get just YYYY-MM-DD part
-                                whereClause.append(" = DATE '").append(dateOnly).append("'");
-                            } else {
-                                whereClause.append(" = '").append(value).append("'");
-                            }
-                        } else {
-                            whereClause.append(" = '").append(value).append("'");
-                        }
-                    }
+                    reloadCurrentPage();
                 }
-            }
+            });
+            task.setOnFailed(event -> showAlert("Database Error", "Failed to delete rows, nothing was deleted: "
+                    + task.getException().getMessage(), Alert.AlertType.ERROR));
+            startBatch("Delete", task);
+        } catch (SQLException e) {
+            showAlert("Database Error", "Failed to delete rows, nothing was deleted: " + e.getMessage(), Alert.AlertType.ERROR);
+        }
+    }
+
+    //one multi-row change at a time, the next one may depend on what this one leaves
+    private boolean isBatchRunning() {
+        if (currentBatch != null && currentBatch.isRunning()) {
+            showAlert("Change Running", "Wait for the running change to finish", Alert.AlertType.WARNING);
+            return true;
+        }
+        return false;
+    }
+
+    //chunked IN lists and the best-effort retry can take a while with thousands of rows, so they run as a task
+    private void startBatch(String name, RowBatchTask task) {
+        task.setOnCancelled(event -> {
+            showAlert(name + " Cancelled", "Cancelled. All or nothing was rolled back, best effort kept the rows already done",
+                    Alert.AlertType.INFORMATION);
+            reloadCurrentPage();
+        });
+        showJob(name, task);
+        currentBatch = task;
+        Thread.ofVirtual().name("polydb-row-batch").start(task);
+    }
+
+    //set one column to the same value on every selected row
+    @FXML
+    private void handleSetColumn() {
+        List<RowStoreList.StoredRow> selectedRows = new ArrayList<>(dataTableView.getSelectionModel().getSelectedItems());
+        if (selectedRows.isEmpty()) {
+            showAlert("Selection Error", "Please select the rows to update", Alert.AlertType.WARNING);
+            return;
+        }
+        if (isBatchRunning()) {
+            return;
+        }
+
+        try {
+            DmlEngine dml = getDml();
+
+            Dialog<ColumnValue> dialog = new Dialog<>();
+            dialog.setTitle("Set Column");
+            dialog.setHeaderText("Set a column on " + selectedRows.size() + " selected rows");
+
+            ButtonType nextButton = new ButtonType("Next", ButtonBar.ButtonData.OK_DONE);
+            dialog.getDialogPane().getButtonTypes().addAll(nextButton, ButtonType.CANCEL);
+
+            GridPane form = new GridPane();
+            form.setHgap(10);
+            form.setVgap(10);
+            form.setPadding(new Insets(20, 150, 10, 10));
+
+            ComboBox<String> columnComboBox = new ComboBox<>();
+            columnComboBox.getItems().addAll(dml.getSchema().getColumnNames());
+            columnComboBox.getSelectionModel().selectFirst();
+            TextField valueField = new TextField();
+            valueField.setPromptText("New value (empty for NULL)");
+
+            form.add(new Label("Column:"), 0, 0);
+            form.add(columnComboBox, 1, 0);
+            form.add(new Label("Value:"), 0, 1);
+            form.add(valueField, 1, 1);
+            dialog.getDialogPane().setContent(form);
+
+            dialog.setResultConverter(dialogButton -> {
+                if (dialogButton == nextButton && columnComboBox.getValue() != null) {
+                    return new ColumnValue(columnComboBox.getValue(), valueField.getText());
+                }
+                return null;
+            });
 
-            String sql = "DELETE FROM " + getTableNameWithQuotes() +
-                    " WHERE " + whereClause;
+            Optional<ColumnValue> columnValue = dialog.showAndWait();
+            if (columnValue.isEmpty()) {
+                return;
+            }
 
-            // For MySQL only - add LIMIT 1 if no primary key
-            if (selectedTable.getType().equals("MySQL") && primaryKeys.isEmpty()) {
-                sql += " LIMIT 1";
+            Optional<DmlEngine.BatchMode> mode = askBatchMode("Set Column",
+                    "Set " + columnValue.get().getColumn() + " on " + selectedRows.size() + " rows?");
+            if (mode.isEmpty()) {
+                return;
             }
 
-            System.out.println("Generated DELETE SQL: " + sql); // Debug output
+            String column = columnValue.get().getColumn();
+            String value = columnValue.get().getValue();
+            RowBatchTask task = new RowBatchTask(selectedTable.getType(), "Setting " + column + " on "
+                    + selectedRows.size() + " rows", conn -> dml.updateColumn(conn, selectedRows, column, value, mode.get()));
+            task.setOnSucceeded(event -> {
+                DmlEngine.BatchResult result = task.getValue();
+                showBatchResult("Updated", result);
+                //failed rows kept their old values, and may not be found under the new ones
+                if (result.getFailedRows() > 0) {
+                    reloadCurrentPage();
+                    return;
+                }
+                //the set column may be part of the key, so look the rows up by their new values
+                int columnIndex = dml.getSchema().indexOf(column);
+                List<List<String>> keyValues = new ArrayList<>();
+                for (RowStoreList.StoredRow row : selectedRows) {
+                    List<String> values = new ArrayList<>(row);
+                    values.set(columnIndex, value);
+                    keyValues.add(values);
+                }
+                refreshRows(selectedRows, keyValues);
+            });
+            task.setOnFailed(event -> showAlert("Database Error", "Failed to update rows, nothing was changed: "
+                    + task.getException().getMessage(), Alert.AlertType.ERROR));
+            startBatch("Set Column", task);
+        } catch (SQLException e) {
+            showAlert("Database Error", "Failed to update rows, nothing was changed: " + e.getMessage(), Alert.AlertType.ERROR);
+        }
+    }
+
+    //all-or-nothing rolls back on the first error, best-effort skips the rows that fail
+    private Optional<DmlEngine.BatchMode> askBatchMode(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
 
-            int affectedRows = stmt.executeUpdate(sql);
-            return affectedRows > 0;
+        ButtonType allOrNothing = new ButtonType("All or nothing");
+        ButtonType bestEffort = new ButtonType("Best effort");
+        ButtonType cancel = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
+        alert.getButtonTypes().setAll(allOrNothing, bestEffort, cancel);
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isEmpty() || result.get() == cancel) {
+            return Optional.empty();
         }
+        return Optional.of(result.get() == allOrNothing
+                ? DmlEngine.BatchMode.ALL_OR_NOTHING : DmlEngine.BatchMode.BEST_EFFORT);
     }
-    private List<String> getPrimaryKeyColumns() throws SQLException {
-        List<String> primaryKeys = new ArrayList<>();
 
-        try (Connection conn = getConnection()) {
-            DatabaseMetaData metaData = conn.getMetaData(); //DatabaseMetaData - special class in JDBC that lets you ask database about itself
-            ResultSet rs = metaData.getPrimaryKeys(null, null, selectedTable.getName());
+    private void showBatchResult(String action, DmlEngine.BatchResult result) {
+        if (result.getFailedRows() == 0) {
+            showAlert("Success", action + " " + result.getAffectedRows() + " rows", Alert.AlertType.INFORMATION);
+        } else {
+            showAlert("Partially Done", action + " " + result.getAffectedRows() + " rows, "
+                    + result.getFailedRows() + " failed.\nFirst error: " + result.getFirstError(), Alert.AlertType.WARNING);
+        }
+    }
+
+    private boolean deleteGeneralRow(List<String> rowData) throws SQLException {
+        DmlEngine dml = getDml();
 
-            while (rs.next()) {
-                primaryKeys.add(rs.getString("COLUMN_NAME"));
+        if (!dml.getSchema().hasPrimaryKey()) {
+            // Fallback: Match ALL columns (risky if duplicates exist)
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("Warning");
+            alert.setHeaderText(null);
+            alert.setContentText("No primary key. Proceed with deleting by matching all columns?");
+
+            ButtonType proceed = new ButtonType("Proceed");
+            ButtonType cancel = new ButtonType("Cancel");
+            alert.getButtonTypes().setAll(proceed,cancel);
+
+            Optional<ButtonType> result = alert.showAndWait();
+            if (result.isEmpty() || result.get() == cancel) {
+                return false;
             }
         }
 
-        return primaryKeys;
+        try (Connection conn = getConnection()) {
+            return dml.delete(conn, rowData) > 0;
+        }
+    }
+    private List<String> getPrimaryKeyColumns() throws SQLException {
+        return getSchema().getPrimaryKeys();
     } //gets primary keys
 
     @FXML
     private void handleEditRow(){
-        ObservableList<String> selectedRow = dataTableView.getSelectionModel().getSelectedItem();
+        RowStoreList.StoredRow selectedRow = dataTableView.getSelectionModel().getSelectedItem();
         if (selectedRow == null){
             showAlert("Selection Error", "Please select a row to edit", Alert.AlertType.WARNING);
             return;
@@ -638,17 +1122,7 @@ private String getColumnNameWithQuotes(String columnName) {
                 } else if (columnType.contains("FLOAT") || columnType.contains("DOUBLE") || columnType.contains("REAL")) {
                     textField.setPromptText("Enter decimal number");
                 } else if (columnType.contains("BIT") || columnType.contains("BOOL") || columnType.contains("TINYINT")) {
-                    switch (selectedTable.getType()){
-                        case "PostgreSQL":
-                            textField.setPromptText("Enter true/false");
-                            break;
-                        case "MySQL":
-                            textField.setPromptText("Enter 1/0");
-                            break;
-                        case "OracleDB":
-                            textField.setPromptText("Enter 1/0");
-                            break;
-                    }
+                    textField.setPromptText(getDialect().booleanInputHint());
                 } else {
                     textField.setPromptText("Enter " + columnNames.get(i));
                 }
@@ -683,7 +1157,7 @@ private String getColumnNameWithQuotes(String columnName) {
                     boolean success = updateRowInDatabase(selectedRow, newRowData);
                     if (success) {
                         showAlert("Success", "Row updated successfully", Alert.AlertType.INFORMATION);
-                        handleRefresh();
+                        refreshRows(List.of(selectedRow), List.of(newRowData));
                     } else{
                         showAlert("Error", "Failed to update row", Alert.AlertType.INFORMATION);
                     }
@@ -698,145 +1172,12 @@ private String getColumnNameWithQuotes(String columnName) {
         }
     }
 
-    private boolean updateRowInDatabase(ObservableList<String> oldRowData, ObservableList<String> newRowData) throws SQLException {
-        try (Connection connection = getConnection();
-             Statement statement = connection.createStatement()) {
-
-            List<String> columnNames = getColumnNames();
-            List<String> columnTypes = getColumnTypes(); // Get column types
-            List<String> primaryKeys = getPrimaryKeyColumns();
-
-            //build update for rows
-            StringBuilder setClause = new StringBuilder();
-            for (int i = 0; i < columnNames.size(); i++){
-                if (i>0) setClause.append(", ");
-
-                String columnType = columnTypes.get(i).toUpperCase();
-                String value = newRowData.get(i);
-
-                setClause.append(getColumnNameWithQuotes(columnNames.get(i)))
-                        .append(" = ");
+    private boolean updateRowInDatabase(List<String> oldRowData, List<String> newRowData) throws SQLException {
+        //metadata first, then a single pooled connection for the UPDATE itself
+        DmlEngine dml = getDml();
 
-                if (value == null || value.trim().isEmpty()) {
-                    setClause.append("NULL");
-                } else {
-                    // Handle different value types properly
-                    if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                        // Handle date formatting based on database type
-                        if (selectedTable.getType().equals("OracleDB")) {
-                            setClause.append("DATE '").append(value.trim()).append("'");
-                        } else {
-                            setClause.append("'").append(value.trim()).append("'");
-                        }
-                    } else if (columnType.contains("INT") || columnType.contains("NUMBER") ||
-                            columnType.contains("FLOAT") || columnType.contains("DOUBLE") ||
-                            columnType.contains("REAL") || columnType.contains("DECIMAL")) {
-                        // Numeric types - no quotes needed
-                        setClause.append(value.trim());
-                    } else if (columnType.contains("BIT") || columnType.contains("BOOL") ||
-                            columnType.contains("TINYINT")) {
-                        // Boolean types - handle properly based on database type
-                        String boolValue = value.trim().toLowerCase();
-
-                        switch (selectedTable.getType()) {
-                            case "PostgreSQL":
-                                // PostgreSQL accepts TRUE/FALSE
-                                if (boolValue.equals("t") || boolValue.equals("true") || boolValue.equals("1")) {
-                                    setClause.append("TRUE");
-                                } else if (boolValue.equals("f") || boolValue.equals("false") || boolValue.equals("0")) {
-                                    setClause.append("FALSE");
-                                } else {
-                                    setClause.append("FALSE");
-                                }
-                                break;
-                            case "MySQL":
-                                // MySQL uses 1/0 for boolean
-                                if (boolValue.equals("1") || boolValue.equals("true") || boolValue.equals("t")) {
-                                    setClause.append("1");
-                                } else {
-                                    setClause.append("0");
-                                }
-                                break;
-                            case "OracleDB":
-                                // Oracle uses 1/0 for boolean
-                                if (boolValue.equals("1") || boolValue.equals("true") || boolValue.equals("t")) {
-                                    setClause.append("1");
-                                } else {
-                                    setClause.append("0");
-                                }
-                                break;
-                            default:
-                                setClause.append(value.trim());
-                        }
-                    }
-                    else {
-                        // String types - wrap in quotes
-                        setClause.append("'").append(value.trim()).append("'");
-                    }
-                }
-            }
-
-            //build where using primary keys if available
-            StringBuilder whereClause = new StringBuilder();
-            if (!primaryKeys.isEmpty()) {
-                for (int i = 0; i < columnNames.size(); i++) {
-                    String columnName = columnNames.get(i);
-                    if (primaryKeys.contains(columnName)) {
-                        if (whereClause.length() > 0) whereClause.append(" AND ");
-
-                        String oldValue = oldRowData.get(i);
-                        String columnType = columnTypes.get(i).toUpperCase();
-
-                        whereClause.append(getColumnNameWithQuotes(columnName));
-
-                        if (oldValue == null) {
-                            whereClause.append(" IS NULL");
-                        } else if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                            // Handle date comparison properly
-                            if (selectedTable.getType().equals("OracleDB")) {
-                                // For Oracle, use DATE function to compare just the date part
-                                String dateOnly = oldValue.split(" ")[0]; // Get just YYYY-MM-DD part
-                                whereClause.append(" = DATE '").append(dateOnly).append("'");
-                            } else {
-                                whereClause.append(" = '").append(oldValue).append("'");
-                            }
-                        } else {
-                            whereClause.append(" = '").append(oldValue).append("'");
-                        }
-                    }
-                }
-            } else {
-                // Fallback: Match all columns if no primary key (risky)
-                for (int i = 0; i < columnNames.size(); i++) {
-                    if (whereClause.length() > 0) whereClause.append(" AND ");
-
-                    String oldValue = oldRowData.get(i);
-                    String columnType = columnTypes.get(i).toUpperCase();
-
-                    whereClause.append(getColumnNameWithQuotes(columnNames.get(i)));
-
-                    if (oldValue == null) {
-                        whereClause.append(" IS NULL");
-                    } else if (columnType.contains("DATE") || columnType.contains("TIMESTAMP")) {
-                        // Handle date comparison properly
-                        if (selectedTable.getType().equals("OracleDB")) {
-                            String dateOnly = oldValue.split(" ")[0]; // Get just YYYY-MM-DD part
-                            whereClause.append(" = DATE '").append(dateOnly).append("'");
-                        } else {
-                            whereClause.append(" = '").append(oldValue).append("'");
-                        }
-                    } else {
-                        whereClause.append(" = '").append(oldValue).append("'");
-                    }
-                }
-            }
-
-            String sql = "UPDATE " + getTableNameWithQuotes() + " SET " + setClause.toString() + " WHERE " + whereClause.toString();
-
-            System.out.println("Generated UPDATE SQL: " + sql); // Debug output
-
-            int impactedRows = statement.executeUpdate(sql);
-            return impactedRows > 0;
+        try (Connection connection = getConnection()) {
+            return dml.update(connection, oldRowData, newRowData) > 0;
         }
     }
     @FXML
@@ -905,15 +1246,34 @@ private String getColumnNameWithQuotes(String columnName) {
 
     private boolean addColumnToTable(ColumnDetails columnDetails) throws SQLException {
 
-        switch (selectedTable.getType()){
-            case "PostgreSQL":
-                return addPostgreSQLColumn(columnDetails);
-            case "MySQL":
-                return addMySQLColumn(columnDetails);  //sql
-            case "OracleDB":
-                return addOracleDBColumn(columnDetails);//oracle db
-            default:
-                throw new SQLException("Unknown database type");
+        SqlDialect dialect = getDialect();
+        String defaultValue = getDefaultValueForType(columnDetails.getType());
+        String sql = dialect.addColumnSql(selectedTable.getName(), columnDetails.getName(),
+                columnDetails.getType(), defaultValue);
+
+        try (Connection conn = getConnection();
+             Statement statement = conn.createStatement()) {
+            if (dialect.supports(SqlDialect.Capability.INSTANT_DDL)) {
+                String instantSql = dialect.instantAddColumnSql(selectedTable.getName(), columnDetails.getName(),
+                        columnDetails.getType(), defaultValue);
+                try {
+                    RunningOperations.executeDdl("ddl.add_column.instant", selectedTable.getType(),
+                            selectedTable.getName(), statement, instantSql);
+                    return true;
+                } catch (SQLException e) {
+                    //older server or a column type that can't be added in place, do the regular ALTER
+                    if (instantSql.equals(sql)) {
+                        throw e;
+                    }
+                    Metrics.increment("ddl.add_column.instant.refused", selectedTable.getType(), selectedTable.getName());
+                }
+            }
+            RunningOperations.executeDdl("ddl.add_column", selectedTable.getType(), selectedTable.getName(),
+                    statement, sql);
+            return true;
+        } finally {
+            //columns changed, the cached schema is stale
+            SchemaCache.invalidate(selectedTable.getType(), selectedTable.getName());
         }
 
     }
@@ -937,73 +1297,32 @@ private String getColumnNameWithQuotes(String columnName) {
 
     // Add this new method:
     private String getDateDefault() {
-        switch (selectedTable.getType()) {
-            case "PostgreSQL":
-                return "'1111-11-11'";  // PostgreSQL accepts this format
-            case "MySQL":
-                return "'1111-11-11'";  // MySQL accepts this format
-            case "OracleDB":
-                return "DATE '1111-11-11'";  // Oracle needs DATE literal
-            default:
-                return "'1111-11-11'";
-        }
+        return getDialect().dateLiteral("1111-11-11");
     }
 
     private String getBooleanDefault() {
-        switch (selectedTable.getType()) {
-            case "PostgreSQL":
-                return "FALSE";  // PostgreSQL boolean literal
-            case "MySQL":
-                return "0";      // MySQL uses 0/1 for boolean
-            case "OracleDB":
-                return "0";      // Oracle uses 0/1 for boolean
-            default:
-                return "0";
-        }
+        return getDialect().booleanLiteral(false);
     }
 
-    private boolean addPostgreSQLColumn(ColumnDetails columnDetails) throws SQLException{
-        try(Connection conn = getConnection();
-            Statement statement = conn.createStatement()) {
-            String defaultValue = getDefaultValueForType(columnDetails.getType());
-            String sql = String.format("ALTER TABLE \"%s\" ADD COLUMN \"%s\" %s DEFAULT %s",
-                    selectedTable.getName(),
-                    columnDetails.getName(),
-                    columnDetails.getType(),
-                    defaultValue);
-            statement.execute(sql);
-            return true;
+
+    private static class ColumnValue {
+        private final String column;
+        private final String value;
+
+        public ColumnValue(String column, String value){
+            this.column = column;
+            this.value = value;
         }
-    }
 
-    private boolean addMySQLColumn(ColumnDetails columnDetails) throws SQLException{
-        try(Connection conn = getConnection();
-            Statement statement = conn.createStatement()) {
-            String defaultValue = getDefaultValueForType(columnDetails.getType());
-            String sql = String.format("ALTER TABLE `%s` ADD COLUMN `%s` %s DEFAULT %s",
-                    selectedTable.getName(),
-                    columnDetails.getName(),
-                    columnDetails.getType(),
-                    defaultValue);
-            statement.execute(sql);
-            return true;
+        public String getColumn(){
+            return column;
         }
-    }
 
-    private boolean addOracleDBColumn(ColumnDetails columnDetails) throws SQLException{
-        try(Connection conn = getConnection();
-            Statement statement = conn.createStatement()) {
-            String defaultValue = getDefaultValueForType(columnDetails.getType());
-            String sql = String.format("ALTER TABLE \"%s\" ADD \"%s\" %s DEFAULT %s",
-                    selectedTable.getName().toUpperCase(),
-                    columnDetails.getName().toUpperCase(),
-                    columnDetails.getType(),
-                    defaultValue);
-            statement.execute(sql);
-            return true;
+        public String getValue(){
+            return value;
         }
-    }
 
+    }
 
     private static class ColumnDetails {
         private final String name;
@@ -1098,28 +1417,9 @@ private String getColumnNameWithQuotes(String columnName) {
         try(Connection conn = getConnection();
             Statement statement = conn.createStatement()){
 
-            String sql;
-            switch (selectedTable.getType()) {
-                case "PostgreSQL":
-                    sql = String.format("ALTER TABLE \"%s\" DROP COLUMN \"%s\"",
-                            selectedTable.getName(), columnName);
-                    statement.execute(sql);
-                    break;
-                case "MySQL":
-                    sql = String.format("ALTER TABLE `%s` DROP COLUMN `%s`",
-                            selectedTable.getName(), columnName);
-                    statement.execute(sql);
-                    break;
-                case "OracleDB":
-                    // Oracle needs uppercase and CASCADE CONSTRAINTS if column has constraints
-                    sql = String.format("ALTER TABLE \"%s\" DROP COLUMN \"%s\" CASCADE CONSTRAINTS",
-                            selectedTable.getName().toUpperCase(),
-                            columnName.toUpperCase());
-                    statement.execute(sql);
-                    break;
-                default:
-                    System.out.println("Unsupported database type");
-            }
+            String sql = getDialect().dropColumnSql(selectedTable.getName(), columnName);
+            RunningOperations.executeDdl("ddl.drop_column", selectedTable.getType(), selectedTable.getName(),
+                    statement, sql);
             return true;
         } catch (SQLException e){
             System.err.println("Error deleting column:");
@@ -1127,6 +1427,8 @@ private String getColumnNameWithQuotes(String columnName) {
             System.err.println("Error Code: " + e.getErrorCode());
             System.err.println("Message: " + e.getMessage());
             throw e;
+        } finally {
+            SchemaCache.invalidate(selectedTable.getType(), selectedTable.getName());
         }
 
     }
@@ -1177,25 +1479,12 @@ private String getColumnNameWithQuotes(String columnName) {
     private boolean renameColumn(String oldName, String newName) throws SQLException {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
-            String sql;
-            switch (selectedTable.getType()) {
-                case "PostgreSQL":
-                    sql = sql = String.format("ALTER TABLE \"%s\" RENAME COLUMN \"%s\" TO \"%s\"",
-                            selectedTable.getName(), oldName, newName);
-                    break;
-                case "MySQL":
-                    sql = String.format("ALTER TABLE `%s` RENAME COLUMN `%s` TO `%s`",
-                            selectedTable.getName(), oldName, newName);
-                    break;
-                case "OracleDB":
-                    sql = String.format("ALTER TABLE \"%s\" RENAME COLUMN \"%s\" TO \"%s\"",
-                            selectedTable.getName().toUpperCase(), oldName.toUpperCase(), newName.toUpperCase());
-                    break;
-                default:
-                    throw new SQLException("Unsupported database type");
-            }
-            stmt.executeUpdate(sql);
+            String sql = getDialect().renameColumnSql(selectedTable.getName(), oldName, newName);
+            RunningOperations.executeDdl("ddl.rename_column", selectedTable.getType(), selectedTable.getName(),
+                    stmt, sql);
             return true;
+        } finally {
+            SchemaCache.invalidate(selectedTable.getType(), selectedTable.getName());
         }
     }
 }
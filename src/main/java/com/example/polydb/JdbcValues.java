@@ -0,0 +1,72 @@
+package com.example.polydb;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/*
+ * Converts text typed by the user into the Java value JDBC expects for a column type,
+ * so values can be bound with setObject() instead of being pasted into SQL.
+ */
+public final class JdbcValues {
+
+    private JdbcValues() {
+    }
+
+    public static Object parse(String text, int sqlType) throws SQLException {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+
+        try {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return Long.parseLong(value);
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return Double.parseDouble(value);
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return new BigDecimal(value);
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return parseBoolean(value);
+                case Types.DATE:
+                    // Get just YYYY-MM-DD part
+                    return Date.valueOf(value.split(" ")[0]);
+                case Types.TIME:
+                    return Time.valueOf(value);
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    //accept a bare date for timestamp columns (Oracle DATE is reported as TIMESTAMP)
+                    return value.contains(" ") ? Timestamp.valueOf(value) : Timestamp.valueOf(value + " 00:00:00");
+                default:
+                    return text;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("'" + text + "' is not a valid value for a " + typeName(sqlType) + " column", e);
+        }
+    }
+
+    public static boolean parseBoolean(String value) {
+        String boolValue = value.trim().toLowerCase();
+        return boolValue.equals("t") || boolValue.equals("true") || boolValue.equals("1")
+                || boolValue.equals("y") || boolValue.equals("yes");
+    }
+
+    public static String typeName(int sqlType) {
+        try {
+            return java.sql.JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return "type " + sqlType;
+        }
+    }
+}
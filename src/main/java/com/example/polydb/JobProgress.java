@@ -0,0 +1,24 @@
+package com.example.polydb;
+
+/*
+ * Progress callback for long jobs (import, export, copy) that run both under the GUI,
+ * where a Task forwards it to its message/progress properties, and from the command line.
+ */
+public interface JobProgress {
+
+    //does nothing, for callers that don't report progress
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void message(String text) {
+        }
+
+        @Override
+        public void progress(double done, double total) {
+        }
+    };
+
+    void message(String text);
+
+    //total -1 means unknown
+    void progress(double done, double total);
+}
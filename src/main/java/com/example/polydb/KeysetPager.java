@@ -0,0 +1,464 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Builds page queries for one table.
+ * With a primary key it uses keyset paging (WHERE pk > last key ORDER BY pk, then LIMIT / FETCH FIRST),
+ * so every page costs one index range scan no matter how deep into the table it is.
+ * Tables without a key fall back to OFFSET paging.
+ * An optional TableFilter is ANDed into every page query.
+ * Column sorting from the table header runs on the server too: the keyset becomes the sort
+ * columns followed by the primary key as a tie-breaker, so sorted pages are still index range scans.
+ * Nullable sort columns stay on the keyset: NULL counts as larger than every value, the ORDER BY
+ * says so explicitly (SqlDialect.orderByTerm) and the seek predicate has IS NULL branches for it.
+ */
+public class KeysetPager {
+
+    public enum Direction { FIRST, CURRENT, NEXT, PREVIOUS, JUMP }
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final DatabaseTable table;
+    private final String quotedTable;
+
+    private volatile int pageSize = DEFAULT_PAGE_SIZE;
+    private volatile List<String> keyColumns = Collections.emptyList();
+    private volatile List<Integer> keyTypes = Collections.emptyList();
+    private volatile List<Boolean> keyDescending = Collections.emptyList();
+    private volatile List<Boolean> keyNullable = Collections.emptyList();
+    private volatile List<SortKey> sort = Collections.emptyList();
+    private volatile List<SortKey> offsetOrder = Collections.emptyList();
+    private volatile TableSchema schema;
+    private volatile TableFilter filter = TableFilter.NONE;
+
+    //state of the page on screen
+    private Object[] firstKey;
+    private Object[] lastKey;
+    private long offset = 0;
+    private int pageNumber = 1;
+    private boolean hasNext = false;
+    private boolean hasPrevious = false;
+    private boolean jumped = false;
+
+    public KeysetPager(DatabaseTable table, String quotedTable) {
+        this.table = table;
+        this.quotedTable = quotedTable;
+    }
+
+    //read the primary key from the schema cache, from the background thread that runs the page query
+    public void init(Connection conn) throws SQLException {
+        init(SchemaCache.get(conn, table.getType(), table.getName()));
+    }
+
+    //package-private so tests can page over a schema without a database
+    void init(TableSchema schema) {
+        this.schema = schema;
+
+        //sort columns first (skipping ones that no longer exist), then the primary key
+        List<SortKey> order = new ArrayList<>();
+        for (SortKey key : sort) {
+            TableSchema.ColumnInfo column = schema.getColumn(key.getColumn());
+            if (column != null && !containsColumn(order, column.getName())) {
+                order.add(new SortKey(column.getName(), key.isDescending()));
+            }
+        }
+        for (String key : schema.getPrimaryKeys()) {
+            if (!containsColumn(order, key)) {
+                order.add(new SortKey(key, false));
+            }
+        }
+
+        List<String> columns = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        List<Boolean> nullable = new ArrayList<>();
+        //without a primary key there is no unique keyset at all
+        if (schema.hasPrimaryKey()) {
+            for (SortKey key : order) {
+                TableSchema.ColumnInfo column = schema.getColumn(key.getColumn());
+                columns.add(key.getColumn());
+                types.add(column != null ? column.getJdbcType() : java.sql.Types.VARCHAR);
+                descending.add(key.isDescending());
+                nullable.add(column != null && column.isNullable() && !schema.getPrimaryKeys().contains(key.getColumn()));
+            }
+        }
+
+        //the key changed (column dropped or renamed, or a new sort), old page positions mean nothing now
+        if (!columns.equals(keyColumns) || !descending.equals(keyDescending)) {
+            firstKey = null;
+            lastKey = null;
+            offset = 0;
+        }
+        keyColumns = columns;
+        keyTypes = types;
+        keyDescending = descending;
+        keyNullable = nullable;
+        offsetOrder = order;
+    }
+
+    private static boolean containsColumn(List<SortKey> keys, String column) {
+        for (SortKey key : keys) {
+            if (key.getColumn().equalsIgnoreCase(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //schema seen by the last init(), null before the first query
+    public DatabaseTable getTable() {
+        return table;
+    }
+
+    public TableSchema getSchema() {
+        return schema;
+    }
+
+    public boolean isKeyset() {
+        return !keyColumns.isEmpty();
+    }
+
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    public List<SortKey> getSort() {
+        return sort;
+    }
+
+    //a new sort order starts again from the first page, called on the FX thread
+    public void setSort(List<SortKey> sort) {
+        this.sort = Collections.unmodifiableList(new ArrayList<>(sort));
+        firstKey = null;
+        lastKey = null;
+        offset = 0;
+        pageNumber = 1;
+        jumped = false;
+    }
+
+    public TableFilter getFilter() {
+        return filter;
+    }
+
+    //a new filter starts again from the first page, called on the FX thread
+    public void setFilter(TableFilter filter) {
+        this.filter = filter;
+        firstKey = null;
+        lastKey = null;
+        offset = 0;
+        pageNumber = 1;
+        jumped = false;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    //build the query for a navigation step, jumpValue is only used for JUMP
+    public PageQuery buildQuery(Direction direction, String jumpValue) throws SQLException {
+        if (!isKeyset()) {
+            return buildOffsetQuery(direction, jumpValue);
+        }
+
+        List<Object> params = new ArrayList<>();
+        String filterWhere = filterClause(params);
+        String where = "";
+        boolean reversed = false;
+
+        //nothing on screen to continue from
+        if ((direction == Direction.NEXT || direction == Direction.PREVIOUS) && (firstKey == null || lastKey == null)) {
+            direction = Direction.FIRST;
+        }
+
+        switch (direction) {
+            case FIRST:
+                break;
+            case CURRENT:
+                //reload the page on screen, starting at its first row
+                if (firstKey != null) {
+                    where = keysetPredicate(firstKey, true, true, params);
+                }
+                break;
+            case NEXT:
+                where = keysetPredicate(lastKey, true, false, params);
+                break;
+            case PREVIOUS:
+                if (pageNumber <= 2 && !jumped) {
+                    direction = Direction.FIRST;
+                } else {
+                    where = keysetPredicate(firstKey, false, false, params);
+                    reversed = true;
+                }
+                break;
+            case JUMP:
+                //jump to the first row at or after the value in the leading sort column
+                where = compare(0, JdbcValues.parse(jumpValue, keyTypes.get(0)), !keyDescending.get(0), true, params);
+                break;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(quotedTable);
+        if (!filterWhere.isEmpty() && !where.isEmpty()) {
+            sql.append(" WHERE (").append(filterWhere).append(") AND (").append(where).append(")");
+        } else if (!filterWhere.isEmpty() || !where.isEmpty()) {
+            sql.append(" WHERE ").append(filterWhere).append(where);
+        }
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i > 0) sql.append(", ");
+            boolean descending = keyDescending.get(i) != reversed;
+            sql.append(SqlDialects.of(table.getType()).orderByTerm(quoteColumn(keyColumns.get(i)), descending,
+                    keyNullable.get(i)));
+        }
+        //one extra row tells us if there is another page
+        sql.append(limitClause(pageSize + 1, 0));
+
+        return new PageQuery(direction, sql.toString(), params, pageSize, reversed, 0);
+    }
+
+    private PageQuery buildOffsetQuery(Direction direction, String jumpValue) throws SQLException {
+        long newOffset;
+        switch (direction) {
+            case CURRENT:
+                newOffset = offset;
+                break;
+            case NEXT:
+                newOffset = offset + pageSize;
+                break;
+            case PREVIOUS:
+                newOffset = Math.max(0, offset - pageSize);
+                break;
+            case JUMP:
+                //without a key, "jump" means go to a page number
+                try {
+                    newOffset = Math.max(0, (Long.parseLong(jumpValue.trim()) - 1) * pageSize);
+                } catch (NumberFormatException e) {
+                    throw new SQLException("This table has no primary key, enter a page number to jump to");
+                }
+                break;
+            default:
+                newOffset = 0;
+        }
+
+        List<Object> params = new ArrayList<>();
+        String filterWhere = filterClause(params);
+
+        //ORDER BY 1 keeps pages stable between queries
+        StringBuilder orderBy = new StringBuilder();
+        for (SortKey key : offsetOrder) {
+            orderBy.append(quoteColumn(key.getColumn())).append(key.isDescending() ? " DESC" : " ASC").append(", ");
+        }
+        orderBy.append("1");
+        String sql = "SELECT * FROM " + quotedTable + (filterWhere.isEmpty() ? "" : " WHERE " + filterWhere)
+                + " ORDER BY " + orderBy + limitClause(pageSize + 1, newOffset);
+        return new PageQuery(direction, sql, params, pageSize, false, newOffset);
+    }
+
+    private String filterClause(List<Object> params) throws SQLException {
+        TableFilter current = filter;
+        if (current.isEmpty() || schema == null) {
+            return "";
+        }
+        return current.compile(schema, params);
+    }
+
+    //(k1 > ?) OR (k1 = ? AND k2 > ?) ... written out so it works on Oracle too
+    //descending columns compare with < going forward; inclusive makes the last comparison >= (or <=)
+    private String keysetPredicate(Object[] key, boolean forward, boolean inclusive, List<Object> params) {
+        List<String> branches = new ArrayList<>();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            List<Object> branchParams = new ArrayList<>();
+            StringBuilder branch = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                branch.append(equal(j, key[j], branchParams)).append(" AND ");
+            }
+            boolean last = i == keyColumns.size() - 1;
+            String compare = compare(i, key[i], keyDescending.get(i) != forward, inclusive && last, branchParams);
+            //nothing sorts after NULL, so a "> NULL" branch can never match
+            if (compare != null) {
+                branches.add(branch.append(compare).append(")").toString());
+                params.addAll(branchParams);
+            }
+        }
+        return branches.isEmpty() ? "1 = 0" : String.join(" OR ", branches);
+    }
+
+    //key column i equal to value, NULL included
+    private String equal(int i, Object value, List<Object> params) {
+        if (value == null) {
+            return quoteColumn(keyColumns.get(i)) + " IS NULL";
+        }
+        params.add(value);
+        return quoteColumn(keyColumns.get(i)) + " = ?";
+    }
+
+    //key column i after (greater) or before value in NULL-is-largest order, null when no row can match
+    private String compare(int i, Object value, boolean greater, boolean inclusive, List<Object> params) {
+        String column = quoteColumn(keyColumns.get(i));
+        String op = (greater ? " >" : " <") + (inclusive ? "= ?" : " ?");
+        if (!keyNullable.get(i)) {
+            params.add(value);
+            return column + op;
+        }
+        if (value == null) {
+            if (greater) {
+                return inclusive ? column + " IS NULL" : null;
+            }
+            return inclusive ? "1 = 1" : column + " IS NOT NULL";
+        }
+        params.add(value);
+        //col < ? already leaves the NULLs out
+        return greater ? "(" + column + op + " OR " + column + " IS NULL)" : column + op;
+    }
+
+    private String limitClause(int limit, long skip) {
+        return SqlDialects.of(table.getType()).limitClause(limit, skip);
+    }
+
+    private String quoteColumn(String columnName) {
+        return SqlDialects.of(table.getType()).quoteIdentifier(columnName);
+    }
+
+    //called on the FX thread once a page has been shown
+    public void pageLoaded(PageQuery query, PageResult result) {
+        switch (query.getDirection()) {
+            case FIRST:
+                pageNumber = 1;
+                jumped = false;
+                break;
+            case CURRENT:
+                break;
+            case NEXT:
+                pageNumber++;
+                break;
+            case PREVIOUS:
+                pageNumber = Math.max(1, pageNumber - 1);
+                break;
+            case JUMP:
+                pageNumber = isKeyset() ? 1 : (int) (query.getOffset() / pageSize) + 1;
+                jumped = isKeyset();
+                break;
+        }
+
+        if (isKeyset()) {
+            if (result.getRowCount() > 0) {
+                firstKey = result.getFirstKey();
+                lastKey = result.getLastKey();
+            }
+            if (query.isReversed()) {
+                hasPrevious = result.hasMore();
+                hasNext = true;
+            } else {
+                hasNext = result.hasMore();
+                hasPrevious = pageNumber > 1 || jumped;
+            }
+        } else {
+            offset = query.getOffset();
+            hasNext = result.hasMore();
+            hasPrevious = offset > 0;
+        }
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public String describePage() {
+        String filtered = filter.isEmpty() ? "" : ", filtered";
+        if (!isKeyset()) {
+            return "Page " + pageNumber + " (no primary key, offset paging" + filtered + ")";
+        }
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            keys.add(keyColumns.get(i) + (keyDescending.get(i) ? " desc" : ""));
+        }
+        return (jumped ? "Page " + pageNumber + " after jump" : "Page " + pageNumber)
+                + " (keyset on " + String.join(", ", keys) + filtered + ")";
+    }
+
+    //one column of the header sort order
+    public static class SortKey {
+        private final String column;
+        private final boolean descending;
+
+        public SortKey(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        public String getColumn() { return column; }
+        public boolean isDescending() { return descending; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SortKey)) return false;
+            SortKey other = (SortKey) o;
+            return column.equals(other.column) && descending == other.descending;
+        }
+
+        @Override
+        public int hashCode() {
+            return column.hashCode() * 31 + (descending ? 1 : 0);
+        }
+    }
+
+    //a page query ready to run
+    public static class PageQuery {
+        private final Direction direction;
+        private final String sql;
+        private final List<Object> params;
+        private final int limit;
+        private final boolean reversed;
+        private final long offset;
+
+        public PageQuery(Direction direction, String sql, List<Object> params, int limit, boolean reversed, long offset) {
+            this.direction = direction;
+            this.sql = sql;
+            this.params = params;
+            this.limit = limit;
+            this.reversed = reversed;
+            this.offset = offset;
+        }
+
+        public Direction getDirection() { return direction; }
+        public String getSql() { return sql; }
+        public List<Object> getParams() { return params; }
+        //rows to show, the query itself asks for one more
+        public int getLimit() { return limit; }
+        //rows come back in descending key order and must be flipped before showing them
+        public boolean isReversed() { return reversed; }
+        public long getOffset() { return offset; }
+    }
+
+    //what a page load found
+    public static class PageResult {
+        private final int rowCount;
+        private final boolean hasMore;
+        private final Object[] firstKey;
+        private final Object[] lastKey;
+
+        public PageResult(int rowCount, boolean hasMore, Object[] firstKey, Object[] lastKey) {
+            this.rowCount = rowCount;
+            this.hasMore = hasMore;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+        }
+
+        public int getRowCount() { return rowCount; }
+        public boolean hasMore() { return hasMore; }
+        public Object[] getFirstKey() { return firstKey; }
+        public Object[] getLastKey() { return lastKey; }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.polydb;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Latency histogram in nanoseconds with HdrHistogram-style log-linear buckets: every power of two
+ * is split into SUB_BUCKETS equal slots, so any recorded value is known to within ~3% however
+ * large it is, in a fixed ~10 KB of counters. Recording is a few atomic adds, no locks or allocation,
+ * safe to call from any thread.
+ */
+public class LatencyHistogram {
+
+    //32 slots per power of two, percentiles are off by at most 1/32
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //values are clamped to 2^44 ns (~4.9 hours)
+    private static final int MAX_BIT = 43;
+    private static final long MAX_VALUE = (1L << (MAX_BIT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_BIT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    //value at or below which the given percentage (0-100) of recordings fall, upper edge of its slot
+    public long getPercentileNanos(double percentile) {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += copy[i];
+            if (seen >= rank) {
+                return Math.min(highestInSlot(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    //values below SUB_BUCKETS get a slot each, above that the top SUB_BUCKET_BITS+1 bits pick the slot
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestInSlot(int index) {
+        int bucket = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+        if (bucket == 0) {
+            return subBucket;
+        }
+        long lowest = (long) (SUB_BUCKETS + subBucket) << (bucket - 1);
+        return lowest + (1L << (bucket - 1)) - 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.polydb;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Process-wide latency histograms and counters, tagged by database type and table.
+ * Shown in the Metrics window and written to a JSON snapshot for bug reports, so "the app is slow"
+ * can be narrowed down to one backend (discovery, metadata), the network (connection.open,
+ * load.first_row) or the client (load.last_row minus load.first_row on a big page).
+ *
+ * Names in use:
+ *   connection.acquire  - borrowing from the pool, includes waiting and opening
+ *   connection.open     - opening a physical connection (TCP, TLS, login)
+ *   discovery           - listing the tables of one backend with their statistics (the dialect's catalog query)
+ *   metadata.schema     - reading one table's columns and keys (cache misses only)
+ *   load.first_row      - page query sent until its first row is read
+ *   load.last_row       - page query sent until the page is fully read
+ *   dml.insert / dml.update / dml.delete / dml.delete_rows / dml.update_column
+ *   ddl.create_table / ddl.drop_table / ddl.rename_table / ddl.add_column / ddl.add_column.instant /
+ *   ddl.drop_column / ddl.rename_column
+ *   cli.sql             - one statement of a PolyCli sql script
+ *   console.sql         - one statement of the SQL console, until its last row
+ *   console.first_row   - SQL console statement sent until its first row is read
+ * Every timed operation that throws also counts <name>.errors.
+ */
+public final class Metrics {
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    //an operation timed by timed(), may throw like the JDBC call it wraps
+    public interface SqlAction<T> {
+        T run() throws SQLException;
+    }
+
+    //histogram for a name and tags, created on first use; keep it in a field on hot paths
+    public static LatencyHistogram timer(String name, String dbType, String table) {
+        return TIMERS.computeIfAbsent(key(name, dbType, table), k -> new Timer(name, dbType, table)).histogram;
+    }
+
+    public static void record(String name, String dbType, String table, long nanos) {
+        timer(name, dbType, table).record(nanos);
+    }
+
+    public static void increment(String name, String dbType, String table) {
+        COUNTERS.computeIfAbsent(key(name, dbType, table), k -> new Counter(name, dbType, table)).adder.increment();
+    }
+
+    //runs the action and records how long it took, failures count as <name>.errors too
+    public static <T> T timed(String name, String dbType, String table, SqlAction<T> action) throws SQLException {
+        long started = System.nanoTime();
+        try {
+            return action.run();
+        } catch (SQLException | RuntimeException e) {
+            increment(name + ".errors", dbType, table);
+            throw e;
+        } finally {
+            record(name, dbType, table, System.nanoTime() - started);
+        }
+    }
+
+    //same as timed() for one SQL statement, also written as a polydb.Query JFR event
+    public static <T> T timed(String name, String dbType, String table, String sql, SqlAction<T> action) throws SQLException {
+        DbEvents.Query event = new DbEvents.Query();
+        event.begin();
+        boolean failed = true;
+        long rows = 0;
+        try {
+            T result = timed(name, dbType, table, action);
+            failed = false;
+            if (result instanceof Integer count) {
+                rows = count;
+            } else if (result instanceof DmlEngine.BatchResult batch) {
+                rows = batch.getAffectedRows();
+            }
+            return result;
+        } finally {
+            event.finish(name, dbType, table, sql, rows, 0, failed);
+        }
+    }
+
+    //everything recorded so far, sorted by name then tags
+    public static List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>();
+        for (Timer timer : TIMERS.values()) {
+            LatencyHistogram h = timer.histogram;
+            entries.add(new Entry(timer.name, timer.dbType, timer.table, h.getCount(), h.getMeanNanos(),
+                    h.getPercentileNanos(50), h.getPercentileNanos(95), h.getPercentileNanos(99), h.getMaxNanos()));
+        }
+        for (Counter counter : COUNTERS.values()) {
+            entries.add(new Entry(counter.name, counter.dbType, counter.table, counter.adder.sum(), -1, -1, -1, -1, -1));
+        }
+        entries.sort(Comparator.comparing(Entry::getName)
+                .thenComparing(Entry::getDbType)
+                .thenComparing(Entry::getTable));
+        return entries;
+    }
+
+    public static void reset() {
+        for (Timer timer : TIMERS.values()) {
+            timer.histogram.reset();
+        }
+        for (Counter counter : COUNTERS.values()) {
+            counter.adder.reset();
+        }
+    }
+
+    //snapshot as one JSON object: {"taken":"...","metrics":[{...},...]}, times in milliseconds
+    public static void export(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson(snapshot()));
+            writer.newLine();
+        }
+    }
+
+    static String toJson(List<Entry> entries) {
+        StringBuilder sb = new StringBuilder("{\"taken\":");
+        TableExporter.appendJsonString(sb, Instant.now().toString());
+        sb.append(",\"metrics\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\n{\"name\":");
+            TableExporter.appendJsonString(sb, entry.getName());
+            sb.append(",\"db\":");
+            TableExporter.appendJsonString(sb, entry.getDbType());
+            sb.append(",\"table\":");
+            TableExporter.appendJsonString(sb, entry.getTable());
+            sb.append(",\"count\":").append(entry.getCount());
+            if (entry.isTimer()) {
+                sb.append(",\"meanMs\":").append(millis(entry.getMeanNanos()))
+                        .append(",\"p50Ms\":").append(millis(entry.getP50Nanos()))
+                        .append(",\"p95Ms\":").append(millis(entry.getP95Nanos()))
+                        .append(",\"p99Ms\":").append(millis(entry.getP99Nanos()))
+                        .append(",\"maxMs\":").append(millis(entry.getMaxNanos()));
+            }
+            sb.append('}');
+        }
+        return sb.append("\n]}").toString();
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String key(String name, String dbType, String table) {
+        return name + '|' + dbType + '|' + table;
+    }
+
+    private static class Timer {
+        private final String name;
+        private final String dbType;
+        private final String table;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String name, String dbType, String table) {
+            this.name = name;
+            this.dbType = dbType == null ? "" : dbType;
+            this.table = table == null ? "" : table;
+        }
+    }
+
+    private static class Counter {
+        private final String name;
+        private final String dbType;
+        private final String table;
+        private final LongAdder adder = new LongAdder();
+
+        Counter(String name, String dbType, String table) {
+            this.name = name;
+            this.dbType = dbType == null ? "" : dbType;
+            this.table = table == null ? "" : table;
+        }
+    }
+
+    //one row of the snapshot; counters have no latency values (-1)
+    public static class Entry {
+        private final String name;
+        private final String dbType;
+        private final String table;
+        private final long count;
+        private final double meanNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public Entry(String name, String dbType, String table, long count, double meanNanos,
+                     long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.name = name;
+            this.dbType = dbType;
+            this.table = table;
+            this.count = count;
+            this.meanNanos = meanNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getName() { return name; }
+        public String getDbType() { return dbType; }
+        public String getTable() { return table; }
+        public long getCount() { return count; }
+        public double getMeanNanos() { return meanNanos; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP95Nanos() { return p95Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        public boolean isTimer() {
+            return maxNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.polydb;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+/*
+ * Live view of Metrics: one row per operation, database and table with count and latency
+ * percentiles in ms, refreshed every couple of seconds. Stays open while switching screens.
+ * "Export..." writes the same numbers to a JSON file to attach to a bug report.
+ */
+public class MetricsWindow {
+
+    private static final long REFRESH_MILLIS = 2000;
+
+    private static Stage stage;
+
+    private final TableView<Metrics.Entry> table = new TableView<>();
+    private final Label status = new Label();
+
+    private MetricsWindow() {
+    }
+
+    //opens the window, or brings it to the front if it is already open
+    public static void show(Window owner) {
+        if (stage != null) {
+            stage.toFront();
+            return;
+        }
+        MetricsWindow window = new MetricsWindow();
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("PolyDB Metrics");
+        stage.setScene(new Scene(window.build(), 980, 460));
+
+        Timeline refresher = new Timeline(new KeyFrame(Duration.millis(REFRESH_MILLIS), e -> window.refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+        stage.setOnHidden(e -> {
+            refresher.stop();
+            stage = null;
+        });
+
+        window.refresh();
+        stage.show();
+    }
+
+    private BorderPane build() {
+        table.getColumns().add(textColumn("Operation", 170, Metrics.Entry::getName));
+        table.getColumns().add(textColumn("Database", 100, Metrics.Entry::getDbType));
+        table.getColumns().add(textColumn("Table", 160, Metrics.Entry::getTable));
+        table.getColumns().add(textColumn("Count", 70, entry -> String.format("%,d", entry.getCount())));
+        table.getColumns().add(millisColumn("Mean ms", entry -> (long) entry.getMeanNanos()));
+        table.getColumns().add(millisColumn("p50 ms", Metrics.Entry::getP50Nanos));
+        table.getColumns().add(millisColumn("p95 ms", Metrics.Entry::getP95Nanos));
+        table.getColumns().add(millisColumn("p99 ms", Metrics.Entry::getP99Nanos));
+        table.getColumns().add(millisColumn("Max ms", Metrics.Entry::getMaxNanos));
+        table.setPlaceholder(new Label("Nothing recorded yet"));
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(e -> refresh());
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        Button exportButton = new Button("Export...");
+        exportButton.setOnAction(e -> export());
+
+        HBox buttons = new HBox(10, refreshButton, resetButton, exportButton, status);
+        buttons.setAlignment(Pos.CENTER_LEFT);
+        buttons.setPadding(new Insets(10));
+        buttons.setStyle("-fx-background-color: #e0e0e0;");
+
+        BorderPane root = new BorderPane(table);
+        root.setBottom(buttons);
+        return root;
+    }
+
+    private void refresh() {
+        Metrics.Entry selected = table.getSelectionModel().getSelectedItem();
+        table.setItems(FXCollections.observableArrayList(Metrics.snapshot()));
+        //keep the selection on the same operation across refreshes
+        if (selected != null) {
+            for (Metrics.Entry entry : table.getItems()) {
+                if (entry.getName().equals(selected.getName()) && entry.getDbType().equals(selected.getDbType())
+                        && entry.getTable().equals(selected.getTable())) {
+                    table.getSelectionModel().select(entry);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void export() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Metrics Snapshot");
+        chooser.setInitialFileName("polydb-metrics-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON files", "*.json"));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            Metrics.export(file);
+            status.setText("Saved " + file.getName());
+        } catch (IOException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Export Failed");
+            alert.setHeaderText(null);
+            alert.setContentText("Could not write " + file + ": " + e.getMessage());
+            alert.showAndWait();
+        }
+    }
+
+    private static TableColumn<Metrics.Entry, String> textColumn(String title, double width,
+                                                                 Function<Metrics.Entry, String> value) {
+        TableColumn<Metrics.Entry, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+
+    //counters have no latencies, their cells stay empty
+    private static TableColumn<Metrics.Entry, String> millisColumn(String title, Function<Metrics.Entry, Long> nanos) {
+        TableColumn<Metrics.Entry, String> column = textColumn(title, 80, entry -> entry.isTimer()
+                ? String.format("%.2f", nanos.apply(entry) / 1_000_000.0)
+                : "");
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        return column;
+    }
+}
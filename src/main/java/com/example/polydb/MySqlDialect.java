@@ -0,0 +1,210 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+public class MySqlDialect implements SqlDialect {
+
+    private static final Set<Capability> CAPABILITIES = EnumSet.of(
+            Capability.MULTI_ROW_VALUES, Capability.UPSERT, Capability.INSTANT_DDL);
+
+    //the schema the app works in, also the database in the default URL
+    private static final String CATALOG = "world";
+
+    //TABLE_ROWS is InnoDB's estimate; when statistics were last computed is only in mysql.innodb_table_stats
+    private static final String DISCOVERY_SQL =
+            "SELECT t.TABLE_NAME, t.TABLE_ROWS, t.DATA_LENGTH + t.INDEX_LENGTH, s.last_update "
+                    + "FROM information_schema.TABLES t "
+                    + "LEFT JOIN mysql.innodb_table_stats s "
+                    + "ON s.database_name = t.TABLE_SCHEMA AND s.table_name = t.TABLE_NAME "
+                    + "WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE' "
+                    + "ORDER BY t.TABLE_NAME";
+
+    //same without the mysql schema, for users that may not read it
+    private static final String DISCOVERY_SQL_NO_STATS =
+            "SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH + INDEX_LENGTH, NULL "
+                    + "FROM information_schema.TABLES "
+                    + "WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' "
+                    + "ORDER BY TABLE_NAME";
+
+    private volatile boolean innodbStatsReadable = true;
+
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "com.mysql.cj.jdbc.Driver";
+    }
+
+    @Override
+    public String getDefaultUrl() {
+        return "jdbc:mysql://localhost:3306/" + CATALOG;
+    }
+
+    @Override
+    public String getDefaultUser() {
+        return "root";
+    }
+
+    @Override
+    public String getDefaultPassword() {
+        return "samplePass";
+    }
+
+    @Override
+    public void configureDriver(Properties props) {
+        props.setProperty("useServerPrepStmts", "true");
+        props.setProperty("cachePrepStmts", "true");
+        props.setProperty("prepStmtCacheSize", "250");
+        props.setProperty("prepStmtCacheSqlLimit", "2048");
+        //send a JDBC batch as multi-row statements instead of one round trip per row
+        props.setProperty("rewriteBatchedStatements", "true");
+        //statements with a fetch size read through a server cursor instead of buffering everything
+        props.setProperty("useCursorFetch", "true");
+    }
+
+    @Override
+    public void configureConnectTimeout(Properties props, int seconds) {
+        props.setProperty("connectTimeout", Integer.toString(seconds * 1000));
+    }
+
+    @Override
+    public String quoteIdentifier(String name) {
+        return "`" + name + "`";
+    }
+
+    @Override
+    public String booleanLiteral(boolean value) {
+        // MySQL uses 0/1 for boolean
+        return value ? "1" : "0";
+    }
+
+    @Override
+    public String limitClause(int limit, long offset) {
+        return offset > 0 ? " LIMIT " + limit + " OFFSET " + offset : " LIMIT " + limit;
+    }
+
+    //no NULLS FIRST/LAST, and MySQL sorts NULL as the smallest value, so sort on IS NULL first
+    @Override
+    public String orderByTerm(String quotedColumn, boolean descending, boolean nullable) {
+        String direction = descending ? " DESC" : " ASC";
+        return nullable
+                ? "(" + quotedColumn + " IS NULL)" + direction + ", " + quotedColumn + direction
+                : quotedColumn + direction;
+    }
+
+    @Override
+    public String singleRowDeleteSuffix() {
+        return " LIMIT 1";
+    }
+
+    @Override
+    public List<DatabaseTable> discoverTables(Connection conn) throws SQLException {
+        if (innodbStatsReadable) {
+            try {
+                return discoverTables(conn, DISCOVERY_SQL);
+            } catch (SQLException e) {
+                //no SELECT on the mysql schema, don't ask again this session
+                System.err.println("No access to mysql.innodb_table_stats, listing tables without analyze times: " + e.getMessage());
+                innodbStatsReadable = false;
+            }
+        }
+        return discoverTables(conn, DISCOVERY_SQL_NO_STATS);
+    }
+
+    private List<DatabaseTable> discoverTables(Connection conn, String sql) throws SQLException {
+        List<DatabaseTable> tables = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, CATALOG);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(discoveredTable(rs));
+                }
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String createTableSql(String tableName) {
+        return "CREATE TABLE " + quoteIdentifier(tableName) + " (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY, " + // MySQL uses AUTO_INCREMENT, not SERIAL
+                "name VARCHAR(255)" +
+                ")";
+    }
+
+    @Override
+    public String columnType(TableSchema.ColumnInfo column) {
+        int size = column.getSize();
+        switch (column.getJdbcType()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return "TINYINT(1)";
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                //DECIMAL without precision would be DECIMAL(10, 0) here
+                return size > 0 && size <= 65
+                        ? "DECIMAL(" + size + ", " + Math.max(0, Math.min(30, column.getDecimalDigits())) + ")"
+                        : "DECIMAL(65, 30)";
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                //longer VARCHARs don't fit MySQL's 64 KB row limit in utf8mb4
+                return size > 0 && size <= 16_383 ? "VARCHAR(" + size + ")" : "LONGTEXT";
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                //TIMESTAMP ends in 2038 and updates itself, DATETIME does neither
+                return "DATETIME(6)";
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return "LONGBLOB";
+            case Types.CHAR:
+            case Types.NCHAR:
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return SqlDialect.super.columnType(column);
+            default:
+                return "LONGTEXT";
+        }
+    }
+
+    @Override
+    public String dropTableSql(String tableName) {
+        return "DROP TABLE " + quoteIdentifier(tableName);
+    }
+
+    @Override
+    public String renameTableSql(String oldName, String newName) {
+        return "RENAME TABLE " + quoteIdentifier(oldName) + " TO " + quoteIdentifier(newName);
+    }
+
+    //8.0.12+ can add a column without copying the table; it errors instead of falling back
+    @Override
+    public String instantAddColumnSql(String tableName, String columnName, String type, String defaultLiteral) {
+        return addColumnSql(tableName, columnName, type, defaultLiteral) + ", ALGORITHM=INSTANT";
+    }
+}
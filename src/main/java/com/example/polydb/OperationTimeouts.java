@@ -0,0 +1,57 @@
+package com.example.polydb;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+ * How long each class of database operation may take before the driver gives up, in seconds
+ * (0 = no limit). Defaults can be changed at launch with -Dpolydb.timeout.<kind>=<seconds>,
+ * e.g. -Dpolydb.timeout.ddl=300, and for the session in the Running Operations window.
+ *   CONNECT  - opening a physical connection (driver connect/login timeout)
+ *   METADATA - table lists and column/key lookups (network timeout, no statement to time out)
+ *   READ     - page loads and SQL console statements (Statement.setQueryTimeout)
+ *   DML      - row inserts, updates and deletes
+ *   DDL      - create/drop/rename/alter; usually what ends up waiting on someone else's lock
+ *   BULK     - exports, imports, table copies and PolyCli scripts; no limit unless set, they can be cancelled
+ */
+public final class OperationTimeouts {
+
+    public enum Kind {
+        CONNECT(15), METADATA(30), READ(300), DML(60), DDL(120), BULK(0);
+
+        private final int defaultSeconds;
+
+        Kind(int defaultSeconds) {
+            this.defaultSeconds = defaultSeconds;
+        }
+
+        public int getDefaultSeconds() {
+            return defaultSeconds;
+        }
+    }
+
+    //socket reads may take this much longer than the statement timeout, so the server cancel wins
+    static final int NETWORK_GRACE_SECONDS = 30;
+
+    private static final Map<Kind, Integer> SECONDS = new EnumMap<>(Kind.class);
+
+    static {
+        for (Kind kind : Kind.values()) {
+            SECONDS.put(kind, Integer.getInteger("polydb.timeout." + kind.name().toLowerCase(), kind.getDefaultSeconds()));
+        }
+    }
+
+    private OperationTimeouts() {
+    }
+
+    public static synchronized int getSeconds(Kind kind) {
+        return SECONDS.get(kind);
+    }
+
+    public static synchronized void setSeconds(Kind kind, int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Timeout can't be negative: " + seconds);
+        }
+        SECONDS.put(kind, seconds);
+    }
+}
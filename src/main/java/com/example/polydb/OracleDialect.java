@@ -0,0 +1,209 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+public class OracleDialect implements SqlDialect {
+
+    //no multi-row VALUES before 23ai; batched INSERTs already go out as one array-bound execution
+    private static final Set<Capability> CAPABILITIES = EnumSet.of(
+            Capability.RETURNING, Capability.UPSERT, Capability.TABLESAMPLE, Capability.INSTANT_DDL);
+
+    //schema the app's tables live in
+    private static final String SCHEMA = "SYSTEM";
+
+    //ALL_TABLES has the optimizer statistics; sizes are summed over the table's own, index and LOB
+    //segments from USER_SEGMENTS, so they show when connected as the schema owner (DBA_SEGMENTS
+    //would need DBA rights). Oracle's bookkeeping tables, nested/secondary tables and the recycle
+    //bin are filtered out on the server.
+    private static final String DISCOVERY_SQL =
+            "SELECT t.TABLE_NAME, t.NUM_ROWS, seg.BYTES, t.LAST_ANALYZED "
+                    + "FROM ALL_TABLES t "
+                    + "LEFT JOIN ("
+                    + "SELECT COALESCE(i.TABLE_NAME, l.TABLE_NAME, s.SEGMENT_NAME) AS TABLE_NAME, SUM(s.BYTES) AS BYTES "
+                    + "FROM USER_SEGMENTS s "
+                    + "LEFT JOIN USER_INDEXES i ON i.INDEX_NAME = s.SEGMENT_NAME "
+                    + "LEFT JOIN USER_LOBS l ON l.SEGMENT_NAME = s.SEGMENT_NAME "
+                    + "GROUP BY COALESCE(i.TABLE_NAME, l.TABLE_NAME, s.SEGMENT_NAME)"
+                    + ") seg ON seg.TABLE_NAME = t.TABLE_NAME AND t.OWNER = USER "
+                    + "WHERE t.OWNER = ? "
+                    + "AND t.TABLE_NAME NOT LIKE 'SYS\\_%' ESCAPE '\\' "
+                    + "AND t.TABLE_NAME NOT LIKE 'WRH$%' AND t.TABLE_NAME NOT LIKE 'WRI$%' "
+                    + "AND t.TABLE_NAME NOT LIKE 'AU$%' "
+                    + "AND t.NESTED = 'NO' AND t.SECONDARY = 'N' AND t.DROPPED = 'NO' "
+                    + "AND (t.IOT_TYPE IS NULL OR t.IOT_TYPE = 'IOT') "
+                    + "ORDER BY t.TABLE_NAME";
+
+    @Override
+    public String getName() {
+        return "OracleDB";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public boolean slashEndsBlocks() {
+        return true;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "oracle.jdbc.OracleDriver";
+    }
+
+    @Override
+    public String getDefaultUrl() {
+        return "jdbc:oracle:thin:@localhost:1521/free";
+    }
+
+    @Override
+    public String getDefaultUser() {
+        return "system";
+    }
+
+    @Override
+    public String getDefaultPassword() {
+        return "samplePass";
+    }
+
+    @Override
+    public void configureDriver(Properties props) {
+        //the Oracle driver keeps its own per-connection cursor cache
+        props.setProperty("oracle.jdbc.implicitStatementCacheSize", "50");
+    }
+
+    @Override
+    public void configureConnectTimeout(Properties props, int seconds) {
+        props.setProperty("oracle.net.CONNECT_TIMEOUT", Integer.toString(seconds * 1000));
+    }
+
+    // Oracle requires uppercase table names
+    @Override
+    public String normalizeName(String name) {
+        return name.toUpperCase();
+    }
+
+    @Override
+    public String quoteIdentifier(String name) {
+        // Oracle: use uppercase and quotes
+        return "\"" + normalizeName(name) + "\"";
+    }
+
+    @Override
+    public String booleanLiteral(boolean value) {
+        // Oracle uses 0/1 for boolean
+        return value ? "1" : "0";
+    }
+
+    @Override
+    public String dateLiteral(String isoDate) {
+        // Oracle needs DATE literal
+        return "DATE '" + isoDate + "'";
+    }
+
+    @Override
+    public String limitClause(int limit, long offset) {
+        return offset > 0
+                ? " OFFSET " + offset + " ROWS FETCH NEXT " + limit + " ROWS ONLY"
+                : " FETCH FIRST " + limit + " ROWS ONLY";
+    }
+
+    @Override
+    public List<DatabaseTable> discoverTables(Connection conn) throws SQLException {
+        List<DatabaseTable> tables = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(DISCOVERY_SQL)) {
+            stmt.setString(1, SCHEMA);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(discoveredTable(rs));
+                }
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String createTableSql(String tableName) {
+        // Create table with regular NUMBER column instead of auto-generated identity
+        return "CREATE TABLE " + quoteIdentifier(tableName) + " (" +
+                "id NUMBER DEFAULT 1 PRIMARY KEY, " +  // Regular NUMBER column, editable
+                "name VARCHAR(255)" +
+                ")";
+    }
+
+    @Override
+    public String columnType(TableSchema.ColumnInfo column) {
+        int size = column.getSize();
+        switch (column.getJdbcType()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return "NUMBER(1)";
+            case Types.TINYINT:
+            case Types.SMALLINT:
+                return "NUMBER(5)";
+            case Types.INTEGER:
+                return "NUMBER(10)";
+            case Types.BIGINT:
+                return "NUMBER(19)";
+            case Types.REAL:
+                return "BINARY_FLOAT";
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return "BINARY_DOUBLE";
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return size > 0 && size <= 38
+                        ? "NUMBER(" + size + ", " + Math.max(0, column.getDecimalDigits()) + ")"
+                        : "NUMBER";
+            case Types.CHAR:
+            case Types.NCHAR:
+                return size > 0 && size <= 2000 ? "CHAR(" + size + ")" : "CLOB";
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                return size > 0 && size <= 4000 ? "VARCHAR2(" + size + ")" : "CLOB";
+            case Types.DATE:
+                return "DATE";
+            //no TIME type, the time of day goes into a TIMESTAMP
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                return "TIMESTAMP";
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return "TIMESTAMP WITH TIME ZONE";
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return "BLOB";
+            default:
+                return "CLOB";
+        }
+    }
+
+    @Override
+    public String dropTableSql(String tableName) {
+        return "DROP TABLE " + quoteIdentifier(tableName) + " CASCADE CONSTRAINTS";
+    }
+
+    @Override
+    public String addColumnSql(String tableName, String columnName, String type, String defaultLiteral) {
+        return "ALTER TABLE " + quoteIdentifier(tableName) + " ADD " + quoteIdentifier(columnName)
+                + " " + type + " DEFAULT " + defaultLiteral;
+    }
+
+    @Override
+    public String dropColumnSql(String tableName, String columnName) {
+        // Oracle needs CASCADE CONSTRAINTS if column has constraints
+        return SqlDialect.super.dropColumnSql(tableName, columnName) + " CASCADE CONSTRAINTS";
+    }
+}
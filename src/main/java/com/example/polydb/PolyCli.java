@@ -0,0 +1,456 @@
+package com.example.polydb;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Headless entry point for scripted jobs (cron, CI), no JavaFX toolkit is started:
+ *
+ *   tables [<db>]
+ *   export <db> <table> <file> [--format csv|jsonl] [--gzip]
+ *   import <db> <table> <file.csv> [--rejects <file>] [--commit-every <n>]
+ *   sql    <db> <file.sql> [--continue] [--max-rows <n>]
+ *   copy   <db> <table> <target-db> [<target-table>] [--commit-every <n>] [--workers <n>] [--create]
+ *          [--resume] [--checkpoint <file>]
+ *
+ * <db> is PostgreSQL, MySQL or OracleDB (any registered SqlDialect). Results are JSON, one object
+ * per line on stdout; progress and engine debug output go to stderr (--quiet drops the progress).
+ * Run with: java -m com.example.polydb/com.example.polydb.PolyCli <command> ...
+ */
+public class PolyCli {
+
+    public static final int EXIT_OK = 0;
+    //the job failed (connection, SQL or file error)
+    public static final int EXIT_ERROR = 1;
+    //bad command line
+    public static final int EXIT_USAGE = 2;
+    //finished, but some rows were rejected or some statements failed
+    public static final int EXIT_PARTIAL = 3;
+
+    private static final int DEFAULT_MAX_ROWS = 10_000;
+
+    private final PrintStream out;
+    private final JobProgress progress;
+    private volatile Runnable cancelCurrent;
+
+    PolyCli(PrintStream out, boolean quiet) {
+        this.out = out;
+        this.progress = quiet ? JobProgress.NONE : new JobProgress() {
+            @Override
+            public void message(String text) {
+                System.err.println(text);
+            }
+
+            @Override
+            public void progress(double done, double total) {
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        //stdout is for the JSON result lines only, progress and errors go to stderr
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+
+        Args parsed;
+        try {
+            parsed = Args.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        PolyCli cli = new PolyCli(out, parsed.has("quiet"));
+        //Ctrl+C / kill: stop the running statement on the server, not just the JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Runnable cancel = cli.cancelCurrent;
+            if (cancel != null) {
+                cancel.run();
+            }
+        }, "polydb-cli-cancel"));
+
+        int exitCode;
+        try {
+            exitCode = cli.run(parsed);
+        } finally {
+            ConnectionPool.shutdownAll();
+        }
+        System.exit(exitCode);
+    }
+
+    int run(Args args) {
+        String command = args.positional(0);
+        try {
+            switch (command == null ? "" : command) {
+                case "tables":
+                    return tables(args);
+                case "export":
+                    return export(args);
+                case "import":
+                    return importCsv(args);
+                case "sql":
+                    return sql(args);
+                case "copy":
+                    return copy(args);
+                default:
+                    if (command != null) {
+                        System.err.println("Unknown command: " + command);
+                    }
+                    printUsage();
+                    return EXIT_USAGE;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            return EXIT_USAGE;
+        } catch (SQLException | IOException e) {
+            out.println(new JsonLine().put("command", command).put("error", e.getMessage()));
+            return EXIT_ERROR;
+        }
+    }
+
+    private int tables(Args args) {
+        List<String> sources = args.size() > 1 ? List.of(database(args.positional(1))) : SqlDialects.names();
+        int exitCode = EXIT_OK;
+        for (String source : sources) {
+            JsonLine line = new JsonLine().put("command", "tables").put("database", source);
+            try {
+                List<String> names = new ArrayList<>();
+                for (DatabaseTable table : TableDiscovery.discover(source)) {
+                    names.add(table.getName());
+                }
+                line.put("tables", names);
+            } catch (SQLException e) {
+                line.put("error", e.getMessage());
+                exitCode = EXIT_ERROR;
+            }
+            out.println(line);
+        }
+        return exitCode;
+    }
+
+    private int export(Args args) throws SQLException, IOException {
+        String dbType = database(args.required(1, "database"));
+        String table = args.required(2, "table");
+        Path file = Path.of(args.required(3, "output file"));
+        String formatName = args.option("format", file.toString().contains(".jsonl") ? "jsonl" : "csv");
+        TableExporter.Format format;
+        try {
+            format = TableExporter.Format.valueOf(formatName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + formatName + " (csv or jsonl)");
+        }
+        boolean gzip = args.has("gzip") || file.toString().endsWith(".gz");
+
+        TableExporter exporter = new TableExporter(dbType, table,
+                SqlDialects.forType(dbType).quoteIdentifier(table), file, format, gzip, progress);
+        cancelCurrent = exporter::cancel;
+        TableExporter.ExportResult result = exporter.run();
+        cancelCurrent = null;
+
+        out.println(new JsonLine()
+                .put("command", "export")
+                .put("database", dbType)
+                .put("table", table)
+                .put("file", result.getFile().toString())
+                .put("rows", result.getRows())
+                .put("bytes", result.getBytes())
+                .put("elapsedMillis", result.getElapsedMillis())
+                .put("cancelled", result.isCancelled()));
+        return result.isCancelled() ? EXIT_ERROR : EXIT_OK;
+    }
+
+    private int importCsv(Args args) throws SQLException, IOException {
+        String dbType = database(args.required(1, "database"));
+        String table = args.required(2, "table");
+        Path file = Path.of(args.required(3, "CSV file"));
+        Path rejects = Path.of(args.option("rejects", file + ".rejects.csv"));
+        int commitEvery = args.intOption("commit-every", CsvImporter.DEFAULT_COMMIT_EVERY);
+
+        TableSchema schema = SchemaCache.get(dbType, table);
+        if (schema.getColumns().isEmpty()) {
+            throw new SQLException("Table " + table + " not found in " + dbType);
+        }
+        CsvImporter importer = new CsvImporter(dbType, schema, file, rejects, commitEvery, progress);
+        cancelCurrent = importer::cancel;
+        CsvImporter.ImportResult result = importer.run();
+        cancelCurrent = null;
+
+        out.println(new JsonLine()
+                .put("command", "import")
+                .put("database", dbType)
+                .put("table", table)
+                .put("file", file.toString())
+                .put("imported", result.getImportedRows())
+                .put("rejected", result.getRejectedRows())
+                .put("rejectFile", result.getRejectFile() == null ? null : result.getRejectFile().toString())
+                .put("method", result.getMethod())
+                .put("elapsedMillis", result.getElapsedMillis())
+                .put("cancelled", result.isCancelled()));
+        if (result.isCancelled()) {
+            return EXIT_ERROR;
+        }
+        return result.getRejectedRows() > 0 ? EXIT_PARTIAL : EXIT_OK;
+    }
+
+    private int sql(Args args) throws SQLException, IOException {
+        String dbType = database(args.required(1, "database"));
+        Path file = Path.of(args.required(2, "SQL file"));
+        boolean continueOnError = args.has("continue");
+        int maxRows = args.intOption("max-rows", DEFAULT_MAX_ROWS);
+        List<String> statements = SqlScript.split(Files.readString(file, StandardCharsets.UTF_8),
+                SqlDialects.forType(dbType));
+
+        int failed = 0;
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            for (int n = 0; n < statements.size(); n++) {
+                JsonLine line = new JsonLine().put("command", "sql").put("statement", n + 1);
+                String statement = statements.get(n);
+                try (Statement stmt = conn.createStatement();
+                     RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.BULK, dbType,
+                             "Script statement " + (n + 1), conn)) {
+                    op.track(stmt);
+                    cancelCurrent = () -> cancelQuietly(stmt);
+                    if (Metrics.timed("cli.sql", dbType, null, statement, () -> stmt.execute(statement))) {
+                        try (ResultSet rs = stmt.getResultSet()) {
+                            putResultSet(line, rs, maxRows);
+                        }
+                    } else {
+                        line.put("updateCount", stmt.getUpdateCount());
+                    }
+                    out.println(line);
+                } catch (SQLException e) {
+                    failed++;
+                    out.println(line.put("error", e.getMessage()));
+                    if (!continueOnError) {
+                        return EXIT_ERROR;
+                    }
+                } finally {
+                    cancelCurrent = null;
+                }
+            }
+        }
+        return failed > 0 ? EXIT_PARTIAL : EXIT_OK;
+    }
+
+    private int copy(Args args) throws SQLException, IOException {
+        String sourceType = database(args.required(1, "database"));
+        String sourceTable = args.required(2, "table");
+        String targetType = database(args.required(3, "target database"));
+        String targetTable = args.size() > 4 ? args.positional(4) : sourceTable;
+        int commitEvery = args.intOption("commit-every", TableCopier.DEFAULT_COMMIT_EVERY);
+
+        TableCopier copier = new TableCopier(sourceType, sourceTable, targetType, targetTable, commitEvery, progress);
+        copier.setWorkers(args.intOption("workers", TableCopier.DEFAULT_WORKERS));
+        copier.setCreateTarget(args.has("create"));
+        Path checkpoint = CopyCheckpoint.defaultPath(sourceType, sourceTable, targetType, targetTable);
+        copier.setCheckpoint(Path.of(args.option("checkpoint", checkpoint.toString())), args.has("resume"));
+        cancelCurrent = copier::cancel;
+        TableCopier.CopyResult result = copier.run();
+        cancelCurrent = null;
+
+        out.println(new JsonLine()
+                .put("command", "copy")
+                .put("database", sourceType)
+                .put("table", sourceTable)
+                .put("targetDatabase", targetType)
+                .put("targetTable", targetTable)
+                .put("rows", result.getRows())
+                .put("bytes", result.getBytes())
+                .put("workers", result.getWorkers())
+                .put("ranges", result.getChunks())
+                .put("resumedRanges", result.getResumedChunks())
+                .put("elapsedMillis", result.getElapsedMillis())
+                .put("cancelled", result.isCancelled()));
+        return result.isCancelled() ? EXIT_ERROR : EXIT_OK;
+    }
+
+    private static void putResultSet(JsonLine line, ResultSet rs, int maxRows) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<String> columns = new ArrayList<>();
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(metaData.getColumnLabel(i));
+        }
+        List<List<String>> rows = new ArrayList<>();
+        boolean truncated = false;
+        while (rs.next()) {
+            if (rows.size() == maxRows) {
+                truncated = true;
+                break;
+            }
+            List<String> row = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                row.add(rs.getString(i));
+            }
+            rows.add(row);
+        }
+        line.put("columns", columns).put("rows", rows).put("truncated", truncated);
+    }
+
+    private static void cancelQuietly(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            System.err.println("Could not cancel statement: " + e.getMessage());
+        }
+    }
+
+    //exact registered name, or any case ("postgresql", "oracledb")
+    private static String database(String name) {
+        for (String known : SqlDialects.names()) {
+            if (known.equalsIgnoreCase(name)) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database: " + name + " (one of " + SqlDialects.names() + ")");
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: PolyCli <command> [options]");
+        System.err.println("  tables [<db>]");
+        System.err.println("  export <db> <table> <file> [--format csv|jsonl] [--gzip]");
+        System.err.println("  import <db> <table> <file.csv> [--rejects <file>] [--commit-every <n>]");
+        System.err.println("  sql    <db> <file.sql> [--continue] [--max-rows <n>]");
+        System.err.println("  copy   <db> <table> <target-db> [<target-table>] [--commit-every <n>] [--workers <n>] [--create]");
+        System.err.println("         [--resume] [--checkpoint <file>]   (default checkpoint in ~/.polydb-copy)");
+        System.err.println("  --quiet  no progress output");
+        System.err.println("<db>: " + String.join(", ", SqlDialects.names()));
+        System.err.println("Exit codes: 0 ok, 1 error, 2 usage, 3 partial (rejected rows / failed statements)");
+    }
+
+    //positional arguments and --name [value] options
+    static class Args {
+        //options that never take a value
+        private static final List<String> FLAGS = List.of("gzip", "continue", "quiet", "create", "resume");
+
+        private final List<String> positional = new ArrayList<>();
+        private final Map<String, String> options = new HashMap<>();
+
+        static Args parse(String[] argv) {
+            Args args = new Args();
+            for (int i = 0; i < argv.length; i++) {
+                String arg = argv[i];
+                if (arg.startsWith("--")) {
+                    String name = arg.substring(2);
+                    String value = "true";
+                    int eq = name.indexOf('=');
+                    if (eq >= 0) {
+                        value = name.substring(eq + 1);
+                        name = name.substring(0, eq);
+                    } else if (!FLAGS.contains(name)) {
+                        if (i + 1 >= argv.length) {
+                            throw new IllegalArgumentException("Missing value for --" + name);
+                        }
+                        value = argv[++i];
+                    }
+                    args.options.put(name, value);
+                } else {
+                    args.positional.add(arg);
+                }
+            }
+            return args;
+        }
+
+        int size() {
+            return positional.size();
+        }
+
+        String positional(int index) {
+            return index < positional.size() ? positional.get(index) : null;
+        }
+
+        String required(int index, String what) {
+            String value = positional(index);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + what);
+            }
+            return value;
+        }
+
+        boolean has(String name) {
+            return options.containsKey(name);
+        }
+
+        String option(String name, String defaultValue) {
+            return options.getOrDefault(name, defaultValue);
+        }
+
+        int intOption(String name, int defaultValue) {
+            String value = options.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed < 1) {
+                    throw new NumberFormatException();
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " needs a positive number, got " + value);
+            }
+        }
+    }
+
+    //one JSON object, printed as a single line
+    static class JsonLine {
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+
+        JsonLine put(String name, Object value) {
+            fields.put(name, value);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            appendValue(sb, fields);
+            return sb.toString();
+        }
+
+        private static void appendValue(StringBuilder sb, Object value) {
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else if (value instanceof Map) {
+                sb.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    TableExporter.appendJsonString(sb, String.valueOf(entry.getKey()));
+                    sb.append(':');
+                    appendValue(sb, entry.getValue());
+                }
+                sb.append('}');
+            } else if (value instanceof List) {
+                sb.append('[');
+                boolean first = true;
+                for (Object item : (List<?>) value) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    appendValue(sb, item);
+                }
+                sb.append(']');
+            } else {
+                TableExporter.appendJsonString(sb, value.toString());
+            }
+        }
+    }
+}
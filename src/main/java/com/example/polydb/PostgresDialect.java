@@ -0,0 +1,151 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+public class PostgresDialect implements SqlDialect {
+
+    private static final Set<Capability> CAPABILITIES = EnumSet.of(
+            Capability.MULTI_ROW_VALUES, Capability.RETURNING, Capability.COPY,
+            Capability.UPSERT, Capability.TABLESAMPLE, Capability.INSTANT_DDL);
+
+    //plain and partitioned tables outside the system schemas, partitions are listed under their parent;
+    //reltuples is -1 before the first ANALYZE (PostgreSQL 14+)
+    private static final String DISCOVERY_SQL =
+            "SELECT c.relname, c.reltuples::bigint, pg_total_relation_size(c.oid), "
+                    + "GREATEST(s.last_analyze, s.last_autoanalyze) "
+                    + "FROM pg_class c "
+                    + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid "
+                    + "WHERE c.relkind IN ('r', 'p') AND NOT c.relispartition "
+                    + "AND n.nspname NOT IN ('pg_catalog', 'information_schema') "
+                    + "AND n.nspname NOT LIKE 'pg\\_toast%' AND n.nspname NOT LIKE 'pg\\_temp\\_%' "
+                    + "ORDER BY c.relname";
+
+    @Override
+    public String getName() {
+        return "PostgreSQL";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.postgresql.Driver";
+    }
+
+    @Override
+    public String getDefaultUrl() {
+        return "jdbc:postgresql://localhost:5432/TestD";
+    }
+
+    @Override
+    public String getDefaultUser() {
+        return "postgres";
+    }
+
+    @Override
+    public String getDefaultPassword() {
+        return "samplePass";
+    }
+
+    @Override
+    public void configureDriver(Properties props) {
+        //use a named server-side statement from the second execution on
+        props.setProperty("prepareThreshold", "2");
+    }
+
+    @Override
+    public void configureConnectTimeout(Properties props, int seconds) {
+        props.setProperty("connectTimeout", Integer.toString(seconds));
+        props.setProperty("loginTimeout", Integer.toString(seconds));
+    }
+
+    @Override
+    public String quoteIdentifier(String name) {
+        return "\"" + name + "\"";
+    }
+
+    @Override
+    public String booleanLiteral(boolean value) {
+        // PostgreSQL accepts TRUE/FALSE (without quotes)
+        return value ? "TRUE" : "FALSE";
+    }
+
+    @Override
+    public String booleanInputHint() {
+        return "Enter true/false";
+    }
+
+    @Override
+    public String limitClause(int limit, long offset) {
+        return offset > 0 ? " LIMIT " + limit + " OFFSET " + offset : " LIMIT " + limit;
+    }
+
+    @Override
+    public String insertReturningRowSql(String insertSql) {
+        return insertSql + " RETURNING *";
+    }
+
+    @Override
+    public boolean dollarQuotes() {
+        return true;
+    }
+
+    @Override
+    public void prepareForStreaming(Connection conn) throws SQLException {
+        // cursors only exist inside a transaction, the pool rolls it back on release
+        if (conn.getAutoCommit()) {
+            conn.setAutoCommit(false);
+        }
+    }
+
+    @Override
+    public List<DatabaseTable> discoverTables(Connection conn) throws SQLException {
+        List<DatabaseTable> tables = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(DISCOVERY_SQL)) {
+            while (rs.next()) {
+                tables.add(discoveredTable(rs));
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String createTableSql(String tableName) {
+        return "CREATE TABLE " + quoteIdentifier(tableName) + " (" +
+                "id SERIAL PRIMARY KEY, " +
+                "name VARCHAR(255)" +
+                ")";
+    }
+
+    @Override
+    public String columnType(TableSchema.ColumnInfo column) {
+        switch (column.getJdbcType()) {
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return "BYTEA";
+            default:
+                return SqlDialect.super.columnType(column);
+        }
+    }
+
+    @Override
+    public String dropTableSql(String tableName) {
+        return "DROP TABLE " + quoteIdentifier(tableName) + " CASCADE";
+    }
+}
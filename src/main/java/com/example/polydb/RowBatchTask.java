@@ -0,0 +1,56 @@
+package com.example.polydb;
+
+import javafx.concurrent.Task;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * Runs one multi-row change (delete the selected rows, set a column on them) off the FX thread.
+ * Cancel aborts the connection: the server rolls back an all-or-nothing batch,
+ * a best-effort one keeps the rows it already committed one at a time.
+ */
+public class RowBatchTask extends Task<DmlEngine.BatchResult> {
+
+    public interface Action {
+        DmlEngine.BatchResult run(Connection conn) throws SQLException;
+    }
+
+    private final String dbType;
+    private final String description;
+    private final Action action;
+
+    private volatile Connection connection;
+
+    public RowBatchTask(String dbType, String description, Action action) {
+        this.dbType = dbType;
+        this.description = description;
+        this.action = action;
+    }
+
+    @Override
+    protected DmlEngine.BatchResult call() throws Exception {
+        updateMessage(description + "...");
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            connection = conn;
+            return action.run(conn);
+        } finally {
+            connection = null;
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Connection conn = connection;
+        if (conn != null) {
+            try {
+                //the pool drops the aborted connection when it comes back
+                conn.abort(command -> Thread.ofVirtual().start(command));
+            } catch (SQLException e) {
+                System.err.println("Could not abort connection: " + e.getMessage());
+            }
+        }
+        return cancelled;
+    }
+}
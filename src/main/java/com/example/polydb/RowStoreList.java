@@ -0,0 +1,192 @@
+package com.example.polydb;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/*
+ * Thin ObservableList adapter so a TableView can show a ColumnarRowStore.
+ * No object is kept per row: get(i) hands out a small StoredRow view and cells format
+ * their value only when they are on screen. Must only be used from the FX thread.
+ * Rows changed by the user's DML are patched in place: the store is append-only, so a
+ * re-read row is appended and the list position is pointed at it, and deleted rows are
+ * dropped from the list only. Replaced rows stay in the store until the next page load.
+ */
+public class RowStoreList extends ObservableListBase<RowStoreList.StoredRow> {
+
+    private final ColumnarRowStore store;
+    //list position -> store row, null while the list is still every store row in order
+    private int[] view;
+    private int viewSize;
+
+    public RowStoreList(ColumnarRowStore store) {
+        this.store = store;
+    }
+
+    public ColumnarRowStore getStore() {
+        return store;
+    }
+
+    //add a batch loaded in the background and tell the TableView about the new rows
+    public void appendBatch(ColumnarRowStore.Batch batch) {
+        if (batch.getRowCount() == 0) {
+            return;
+        }
+        int at = size();
+        int from = store.append(batch);
+        if (view != null) {
+            ensureView(viewSize + batch.getRowCount());
+            for (int i = 0; i < batch.getRowCount(); i++) {
+                view[viewSize++] = from + i;
+            }
+        }
+        beginChange();
+        nextAdd(at, at + batch.getRowCount());
+        endChange();
+    }
+
+    //show a freshly read copy of the row at index, the batch must hold exactly one row
+    public void replaceRow(int index, ColumnarRowStore.Batch batch) {
+        if (batch.getRowCount() != 1) {
+            throw new IllegalArgumentException("Expected one row, got " + batch.getRowCount());
+        }
+        StoredRow old = get(index);
+        materializeView();
+        view[index] = store.append(batch);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+    }
+
+    //drop the given rows from the list in one pass, returns how many were found
+    public int removeRows(Collection<StoredRow> rows) {
+        BitSet removed = new BitSet(store.size());
+        for (StoredRow row : rows) {
+            if (row.store == store) {
+                removed.set(row.row);
+            }
+        }
+        if (removed.isEmpty()) {
+            return 0;
+        }
+        materializeView();
+        int count = 0;
+        beginChange();
+        try {
+            int kept = 0;
+            for (int i = 0; i < viewSize; i++) {
+                if (removed.get(view[i])) {
+                    nextRemove(kept, new StoredRow(store, view[i]));
+                    count++;
+                } else {
+                    view[kept++] = view[i];
+                }
+            }
+            viewSize = kept;
+        } finally {
+            endChange();
+        }
+        return count;
+    }
+
+    //list position of a row, -1 if it is not (or no longer) shown; no StoredRow is made per position
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof StoredRow) || ((StoredRow) o).store != store) {
+            return -1;
+        }
+        StoredRow row = (StoredRow) o;
+        if (view == null) {
+            return row.row < store.size() ? row.row : -1;
+        }
+        for (int i = 0; i < viewSize; i++) {
+            if (view[i] == row.row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void materializeView() {
+        if (view != null) {
+            return;
+        }
+        viewSize = store.size();
+        view = new int[Math.max(16, viewSize)];
+        for (int i = 0; i < viewSize; i++) {
+            view[i] = i;
+        }
+    }
+
+    private void ensureView(int capacity) {
+        if (capacity > view.length) {
+            view = Arrays.copyOf(view, Math.max(capacity, view.length * 2));
+        }
+    }
+
+    @Override
+    public StoredRow get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+        }
+        return new StoredRow(store, view == null ? index : view[index]);
+    }
+
+    @Override
+    public int size() {
+        return view == null ? store.size() : viewSize;
+    }
+
+    /*
+     * Read-only view of one row. get(i) gives the display text ("" for NULL) so the
+     * row editing code can keep treating rows as lists of strings.
+     */
+    public static final class StoredRow extends AbstractList<String> {
+        private final ColumnarRowStore store;
+        private final int row;
+
+        StoredRow(ColumnarRowStore store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        //the row's slot in the store, not its position in the list once rows have been patched
+        public int getRowIndex() {
+            return row;
+        }
+
+        @Override
+        public String get(int column) {
+            return store.format(row, column);
+        }
+
+        //typed value, null for SQL NULL
+        public Object getValue(int column) {
+            return store.getValue(row, column);
+        }
+
+        public boolean isNull(int column) {
+            return store.isNull(row, column);
+        }
+
+        @Override
+        public int size() {
+            return store.getColumnCount();
+        }
+
+        //rows are the same row when they point at the same slot, comparing cell by cell would format every value
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StoredRow && ((StoredRow) o).store == store && ((StoredRow) o).row == row;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(store) * 31 + row;
+        }
+    }
+}
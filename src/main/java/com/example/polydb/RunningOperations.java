@@ -0,0 +1,161 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Every database operation that is running right now, for the Running Operations window.
+ * Starting an operation also applies its OperationTimeouts: the statement gets a query timeout
+ * once it is tracked, and the connection a network timeout a little longer than that, so even a
+ * metadata call or a dead server can't hang a thread forever.
+ * Cancelling uses the operation's own cancel (a Task or bulk job), else Statement.cancel(),
+ * else Connection.abort(), which the pool then replaces.
+ *
+ *   try (RunningOperations.Operation op = RunningOperations.start(Kind.DDL, dbType, sql, conn)) {
+ *       op.track(stmt);
+ *       stmt.execute(sql);
+ *   }
+ */
+public final class RunningOperations {
+
+    //runs Connection.abort() and the driver's network timeout timers
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Map<Long, Operation> RUNNING = new ConcurrentHashMap<>();
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private RunningOperations() {
+    }
+
+    //conn may be null for jobs that manage their own connections; they should set onCancel()
+    public static Operation start(OperationTimeouts.Kind kind, String dbType, String description, Connection conn) {
+        Operation op = new Operation(IDS.incrementAndGet(), kind, dbType, description, conn);
+        op.applyNetworkTimeout();
+        RUNNING.put(op.id, op);
+        return op;
+    }
+
+    //one DDL statement, timed and listed while it runs
+    public static boolean executeDdl(String metric, String dbType, String table, Statement stmt, String sql) throws SQLException {
+        try (Operation op = start(OperationTimeouts.Kind.DDL, dbType, sql, stmt.getConnection())) {
+            op.track(stmt);
+            return Metrics.timed(metric, dbType, table, sql, () -> stmt.execute(sql));
+        }
+    }
+
+    //oldest first
+    public static List<Operation> snapshot() {
+        List<Operation> operations = new ArrayList<>(RUNNING.values());
+        operations.sort((a, b) -> Long.compare(a.id, b.id));
+        return operations;
+    }
+
+    public static class Operation implements AutoCloseable {
+        private final long id;
+        private final OperationTimeouts.Kind kind;
+        private final String dbType;
+        private final String description;
+        private final Connection connection;
+        private final int timeoutSeconds;
+        private final long startedMillis = System.currentTimeMillis();
+        private volatile Statement statement;
+        private volatile Runnable onCancel;
+        private volatile boolean cancelled;
+        //network timeout before we changed it, -1 if we didn't
+        private int previousNetworkTimeout = -1;
+
+        private Operation(long id, OperationTimeouts.Kind kind, String dbType, String description, Connection connection) {
+            this.id = id;
+            this.kind = kind;
+            this.dbType = dbType;
+            this.description = description;
+            this.connection = connection;
+            this.timeoutSeconds = OperationTimeouts.getSeconds(kind);
+        }
+
+        //the statement this operation is running: gets the query timeout and is what Cancel cancels
+        public void track(Statement stmt) throws SQLException {
+            statement = stmt;
+            if (timeoutSeconds > 0) {
+                stmt.setQueryTimeout(timeoutSeconds);
+            }
+        }
+
+        //for Tasks and bulk jobs that already know how to stop themselves
+        public void onCancel(Runnable cancel) {
+            this.onCancel = cancel;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            Runnable hook = onCancel;
+            if (hook != null) {
+                hook.run();
+                return;
+            }
+            Statement stmt = statement;
+            if (stmt != null) {
+                try {
+                    stmt.cancel();
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Could not cancel statement, aborting the connection: " + e.getMessage());
+                }
+            }
+            if (connection != null) {
+                try {
+                    connection.abort(EXECUTOR);
+                } catch (SQLException e) {
+                    System.err.println("Could not abort connection: " + e.getMessage());
+                }
+            }
+        }
+
+        private void applyNetworkTimeout() {
+            if (connection == null || timeoutSeconds == 0) {
+                return;
+            }
+            try {
+                int previous = connection.getNetworkTimeout();
+                connection.setNetworkTimeout(EXECUTOR, (timeoutSeconds + OperationTimeouts.NETWORK_GRACE_SECONDS) * 1000);
+                previousNetworkTimeout = previous;
+            } catch (SQLException | UnsupportedOperationException e) {
+                //driver without network timeouts, the query timeout still applies
+            }
+        }
+
+        @Override
+        public void close() {
+            RUNNING.remove(id);
+            if (previousNetworkTimeout >= 0) {
+                try {
+                    if (!connection.isClosed()) {
+                        connection.setNetworkTimeout(EXECUTOR, previousNetworkTimeout);
+                    }
+                } catch (SQLException e) {
+                    //aborted or broken, the pool drops it
+                }
+            }
+        }
+
+        public long getId() { return id; }
+        public OperationTimeouts.Kind getKind() { return kind; }
+        public String getDbType() { return dbType; }
+        public String getDescription() { return description; }
+        public int getTimeoutSeconds() { return timeoutSeconds; }
+        public long getStartedMillis() { return startedMillis; }
+        public boolean isCancelled() { return cancelled; }
+
+        public long getElapsedMillis() {
+            return System.currentTimeMillis() - startedMillis;
+        }
+    }
+}
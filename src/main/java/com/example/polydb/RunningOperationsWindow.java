@@ -0,0 +1,150 @@
+package com.example.polydb;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.function.Function;
+
+/*
+ * Everything that is talking to a database right now (RunningOperations), with how long it has
+ * been running and its timeout. "Cancel" stops the selected operation. The spinners change the
+ * OperationTimeouts for this session; they apply to operations started afterwards.
+ */
+public class RunningOperationsWindow {
+
+    private static final long REFRESH_MILLIS = 500;
+
+    private static Stage stage;
+
+    private final TableView<RunningOperations.Operation> table = new TableView<>();
+    private final Label status = new Label();
+
+    private RunningOperationsWindow() {
+    }
+
+    //opens the window, or brings it to the front if it is already open
+    public static void show(Window owner) {
+        if (stage != null) {
+            stage.toFront();
+            return;
+        }
+        RunningOperationsWindow window = new RunningOperationsWindow();
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("PolyDB Running Operations");
+        stage.setScene(new Scene(window.build(), 900, 440));
+
+        Timeline refresher = new Timeline(new KeyFrame(Duration.millis(REFRESH_MILLIS), e -> window.refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+        stage.setOnHidden(e -> {
+            refresher.stop();
+            stage = null;
+        });
+
+        window.refresh();
+        stage.show();
+    }
+
+    private BorderPane build() {
+        table.getColumns().add(textColumn("Kind", 80, op -> op.getKind().name()));
+        table.getColumns().add(textColumn("Database", 100, RunningOperations.Operation::getDbType));
+        TableColumn<RunningOperations.Operation, String> description =
+                textColumn("Operation", 460, RunningOperations.Operation::getDescription);
+        table.getColumns().add(description);
+        TableColumn<RunningOperations.Operation, String> elapsed =
+                textColumn("Elapsed", 90, op -> String.format("%,.1f s", op.getElapsedMillis() / 1000.0));
+        elapsed.setStyle("-fx-alignment: CENTER-RIGHT;");
+        table.getColumns().add(elapsed);
+        table.getColumns().add(textColumn("Timeout", 80, op -> op.getTimeoutSeconds() == 0
+                ? "none"
+                : op.getTimeoutSeconds() + " s"));
+        table.setPlaceholder(new Label("Nothing running"));
+
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setStyle("-fx-font-weight: bold; -fx-background-color: #FA5F55;");
+        cancelButton.disableProperty().bind(table.getSelectionModel().selectedItemProperty().isNull());
+        cancelButton.setOnAction(e -> cancelSelected());
+
+        HBox buttons = new HBox(10, cancelButton, status);
+        buttons.setAlignment(Pos.CENTER_LEFT);
+        buttons.setPadding(new Insets(10));
+        buttons.setStyle("-fx-background-color: #e0e0e0;");
+
+        BorderPane root = new BorderPane(table);
+        root.setRight(buildTimeouts());
+        root.setBottom(buttons);
+        return root;
+    }
+
+    //one spinner per kind of operation, 0 = no limit
+    private VBox buildTimeouts() {
+        GridPane grid = new GridPane();
+        grid.setHgap(8);
+        grid.setVgap(6);
+        int row = 0;
+        for (OperationTimeouts.Kind kind : OperationTimeouts.Kind.values()) {
+            Spinner<Integer> spinner = new Spinner<>(0, 24 * 3600, OperationTimeouts.getSeconds(kind), 5);
+            spinner.setEditable(true);
+            spinner.setPrefWidth(90);
+            spinner.setTooltip(new Tooltip("Default " + kind.getDefaultSeconds() + " s, 0 = no limit"));
+            spinner.valueProperty().addListener((obs, oldValue, newValue) -> {
+                if (newValue != null) {
+                    OperationTimeouts.setSeconds(kind, newValue);
+                }
+            });
+            grid.addRow(row++, new Label(kind.name()), spinner);
+        }
+
+        Label title = new Label("Timeouts (s)");
+        title.setStyle("-fx-font-weight: bold;");
+        VBox box = new VBox(8, title, grid);
+        box.setPadding(new Insets(10));
+        return box;
+    }
+
+    private void cancelSelected() {
+        RunningOperations.Operation op = table.getSelectionModel().getSelectedItem();
+        if (op == null) {
+            return;
+        }
+        //cancelling can mean a round trip to the server, keep it off the FX thread
+        Thread.ofVirtual().start(op::cancel);
+        status.setText("Cancelling: " + op.getDescription());
+    }
+
+    private void refresh() {
+        RunningOperations.Operation selected = table.getSelectionModel().getSelectedItem();
+        table.setItems(FXCollections.observableArrayList(RunningOperations.snapshot()));
+        //operations are the same objects between refreshes, so the selection survives
+        if (selected != null && table.getItems().contains(selected)) {
+            table.getSelectionModel().select(selected);
+        }
+    }
+
+    private static TableColumn<RunningOperations.Operation, String> textColumn(String title, double width,
+                                                                           Function<RunningOperations.Operation, String> value) {
+        TableColumn<RunningOperations.Operation, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Keeps the TableSchema of each table so one user action doesn't query DatabaseMetaData
+ * over and over. Our own DDL (add/drop/rename column, rename/drop table) invalidates
+ * the entry right away; the TTL catches changes made outside PolyDB.
+ */
+public final class SchemaCache {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private SchemaCache() {
+    }
+
+    public static TableSchema get(DatabaseTable table) throws SQLException {
+        return get(table.getType(), table.getName());
+    }
+
+    public static TableSchema get(String dbType, String tableName) throws SQLException {
+        Entry entry = CACHE.get(key(dbType, tableName));
+        if (entry != null && !entry.isExpired()) {
+            return entry.schema;
+        }
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            return load(conn, dbType, tableName);
+        }
+    }
+
+    //same as get() but reuses a connection the caller already holds
+    public static TableSchema get(Connection conn, String dbType, String tableName) throws SQLException {
+        Entry entry = CACHE.get(key(dbType, tableName));
+        if (entry != null && !entry.isExpired()) {
+            return entry.schema;
+        }
+        return load(conn, dbType, tableName);
+    }
+
+    private static TableSchema load(Connection conn, String dbType, String tableName) throws SQLException {
+        DbEvents.MetadataLookup event = new DbEvents.MetadataLookup();
+        event.begin();
+        TableSchema schema;
+        //the metadata calls are the driver's own statements, the operation's network timeout and abort bound them
+        RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.METADATA, dbType,
+                "Columns of " + tableName, conn);
+        try {
+            schema = Metrics.timed("metadata.schema", dbType, tableName,
+                    () -> TableSchema.load(conn, dbType, tableName));
+        } finally {
+            op.close();
+        }
+        event.finish(dbType, tableName, "columns", schema.getColumns().size());
+        CACHE.put(key(dbType, tableName), new Entry(schema));
+        return schema;
+    }
+
+    public static void invalidate(String dbType, String tableName) {
+        CACHE.remove(key(dbType, tableName));
+    }
+
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    //Oracle folds unquoted names to upper case, the others are looked up as typed
+    private static String key(String dbType, String tableName) {
+        return dbType + "/" + SqlDialects.of(dbType).normalizeName(tableName);
+    }
+
+    private static class Entry {
+        private final TableSchema schema;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Entry(TableSchema schema) {
+            this.schema = schema;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.polydb;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.util.List;
+
+/*
+ * One SQL console on one database: editor, result grids and the history of that database.
+ * Ctrl+Enter runs the selected text, or everything when nothing is selected. Each result set gets
+ * its own grid, filled while the rows are still arriving; the Messages tab lists every statement
+ * with its row count, time to first row and total time.
+ */
+public final class SqlConsoleTab extends Tab {
+
+    private final String dbType;
+    private final TextArea editor = new TextArea();
+    private final TabPane results = new TabPane();
+    private final ListView<String> messages = new ListView<>();
+    private final ListView<SqlHistory.Entry> history = new ListView<>();
+    private final Label status = new Label();
+    private final ProgressIndicator running = new ProgressIndicator();
+    private final Button runButton = new Button("Run");
+    private final Button cancelButton = new Button("Cancel");
+    private final CheckBox stopOnError = new CheckBox("Stop on error");
+
+    private SqlConsoleTask currentTask;
+
+    public SqlConsoleTab(String dbType) {
+        super(dbType);
+        this.dbType = dbType;
+        setContent(build());
+        setOnClosed(e -> cancel());
+        refreshHistory();
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    private BorderPane build() {
+        editor.setFont(Font.font("Monospaced", 13));
+        editor.setPromptText("SQL to run on " + dbType + ", statements separated by ;");
+        editor.setOnKeyPressed(event -> {
+            if (new KeyCodeCombination(KeyCode.ENTER, KeyCombination.SHORTCUT_DOWN).match(event)) {
+                run();
+                event.consume();
+            }
+        });
+
+        runButton.setStyle("-fx-font-weight: bold;");
+        runButton.setTooltip(new Tooltip("Run the selection, or everything (Ctrl+Enter)"));
+        runButton.setOnAction(e -> run());
+        cancelButton.setStyle("-fx-font-weight: bold; -fx-background-color: #FA5F55;");
+        cancelButton.setOnAction(e -> cancel());
+        cancelButton.setVisible(false);
+        stopOnError.setSelected(true);
+        running.setPrefSize(20, 20);
+        running.setVisible(false);
+        status.setStyle("-fx-font-weight: bold;");
+
+        HBox toolbar = new HBox(10, runButton, cancelButton, stopOnError, running, status);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(6, 10, 6, 10));
+
+        Tab messagesTab = new Tab("Messages", messages);
+        messagesTab.setClosable(false);
+        results.getTabs().add(messagesTab);
+
+        SplitPane editorAndResults = new SplitPane(editor, results);
+        editorAndResults.setOrientation(Orientation.VERTICAL);
+        editorAndResults.setDividerPositions(0.35);
+
+        //double click puts an old statement back into the editor
+        history.setOnMouseClicked(event -> {
+            SqlHistory.Entry entry = history.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && entry != null) {
+                editor.setText(entry.getSql());
+                editor.requestFocus();
+            }
+        });
+        history.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(SqlHistory.Entry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null : entry.toString());
+                setTooltip(empty || entry == null ? null : new Tooltip(entry.getTime() + "\n" + entry.getSql()));
+            }
+        });
+        Label historyLabel = new Label("History");
+        historyLabel.setStyle("-fx-font-weight: bold;");
+        VBox historyPane = new VBox(4, historyLabel, history);
+        historyPane.setPadding(new Insets(4));
+        VBox.setVgrow(history, Priority.ALWAYS);
+
+        SplitPane main = new SplitPane(editorAndResults, historyPane);
+        main.setDividerPositions(0.78);
+
+        BorderPane root = new BorderPane(main);
+        root.setTop(toolbar);
+        return root;
+    }
+
+    private void run() {
+        if (currentTask != null && currentTask.isRunning()) {
+            return;
+        }
+        String selected = editor.getSelectedText();
+        String script = selected == null || selected.isBlank() ? editor.getText() : selected;
+        SqlConsoleTask task = new SqlConsoleTask(dbType, script, stopOnError.isSelected(), new SqlConsoleTask.Output() {
+            @Override
+            public void resultSet(int statement, String sql, RowStoreList rows) {
+                showResultSet(statement, sql, rows);
+            }
+
+            @Override
+            public void statementFinished(SqlConsoleTask.StatementResult result) {
+                messages.getItems().add("[" + result.getNumber() + "] " + result.describe()
+                        + "  -  " + abbreviate(result.getSql()));
+                //a failing statement is easier to fix when its message is in view
+                if (result.getError() != null) {
+                    results.getSelectionModel().select(0);
+                }
+            }
+        });
+        if (task.getStatementCount() == 0) {
+            return;
+        }
+
+        SqlHistory.add(dbType, script);
+        refreshHistory();
+        clearResults();
+
+        status.textProperty().bind(task.messageProperty());
+        running.visibleProperty().bind(task.runningProperty());
+        cancelButton.visibleProperty().bind(task.runningProperty());
+        runButton.disableProperty().bind(task.runningProperty());
+        task.setOnFailed(e -> {
+            status.textProperty().unbind();
+            status.setText("Error: " + task.getException().getMessage());
+        });
+
+        currentTask = task;
+        SqlConsoleTask.EXECUTOR.execute(task);
+    }
+
+    //cancels a running script, used by the Cancel button and when the tab is closed
+    public void cancel() {
+        if (currentTask != null && currentTask.isRunning()) {
+            currentTask.cancel();
+        }
+    }
+
+    private void clearResults() {
+        messages.getItems().clear();
+        results.getTabs().remove(1, results.getTabs().size());
+        results.getSelectionModel().select(0);
+    }
+
+    private void showResultSet(int statement, String sql, RowStoreList rows) {
+        TableView<RowStoreList.StoredRow> grid = new TableView<>();
+        List<String> columnNames = rows.getStore().getColumnNames();
+        for (int i = 0; i < columnNames.size(); i++) {
+            int columnIndex = i;
+            TableColumn<RowStoreList.StoredRow, String> column = new TableColumn<>(columnNames.get(i));
+            //values are only formatted for cells on screen
+            column.setCellValueFactory(cell ->
+                    new ReadOnlyStringWrapper(cell.getValue().get(columnIndex)).getReadOnlyProperty());
+            column.setSortable(false);
+            grid.getColumns().add(column);
+        }
+        grid.setItems(rows);
+        grid.setPlaceholder(new Label("No rows"));
+
+        int resultNumber = results.getTabs().size();
+        Tab tab = new Tab("Result " + resultNumber, grid);
+        tab.setTooltip(new Tooltip("Statement " + statement + ": " + abbreviate(sql)));
+        results.getTabs().add(tab);
+        //show the first grid straight away, later ones are a click away
+        if (resultNumber == 1) {
+            results.getSelectionModel().select(tab);
+        }
+    }
+
+    private void refreshHistory() {
+        history.setItems(FXCollections.observableArrayList(SqlHistory.get(dbType)));
+    }
+
+    private static String abbreviate(String sql) {
+        String oneLine = sql.replaceAll("\\s+", " ").strip();
+        return oneLine.length() > 80 ? oneLine.substring(0, 77) + "..." : oneLine;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.polydb;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Runs the statements typed into a SQL console tab, one after the other on one pooled connection.
+ * Every result set (a statement can return several) is read into its own ColumnarRowStore and
+ * handed to the UI in chunks while the query is still running, the same way TableLoadTask does.
+ * Statements run in autocommit, so BEGIN/START TRANSACTION ... COMMIT/ROLLBACK in the script work
+ * as written. Only a query outside such a transaction gets autocommit off (PostgreSQL streams through
+ * a cursor only inside a transaction), committed right after as autocommit would have.
+ * Whatever transaction the script leaves open is rolled back before the connection goes back to the pool.
+ * Cancelling the task cancels the running statement on the server.
+ */
+public class SqlConsoleTask extends Task<List<SqlConsoleTask.StatementResult>> {
+
+    //console statements run here, never on the FX thread
+    public static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final long CHUNK_MILLIS = 100;
+    //rows kept per result set, the rest is not fetched
+    public static final int MAX_ROWS = 500_000;
+
+    //called on the FX thread
+    public interface Output {
+        //a new result set, its rows are appended to rows as they arrive
+        void resultSet(int statement, String sql, RowStoreList rows);
+
+        //one statement is done (or failed), in statement order
+        void statementFinished(StatementResult result);
+    }
+
+    private final String dbType;
+    private final List<String> statements;
+    private final boolean stopOnError;
+    private final Output output;
+
+    private volatile Statement statement;
+    //the script ran BEGIN/START TRANSACTION and hasn't ended it yet, only used on the task thread
+    private boolean userTransaction = false;
+
+    public SqlConsoleTask(String dbType, String script, boolean stopOnError, Output output) {
+        this.dbType = dbType;
+        this.statements = SqlScript.split(script, SqlDialects.of(dbType));
+        this.stopOnError = stopOnError;
+        this.output = output;
+    }
+
+    public int getStatementCount() {
+        return statements.size();
+    }
+
+    @Override
+    protected List<StatementResult> call() throws Exception {
+        List<StatementResult> results = new ArrayList<>();
+        updateMessage("Connecting...");
+
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection()) {
+            SqlDialect dialect = SqlDialects.forType(dbType);
+            try {
+                for (int n = 0; n < statements.size() && !isCancelled(); n++) {
+                    String sql = statements.get(n);
+                    updateMessage(statements.size() == 1 ? "Running..." : "Running statement " + (n + 1) + " of " + statements.size() + "...");
+                    StatementResult result = run(conn, dialect, n + 1, sql);
+                    if (result.getError() == null) {
+                        trackTransaction(sql);
+                    }
+                    results.add(result);
+                    Platform.runLater(() -> output.statementFinished(result));
+                    if (result.getError() != null && stopOnError) {
+                        break;
+                    }
+                }
+            } finally {
+                endTransaction(conn);
+            }
+        }
+
+        updateMessage(isCancelled() ? "Cancelled" : summary(results));
+        return results;
+    }
+
+    private StatementResult run(Connection conn, SqlDialect dialect, int number, String sql) {
+        long started = System.nanoTime();
+        long[] firstRowNanos = {-1};
+        List<Long> counts = new ArrayList<>();
+        long[] rows = {0};
+        boolean[] truncated = {false};
+        //autocommit was turned off here just to stream this query
+        boolean streamingTransaction = false;
+
+        try (Statement stmt = conn.createStatement();
+             RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.READ, dbType,
+                     "Console: " + sql, conn)) {
+            statement = stmt;
+            op.track(stmt);
+            op.onCancel(() -> cancel());
+            if (!userTransaction && isQuery(sql) && conn.getAutoCommit()) {
+                dialect.prepareForStreaming(conn);
+                streamingTransaction = !conn.getAutoCommit();
+            }
+            stmt.setFetchSize(StreamingFetch.DEFAULT_FETCH_SIZE);
+            stmt.setMaxRows(MAX_ROWS);
+
+            Metrics.timed("console.sql", dbType, null, sql, () -> {
+                boolean isResultSet = stmt.execute(sql);
+                while (!isCancelled()) {
+                    if (isResultSet) {
+                        try (ResultSet rs = stmt.getResultSet()) {
+                            long read = readResultSet(number, sql, rs, started, firstRowNanos);
+                            rows[0] += read;
+                            truncated[0] |= read >= MAX_ROWS;
+                        }
+                    } else {
+                        int count = stmt.getUpdateCount();
+                        if (count == -1) {
+                            break;
+                        }
+                        counts.add((long) count);
+                    }
+                    isResultSet = stmt.getMoreResults();
+                }
+                return null;
+            });
+            if (streamingTransaction) {
+                conn.commit();
+            }
+            if (firstRowNanos[0] >= 0) {
+                Metrics.record("console.first_row", dbType, null, firstRowNanos[0]);
+            }
+            return new StatementResult(number, sql, rows[0], counts, truncated[0],
+                    firstRowNanos[0], System.nanoTime() - started, null);
+        } catch (SQLException e) {
+            if (streamingTransaction) {
+                rollbackQuietly(conn);
+            }
+            String error = isCancelled() ? "Cancelled" : e.getMessage();
+            return new StatementResult(number, sql, rows[0], counts, truncated[0],
+                    firstRowNanos[0], System.nanoTime() - started, error);
+        } finally {
+            statement = null;
+            if (streamingTransaction) {
+                restoreAutoCommit(conn);
+            }
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String keyword = firstWords(sql, 1);
+        return keyword.equals("SELECT") || keyword.equals("WITH") || keyword.equals("VALUES") || keyword.equals("TABLE");
+    }
+
+    //follows the script's own transaction control, ROLLBACK TO SAVEPOINT doesn't end the transaction
+    private void trackTransaction(String sql) {
+        String words = firstWords(sql, 2);
+        if (words.equals("BEGIN") || words.startsWith("BEGIN ") || words.equals("START TRANSACTION")) {
+            userTransaction = true;
+        } else if (words.startsWith("COMMIT") || words.startsWith("END") || words.startsWith("ABORT")
+                || (words.startsWith("ROLLBACK") && !words.equals("ROLLBACK TO"))) {
+            userTransaction = false;
+        }
+    }
+
+    //the first count keywords, upper case and separated by one space
+    private static String firstWords(String sql, int count) {
+        String[] words = SqlScript.stripLeadingComments(sql).toUpperCase().split("[\\s;(]+", count + 1);
+        return String.join(" ", Arrays.asList(words).subList(0, Math.min(count, words.length)));
+    }
+
+    //a transaction the script left open (or autocommit turned off with SET) must not reach the next borrower,
+    //the pool only rolls back connections that have JDBC autocommit off
+    private void endTransaction(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                return;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                //outside a transaction this is a no-op (a warning on PostgreSQL)
+                stmt.execute("ROLLBACK");
+            }
+            userTransaction = false;
+        } catch (SQLException e) {
+            System.err.println("Could not roll back the console transaction: " + e.getMessage());
+        }
+    }
+
+    private static void restoreAutoCommit(Connection conn) {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            //connection is broken, the pool drops it on release
+        }
+    }
+
+    //reads one result set in chunks, returns the number of rows
+    private long readResultSet(int number, String sql, ResultSet rs, long started, long[] firstRowNanos) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<String> columnNames = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            //the label is the alias when there is one
+            columnNames.add(metaData.getColumnLabel(i));
+        }
+        ColumnarRowStore store = new ColumnarRowStore(columnNames, ColumnarRowStore.kindsFor(metaData));
+        RowStoreList rows = new RowStoreList(store);
+        Platform.runLater(() -> output.resultSet(number, sql, rows));
+
+        ColumnarRowStore.BatchBuilder chunk = new ColumnarRowStore.BatchBuilder(store.getKindsCopy(), CHUNK_SIZE);
+        long lastFlush = System.nanoTime();
+        long rowCount = 0;
+        while (!isCancelled() && rs.next()) {
+            if (firstRowNanos[0] < 0) {
+                firstRowNanos[0] = System.nanoTime() - started;
+            }
+            chunk.appendRow(rs);
+            rowCount++;
+            if (chunk.getRowCount() >= CHUNK_SIZE || System.nanoTime() - lastFlush > CHUNK_MILLIS * 1_000_000) {
+                ColumnarRowStore.Batch batch = chunk.build(false);
+                Platform.runLater(() -> rows.appendBatch(batch));
+                chunk = chunk.newBuilder(CHUNK_SIZE);
+                lastFlush = System.nanoTime();
+                updateMessage(String.format("%,d rows fetched...", rowCount));
+            }
+        }
+        ColumnarRowStore.Batch batch = chunk.build(false);
+        Platform.runLater(() -> rows.appendBatch(batch));
+        return rowCount;
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            //connection is broken, the pool drops it on release
+        }
+    }
+
+    private static String summary(List<StatementResult> results) {
+        int failed = 0;
+        long total = 0;
+        for (StatementResult result : results) {
+            if (result.getError() != null) {
+                failed++;
+            }
+            total += result.getTotalNanos();
+        }
+        String text = results.size() == 1
+                ? results.get(0).describe()
+                : String.format("%d statements in %,.0f ms", results.size(), total / 1_000_000.0);
+        return failed == 0 ? text : text + ", " + failed + " failed";
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Statement stmt = statement;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("Could not cancel statement: " + e.getMessage());
+            }
+        }
+        return cancelled;
+    }
+
+    //outcome and timings of one statement
+    public static class StatementResult {
+        private final int number;
+        private final String sql;
+        private final long rows;
+        private final List<Long> updateCounts;
+        private final boolean truncated;
+        private final long firstRowNanos;
+        private final long totalNanos;
+        private final String error;
+
+        public StatementResult(int number, String sql, long rows, List<Long> updateCounts, boolean truncated,
+                               long firstRowNanos, long totalNanos, String error) {
+            this.number = number;
+            this.sql = sql;
+            this.rows = rows;
+            this.updateCounts = updateCounts;
+            this.truncated = truncated;
+            this.firstRowNanos = firstRowNanos;
+            this.totalNanos = totalNanos;
+            this.error = error;
+        }
+
+        public int getNumber() { return number; }
+        public String getSql() { return sql; }
+        public long getRows() { return rows; }
+        public List<Long> getUpdateCounts() { return updateCounts; }
+        public boolean isTruncated() { return truncated; }
+        //-1 when no row came back
+        public long getFirstRowNanos() { return firstRowNanos; }
+        public long getTotalNanos() { return totalNanos; }
+        public String getError() { return error; }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            if (error != null) {
+                sb.append("Error: ").append(error);
+            } else if (rows > 0 || updateCounts.isEmpty()) {
+                sb.append(String.format("%,d rows", rows));
+                if (truncated) {
+                    sb.append(String.format(" (first %,d kept)", MAX_ROWS));
+                }
+            } else {
+                long affected = 0;
+                for (long count : updateCounts) {
+                    affected += count;
+                }
+                sb.append(String.format("%,d rows affected", affected));
+            }
+            if (firstRowNanos >= 0) {
+                sb.append(String.format(", first row %,.1f ms", firstRowNanos / 1_000_000.0));
+            }
+            sb.append(String.format(", total %,.1f ms", totalNanos / 1_000_000.0));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.polydb;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/*
+ * Window holding the SQL console tabs, one per database to start with; "New Tab" opens another
+ * console on any database. Closing the window cancels whatever is still running.
+ */
+public class SqlConsoleWindow {
+
+    private static Stage stage;
+    private static TabPane tabs;
+
+    private SqlConsoleWindow() {
+    }
+
+    //opens the window, or brings it to the front with the tab of dbType selected
+    public static void show(Window owner, String dbType) {
+        if (stage == null) {
+            create(owner);
+        }
+        if (dbType != null) {
+            for (Tab tab : tabs.getTabs()) {
+                if (((SqlConsoleTab) tab).getDbType().equals(dbType)) {
+                    tabs.getSelectionModel().select(tab);
+                    break;
+                }
+            }
+        }
+        stage.show();
+        stage.toFront();
+    }
+
+    private static void create(Window owner) {
+        tabs = new TabPane();
+        for (String dbType : SqlDialects.names()) {
+            tabs.getTabs().add(new SqlConsoleTab(dbType));
+        }
+
+        ComboBox<String> databases = new ComboBox<>();
+        databases.getItems().addAll(SqlDialects.names());
+        databases.getSelectionModel().selectFirst();
+        Button newTab = new Button("New Tab");
+        newTab.setStyle("-fx-font-weight: bold;");
+        newTab.setOnAction(e -> {
+            SqlConsoleTab tab = new SqlConsoleTab(databases.getValue());
+            tabs.getTabs().add(tab);
+            tabs.getSelectionModel().select(tab);
+        });
+        Label label = new Label("Database:");
+        label.setStyle("-fx-font-weight: bold;");
+
+        HBox top = new HBox(10, label, databases, newTab);
+        top.setAlignment(Pos.CENTER_LEFT);
+        top.setPadding(new Insets(10));
+        top.setStyle("-fx-background-color: #e0e0e0;");
+
+        BorderPane root = new BorderPane(tabs);
+        root.setTop(top);
+
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("PolyDB SQL Console");
+        stage.setScene(new Scene(root, 1100, 700));
+        stage.setOnHidden(e -> {
+            for (Tab tab : tabs.getTabs()) {
+                ((SqlConsoleTab) tab).cancel();
+            }
+            stage = null;
+            tabs = null;
+        });
+    }
+}
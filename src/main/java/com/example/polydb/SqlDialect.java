@@ -0,0 +1,255 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+ * Everything that differs between the backends: identifier quoting and case, literals,
+ * paging syntax, DDL, driver settings and which fast paths the server offers.
+ * Implementations are found with ServiceLoader (see module-info.java and
+ * META-INF/services), so a new backend is one new class plus one line in each.
+ * Look dialects up with SqlDialects.forType().
+ */
+public interface SqlDialect {
+
+    //fast paths a backend may offer, callers check supports() and fall back to plain JDBC otherwise
+    enum Capability {
+        //INSERT ... VALUES (...), (...), ... in one statement
+        MULTI_ROW_VALUES,
+        //INSERT/UPDATE ... RETURNING (or RETURNING INTO) for generated keys
+        RETURNING,
+        //bulk load protocol (PostgreSQL COPY FROM STDIN)
+        COPY,
+        //ON CONFLICT / ON DUPLICATE KEY / MERGE
+        UPSERT,
+        //TABLESAMPLE / SAMPLE for estimates on big tables
+        TABLESAMPLE,
+        //ADD COLUMN with a default is a metadata-only change
+        INSTANT_DDL
+    }
+
+    //the database type used everywhere else, e.g. "PostgreSQL", "MySQL", "OracleDB"
+    String getName();
+
+    Set<Capability> getCapabilities();
+
+    default boolean supports(Capability capability) {
+        return getCapabilities().contains(capability);
+    }
+
+    //JDBC driver class, loaded the first time a pool for this dialect opens a connection
+    String getDriverClassName();
+
+    //where the built-in connection pool connects to
+    String getDefaultUrl();
+
+    String getDefaultUser();
+
+    String getDefaultPassword();
+
+    //driver options set on every pooled connection
+    default void configureDriver(Properties props) {
+    }
+
+    //driver options that bound TCP connect and login, seconds > 0 (see OperationTimeouts.Kind.CONNECT)
+    default void configureConnectTimeout(Properties props, int seconds) {
+    }
+
+    //how the server stores an unquoted name (Oracle folds to upper case)
+    default String normalizeName(String name) {
+        return name;
+    }
+
+    //quoted identifier, after normalizeName()
+    String quoteIdentifier(String name);
+
+    String booleanLiteral(boolean value);
+
+    //prompt shown in row dialogs for boolean columns
+    default String booleanInputHint() {
+        return "Enter 1/0";
+    }
+
+    //literal for a YYYY-MM-DD date
+    default String dateLiteral(String isoDate) {
+        return "'" + isoDate + "'";
+    }
+
+    //LIMIT / FETCH FIRST clause with a leading space, offset 0 means none
+    String limitClause(int limit, long offset);
+
+    //ORDER BY term for a paging key column. KeysetPager treats NULL as larger than any value, so NULLs
+    //come last ascending and first descending, which is also the index order on PostgreSQL and Oracle
+    default String orderByTerm(String quotedColumn, boolean descending, boolean nullable) {
+        String term = quotedColumn + (descending ? " DESC" : " ASC");
+        return nullable ? term + (descending ? " NULLS FIRST" : " NULLS LAST") : term;
+    }
+
+    //appended to a DELETE that matches a row without a primary key, so duplicates are not all removed
+    default String singleRowDeleteSuffix() {
+        return "";
+    }
+
+    //the INSERT made to hand the stored row back as a result set, defaults and generated values included;
+    //null when the driver can only return generated keys (then the row is read back by primary key)
+    default String insertReturningRowSql(String insertSql) {
+        return null;
+    }
+
+    //script splitting (SqlScript): a line holding only '/' ends a PL/SQL block, whose ';' don't end it
+    default boolean slashEndsBlocks() {
+        return false;
+    }
+
+    //script splitting (SqlScript): $tag$ ... $tag$ is quoted text, function bodies and DO blocks are written that way
+    default boolean dollarQuotes() {
+        return false;
+    }
+
+    //put the connection in the state the driver needs to stream a large result (see StreamingFetch)
+    default void prepareForStreaming(Connection conn) throws SQLException {
+    }
+
+    //user tables for the table list with their catalog statistics, ideally in one query;
+    //this default only has the names from DatabaseMetaData.getTables
+    default List<DatabaseTable> discoverTables(Connection conn) throws SQLException {
+        List<DatabaseTable> tables = new ArrayList<>();
+        for (String tableName : listTables(conn)) {
+            tables.add(new DatabaseTable(tableName, getName()));
+        }
+        return tables;
+    }
+
+    //user table names from DatabaseMetaData, for dialects without a catalog query
+    default List<String> listTables(Connection conn) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                tables.add(rs.getString("TABLE_NAME"));
+            }
+        }
+        return tables;
+    }
+
+    //a table row of a discovery query: name, estimated rows, size in bytes, last analyzed; negative or NULL = unknown
+    default DatabaseTable discoveredTable(ResultSet rs) throws SQLException {
+        DatabaseTable table = new DatabaseTable(rs.getString(1), getName());
+        long rows = rs.getLong(2);
+        table.setEstimatedRows(rs.wasNull() || rows < 0 ? null : rows);
+        long bytes = rs.getLong(3);
+        table.setSizeBytes(rs.wasNull() || bytes < 0 ? null : bytes);
+        Timestamp analyzed = rs.getTimestamp(4);
+        table.setLastAnalyzed(analyzed == null ? null : analyzed.toLocalDateTime());
+        return table;
+    }
+
+    //the starter table created by "Add Table": an id key and a name column
+    String createTableSql(String tableName);
+
+    //CREATE TABLE for a copy of a table from any backend (TableCopier): same columns with columnType(), same key
+    default String createTableSql(String tableName, List<TableSchema.ColumnInfo> columns, List<String> primaryKeys) {
+        StringBuilder sql = new StringBuilder("CREATE TABLE ").append(quoteIdentifier(tableName)).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            TableSchema.ColumnInfo column = columns.get(i);
+            if (i > 0) sql.append(", ");
+            sql.append(quoteIdentifier(column.getName())).append(" ").append(columnType(column));
+            if (!column.isNullable()) {
+                sql.append(" NOT NULL");
+            }
+        }
+        if (!primaryKeys.isEmpty()) {
+            sql.append(", PRIMARY KEY (");
+            for (int i = 0; i < primaryKeys.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(quoteIdentifier(primaryKeys.get(i)));
+            }
+            sql.append(")");
+        }
+        return sql.append(")").toString();
+    }
+
+    //this backend's type for a column read from any backend, from its java.sql.Types, size and scale;
+    //the default is standard SQL, dialects override what they spell differently
+    default String columnType(TableSchema.ColumnInfo column) {
+        int size = column.getSize();
+        switch (column.getJdbcType()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return "BOOLEAN";
+            case Types.TINYINT:
+            case Types.SMALLINT:
+                return "SMALLINT";
+            case Types.INTEGER:
+                return "INTEGER";
+            case Types.BIGINT:
+                return "BIGINT";
+            case Types.REAL:
+                return "REAL";
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return "DOUBLE PRECISION";
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                //no declared precision (Oracle NUMBER) stays unconstrained
+                return size > 0 && size <= 1000
+                        ? "NUMERIC(" + size + ", " + Math.max(0, column.getDecimalDigits()) + ")"
+                        : "NUMERIC";
+            case Types.CHAR:
+            case Types.NCHAR:
+                return size > 0 ? "CHAR(" + size + ")" : "CHAR(1)";
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                //PostgreSQL reports TEXT as a VARCHAR of 2^31-1
+                return size > 0 && size <= 10_485_760 ? "VARCHAR(" + size + ")" : "TEXT";
+            case Types.DATE:
+                return "DATE";
+            case Types.TIME:
+                return "TIME";
+            case Types.TIMESTAMP:
+                return "TIMESTAMP";
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return "TIMESTAMP WITH TIME ZONE";
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return "BLOB";
+            default:
+                //CLOB, JSON, UUID, XML, ... travel as text
+                return "TEXT";
+        }
+    }
+
+    String dropTableSql(String tableName);
+
+    default String renameTableSql(String oldName, String newName) {
+        return "ALTER TABLE " + quoteIdentifier(oldName) + " RENAME TO " + quoteIdentifier(newName);
+    }
+
+    default String addColumnSql(String tableName, String columnName, String type, String defaultLiteral) {
+        return "ALTER TABLE " + quoteIdentifier(tableName) + " ADD COLUMN " + quoteIdentifier(columnName)
+                + " " + type + " DEFAULT " + defaultLiteral;
+    }
+
+    //ADD COLUMN asking for the metadata-only path where that has to be requested explicitly,
+    //only used when supports(INSTANT_DDL); callers retry with addColumnSql() if the server refuses
+    default String instantAddColumnSql(String tableName, String columnName, String type, String defaultLiteral) {
+        return addColumnSql(tableName, columnName, type, defaultLiteral);
+    }
+
+    default String dropColumnSql(String tableName, String columnName) {
+        return "ALTER TABLE " + quoteIdentifier(tableName) + " DROP COLUMN " + quoteIdentifier(columnName);
+    }
+
+    default String renameColumnSql(String tableName, String oldName, String newName) {
+        return "ALTER TABLE " + quoteIdentifier(tableName) + " RENAME COLUMN " + quoteIdentifier(oldName)
+                + " TO " + quoteIdentifier(newName);
+    }
+}
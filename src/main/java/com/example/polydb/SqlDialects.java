@@ -0,0 +1,51 @@
+package com.example.polydb;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/*
+ * The SqlDialect implementations found by ServiceLoader, by database type name.
+ * Loaded once; the order is the order the providers are declared in.
+ */
+public final class SqlDialects {
+
+    private static final Map<String, SqlDialect> DIALECTS = load();
+
+    private SqlDialects() {
+    }
+
+    private static Map<String, SqlDialect> load() {
+        Map<String, SqlDialect> dialects = new LinkedHashMap<>();
+        for (SqlDialect dialect : ServiceLoader.load(SqlDialect.class, SqlDialect.class.getClassLoader())) {
+            dialects.putIfAbsent(dialect.getName(), dialect);
+        }
+        return Collections.unmodifiableMap(dialects);
+    }
+
+    public static SqlDialect forType(String dbType) throws SQLException {
+        SqlDialect dialect = dbType == null ? null : DIALECTS.get(dbType);
+        if (dialect == null) {
+            throw new SQLException("Unknown database type");
+        }
+        return dialect;
+    }
+
+    //for callers that already hold a type that came from a dialect (a DatabaseTable, a TableSchema)
+    public static SqlDialect of(String dbType) {
+        SqlDialect dialect = dbType == null ? null : DIALECTS.get(dbType);
+        if (dialect == null) {
+            throw new IllegalArgumentException("Unknown database type: " + dbType);
+        }
+        return dialect;
+    }
+
+    //"PostgreSQL", "MySQL", "OracleDB", ...
+    public static List<String> names() {
+        return new ArrayList<>(DIALECTS.keySet());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.polydb;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Statements run in the SQL console, newest first, kept across sessions in ~/.polydb-sql-history.
+ * One line per entry: time, database type and statement separated by tabs, with backslash,
+ * tab and newline escaped. Only the FX thread touches it.
+ */
+public final class SqlHistory {
+
+    private static final int MAX_ENTRIES = 500;
+    private static final Path FILE = Path.of(System.getProperty("user.home"), ".polydb-sql-history");
+
+    private static List<Entry> entries;
+
+    private SqlHistory() {
+    }
+
+    //entries for one database type, newest first
+    public static List<Entry> get(String dbType) {
+        List<Entry> matching = new ArrayList<>();
+        for (Entry entry : all()) {
+            if (entry.getDbType().equals(dbType)) {
+                matching.add(entry);
+            }
+        }
+        return matching;
+    }
+
+    public static void add(String dbType, String sql) {
+        String trimmed = sql.strip();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        List<Entry> history = all();
+        //running the same thing again moves it to the top instead of repeating it
+        history.removeIf(entry -> entry.getDbType().equals(dbType) && entry.getSql().equals(trimmed));
+        history.add(0, new Entry(LocalDateTime.now().withNano(0), dbType, trimmed));
+        if (history.size() > MAX_ENTRIES) {
+            history.subList(MAX_ENTRIES, history.size()).clear();
+        }
+        save(history);
+    }
+
+    private static List<Entry> all() {
+        if (entries == null) {
+            entries = load();
+        }
+        return entries;
+    }
+
+    private static List<Entry> load() {
+        List<Entry> loaded = new ArrayList<>();
+        if (!Files.exists(FILE)) {
+            return loaded;
+        }
+        try {
+            for (String line : Files.readAllLines(FILE, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length == 3) {
+                    loaded.add(new Entry(LocalDateTime.parse(parts[0]), parts[1], unescape(parts[2])));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read SQL history: " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    private static void save(List<Entry> history) {
+        try (BufferedWriter writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Entry entry : history) {
+                writer.write(entry.getTime() + "\t" + entry.getDbType() + "\t" + escape(entry.getSql()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save SQL history: " + e.getMessage());
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\r", "").replace("\n", "\\n");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static class Entry {
+        private final LocalDateTime time;
+        private final String dbType;
+        private final String sql;
+
+        public Entry(LocalDateTime time, String dbType, String sql) {
+            this.time = time;
+            this.dbType = dbType;
+            this.sql = sql;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public String getDbType() { return dbType; }
+        public String getSql() { return sql; }
+
+        //one line for the history list
+        @Override
+        public String toString() {
+            String oneLine = sql.replaceAll("\\s+", " ");
+            return oneLine.length() > 120 ? oneLine.substring(0, 117) + "..." : oneLine;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.polydb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Splits a SQL script into statements. A statement ends at a ';' outside quotes and comments.
+ * What else counts as quoted depends on the dialect: on Oracle a PL/SQL block (which contains
+ * ';' itself) runs until a line holding only '/', on PostgreSQL $tag$ ... $tag$ is quoted text.
+ * Comments are kept inside the statement text, the drivers accept them.
+ */
+public final class SqlScript {
+
+    private SqlScript() {
+    }
+
+    public static List<String> split(String script, SqlDialect dialect) {
+        boolean slashBlocks = dialect.slashEndsBlocks();
+        boolean dollarQuotes = dialect.dollarQuotes();
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int length = script.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = script.charAt(i);
+
+            if (c == '\'' || c == '"' || c == '`') {
+                //quoted text or name, a doubled quote is an escaped one
+                int end = i + 1;
+                while (end < length) {
+                    if (script.charAt(end) == c) {
+                        if (end + 1 < length && script.charAt(end + 1) == c) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, length);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                int end = script.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '$' && dollarQuotes && dollarTagEnd(script, i) > 0) {
+                //everything up to the same $tag$ again, ';' included
+                String tag = script.substring(i, dollarTagEnd(script, i));
+                int end = script.indexOf(tag, i + tag.length());
+                end = end < 0 ? length : end + tag.length();
+                current.append(script, i, end);
+                i = end;
+            } else if (c == ';' && !(slashBlocks && isPlsqlBlock(current))) {
+                add(statements, current);
+                i++;
+            } else if (c == '/' && slashBlocks && isAloneOnLine(script, i)) {
+                add(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        add(statements, current);
+        return statements;
+    }
+
+    //Oracle: BEGIN/DECLARE/CREATE ... PROCEDURE etc. run until the '/' line
+    private static boolean isPlsqlBlock(StringBuilder statement) {
+        String head = stripLeadingComments(statement.toString()).toUpperCase();
+        if (head.startsWith("BEGIN") || head.startsWith("DECLARE")) {
+            return true;
+        }
+        if (head.startsWith("CREATE")) {
+            String normalized = head.replaceAll("\\s+", " ");
+            return normalized.matches("CREATE (OR REPLACE )?(EDITIONABLE |NONEDITIONABLE )?"
+                    + "(PROCEDURE|FUNCTION|PACKAGE|TRIGGER|TYPE BODY)\\b.*");
+        }
+        return false;
+    }
+
+    //end of the opening $tag$ (or $$) at index, -1 if there is none; $1 parameters and names with '$' are not tags
+    private static int dollarTagEnd(String script, int index) {
+        if (index > 0) {
+            char before = script.charAt(index - 1);
+            if (Character.isLetterOrDigit(before) || before == '_' || before == '$') {
+                return -1;
+            }
+        }
+        int end = index + 1;
+        while (end < script.length()) {
+            char c = script.charAt(end);
+            if (c == '$') {
+                return end + 1;
+            }
+            boolean tagChar = Character.isLetter(c) || c == '_' || (end > index + 1 && Character.isDigit(c));
+            if (!tagChar) {
+                return -1;
+            }
+            end++;
+        }
+        return -1;
+    }
+
+    static String stripLeadingComments(String text) {
+        String s = text.strip();
+        while (true) {
+            if (s.startsWith("--")) {
+                int end = s.indexOf('\n');
+                s = end < 0 ? "" : s.substring(end + 1).strip();
+            } else if (s.startsWith("/*")) {
+                int end = s.indexOf("*/");
+                s = end < 0 ? "" : s.substring(end + 2).strip();
+            } else {
+                return s;
+            }
+        }
+    }
+
+    private static boolean isAloneOnLine(String script, int index) {
+        int lineStart = script.lastIndexOf('\n', index - 1) + 1;
+        int lineEnd = script.indexOf('\n', index);
+        lineEnd = lineEnd < 0 ? script.length() : lineEnd;
+        return script.substring(lineStart, lineEnd).strip().equals("/");
+    }
+
+    private static void add(List<String> statements, StringBuilder current) {
+        String statement = current.toString().strip();
+        if (!stripLeadingComments(statement).isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+}
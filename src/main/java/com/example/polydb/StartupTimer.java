@@ -0,0 +1,85 @@
+package com.example.polydb;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Wall-clock milestones of one launch, measured from JVM start (not from main(), so class
+ * loading and JavaFX init count too). Printed once the table list is usable:
+ *   first frame    - login window painted
+ *   table screen   - table management screen shown (after login)
+ *   first tables   - first database answered
+ *   table list     - every database answered or timed out
+ * Run with -Dpolydb.startup.benchmark=true to open the table screen directly, print the timings
+ * as one JSON line and exit, for timing cold starts in a loop (e.g. with and without the CDS archive).
+ */
+public final class StartupTimer {
+
+    public static final boolean BENCHMARK = Boolean.getBoolean("polydb.startup.benchmark");
+
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    //event -> ms since JVM start, first occurrence only
+    private static final Map<String, Long> MARKS = new LinkedHashMap<>();
+    //event -> how long it took, for things that are not on the main timeline (driver loading)
+    private static final Map<String, Long> DURATIONS = new LinkedHashMap<>();
+
+    private static boolean reported = false;
+
+    private StartupTimer() {
+    }
+
+    public static synchronized void mark(String event) {
+        MARKS.putIfAbsent(event, System.currentTimeMillis() - JVM_START_MILLIS);
+    }
+
+    public static synchronized void mark(String event, long tookMillis) {
+        DURATIONS.putIfAbsent(event, tookMillis);
+    }
+
+    public static synchronized Long get(String event) {
+        return MARKS.get(event);
+    }
+
+    //only the first call returns something, later refreshes are not startup
+    public static synchronized String report() {
+        if (reported) {
+            return null;
+        }
+        reported = true;
+        StringBuilder sb = new StringBuilder("Startup:");
+        Long screen = MARKS.get("table screen");
+        for (Map.Entry<String, Long> mark : MARKS.entrySet()) {
+            sb.append(' ').append(mark.getKey()).append(' ').append(mark.getValue()).append(" ms");
+            //time spent on the login screen is the user's, show the table list relative to it too
+            if (screen != null && mark.getValue() > screen && !mark.getKey().equals("table screen")) {
+                sb.append(" (+").append(mark.getValue() - screen).append(')');
+            }
+            sb.append(',');
+        }
+        for (Map.Entry<String, Long> duration : DURATIONS.entrySet()) {
+            sb.append(' ').append(duration.getKey()).append(" in ").append(duration.getValue()).append(" ms,");
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    public static synchronized String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Long> mark : MARKS.entrySet()) {
+            TableExporter.appendJsonString(sb, mark.getKey());
+            sb.append(':').append(mark.getValue()).append(',');
+        }
+        for (Map.Entry<String, Long> duration : DURATIONS.entrySet()) {
+            TableExporter.appendJsonString(sb, duration.getKey());
+            sb.append(':').append(duration.getValue()).append(',');
+        }
+        if (sb.length() > 1) {
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.append('}').toString();
+    }
+}
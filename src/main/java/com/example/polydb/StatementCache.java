@@ -0,0 +1,161 @@
+package com.example.polydb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Prepared statements of one physical connection, keyed by SQL text.
+ * Closing a statement handed out by the cache only clears its parameters, so the next
+ * prepareStatement() with the same SQL reuses the server-side parsed statement.
+ * Only used from the thread that currently holds the pooled connection.
+ */
+public class StatementCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+
+    public StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public PreparedStatement prepare(Connection physical, Connection owner, String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            hits++;
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        misses++;
+
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (cached != null) {
+            //same SQL already open further up the call stack, hand out a plain statement
+            return statement;
+        }
+
+        cached = new CachedStatement(statement, owner);
+        cached.inUse = true;
+        statements.put(sql, cached);
+        evictIfNeeded();
+        return cached.proxy;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedStatement> it = statements.values().iterator(); //least recently used first
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            if (!eldest.inUse) {
+                it.remove();
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    //the connection went back to the pool, statements the caller forgot to close become free again
+    public void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.reset();
+            }
+        }
+    }
+
+    public void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.closeQuietly();
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private final PreparedStatement proxy;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement statement, Connection owner) throws SQLException {
+            this.statement = statement;
+            this.owner = owner;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        //back to the state a freshly prepared statement would be in
+        void reset() {
+            inUse = false;
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                if (statement.getFetchSize() != defaultFetchSize) statement.setFetchSize(defaultFetchSize);
+                if (statement.getMaxRows() != defaultMaxRows) statement.setMaxRows(defaultMaxRows);
+                if (statement.getQueryTimeout() != defaultQueryTimeout) statement.setQueryTimeout(defaultQueryTimeout);
+            } catch (SQLException e) {
+                //it will fail again on next use and be replaced then
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                //already closed with the connection
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        reset();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
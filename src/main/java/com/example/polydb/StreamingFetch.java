@@ -0,0 +1,221 @@
+package com.example.polydb;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Read-side statement setup so the driver streams rows instead of buffering the whole result:
+ *  - PostgreSQL only uses a server cursor with autocommit off and a fetch size
+ *  - MySQL Connector/J uses a server cursor when useCursorFetch is on (set on the pool) and the fetch size is > 0
+ *  - Oracle streams anyway, but only fetches 10 rows per round trip unless told otherwise
+ * The fetch size aims at about TARGET_FETCH_BYTES per round trip, first from the declared column
+ * sizes, then from the row width measured while reading (remembered per table for the next query).
+ */
+public final class StreamingFetch {
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private static final long TARGET_FETCH_BYTES = 1024 * 1024;
+    private static final int MIN_FETCH_SIZE = 100;
+    private static final int MAX_FETCH_SIZE = 20_000;
+    //rows measured before the fetch size is adjusted, after that one row in 64 is sampled
+    private static final int SAMPLE_ROWS = 200;
+
+    //average measured row width per table, in bytes
+    private static final Map<String, Long> ROW_WIDTHS = new ConcurrentHashMap<>();
+
+    private StreamingFetch() {
+    }
+
+    //forward-only, read-only statement for a large read; the connection must not be shared meanwhile
+    public static PreparedStatement prepare(Connection conn, String dbType, String sql, int fetchSize) throws SQLException {
+        //e.g. PostgreSQL only streams inside a transaction
+        SqlDialects.forType(dbType).prepareForStreaming(conn);
+        //the default result set type is already forward-only/read-only, and this keeps the statement cache
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setFetchSize(fetchSize);
+        return stmt;
+    }
+
+    //rows per round trip for a table: measured width if we read it before, declared column sizes otherwise
+    public static int initialFetchSize(TableSchema schema) {
+        Long measured = ROW_WIDTHS.get(widthKey(schema));
+        return fetchSizeFor(measured != null ? measured : estimateRowBytes(schema));
+    }
+
+    public static int fetchSizeFor(long rowBytes) {
+        long rows = TARGET_FETCH_BYTES / Math.max(1, rowBytes);
+        return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, rows));
+    }
+
+    //rough row width from the declared column types, capped so a VARCHAR(4000) of short names doesn't dominate
+    public static long estimateRowBytes(TableSchema schema) {
+        long bytes = 0;
+        for (TableSchema.ColumnInfo column : schema.getColumns()) {
+            switch (column.getJdbcType()) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                case Types.TINYINT:
+                    bytes += 1;
+                    break;
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.REAL:
+                    bytes += 4;
+                    break;
+                case Types.BIGINT:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                    bytes += 8;
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    bytes += 12;
+                    break;
+                default:
+                    bytes += column.getSize() > 0 ? Math.min(column.getSize(), 256) : 64;
+            }
+        }
+        return Math.max(1, bytes);
+    }
+
+    public static Meter meter(ResultSet rs, TableSchema schema, int fetchSize) {
+        return new Meter(rs, widthKey(schema), fetchSize);
+    }
+
+    //approximate size of the current row as sent over the wire
+    public static long measureRow(ResultSet rs, int columnCount) throws SQLException {
+        long bytes = 0;
+        for (int i = 1; i <= columnCount; i++) {
+            Object value = rs.getObject(i);
+            if (value == null) {
+                bytes += 1;
+            } else if (value instanceof String) {
+                bytes += ((String) value).length();
+            } else if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length;
+            } else if (value instanceof BigDecimal) {
+                bytes += ((BigDecimal) value).precision() / 2 + 2;
+            } else if (value instanceof Boolean) {
+                bytes += 1;
+            } else if (value instanceof Number || value instanceof java.util.Date) {
+                bytes += 8;
+            } else {
+                bytes += 16;
+            }
+        }
+        return bytes;
+    }
+
+    private static String widthKey(TableSchema schema) {
+        return schema.getDbType() + "/" + schema.getTableName();
+    }
+
+    /*
+     * Counts rows, bytes and fetch round trips of one result set and retunes its fetch size once
+     * enough rows have been measured. Round trips are counted from the fetch size, which is what
+     * the drivers use to size each fetch. Only used by the thread reading the result set.
+     */
+    public static class Meter {
+        private final ResultSet rs;
+        private final String widthKey;
+        private int fetchSize;
+        private int nextFetchSize;
+        private int rowsInFetch = 0;
+        private long rows = 0;
+        private long roundTrips = 0;
+        private long sampledRows = 0;
+        private long sampledBytes = 0;
+        private boolean tuned = false;
+
+        private Meter(ResultSet rs, String widthKey, int fetchSize) {
+            this.rs = rs;
+            this.widthKey = widthKey;
+            this.fetchSize = fetchSize;
+            this.nextFetchSize = fetchSize;
+        }
+
+        public boolean wantsSample() {
+            return rows < SAMPLE_ROWS || (rows & 63) == 0;
+        }
+
+        //call once per row read, with measureRow() when wantsSample() said so, -1 otherwise
+        public void rowRead(long measuredBytes) {
+            if (rowsInFetch == 0) {
+                roundTrips++;
+                fetchSize = nextFetchSize;
+            }
+            if (++rowsInFetch >= fetchSize) {
+                rowsInFetch = 0;
+            }
+            rows++;
+
+            if (measuredBytes >= 0) {
+                sampledRows++;
+                sampledBytes += measuredBytes;
+            }
+            if (!tuned && sampledRows >= SAMPLE_ROWS) {
+                tuned = true;
+                retune();
+            }
+        }
+
+        //the buffered rows still come from the old fetch, the new size applies from the next one
+        private void retune() {
+            long width = getAverageRowBytes();
+            ROW_WIDTHS.put(widthKey, width);
+            int better = fetchSizeFor(width);
+            if (better == fetchSize) {
+                return;
+            }
+            try {
+                rs.setFetchSize(better);
+                nextFetchSize = better;
+            } catch (SQLException e) {
+                //driver doesn't support changing it mid-stream, keep the current size
+            }
+        }
+
+        //remember the width for next time even if the result was too small to retune
+        public void finish() {
+            if (sampledRows > 0) {
+                ROW_WIDTHS.put(widthKey, getAverageRowBytes());
+            }
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getRoundTrips() {
+            return roundTrips;
+        }
+
+        public int getFetchSize() {
+            return nextFetchSize;
+        }
+
+        public long getAverageRowBytes() {
+            return sampledRows == 0 ? 0 : sampledBytes / sampledRows;
+        }
+
+        //estimated from the sampled rows
+        public long getBytes() {
+            return rows * getAverageRowBytes();
+        }
+
+        public String describe() {
+            return String.format("%,d fetches of up to %,d rows, ~%.1f MB", roundTrips, getFetchSize(),
+                    getBytes() / (1024.0 * 1024.0));
+        }
+    }
+}
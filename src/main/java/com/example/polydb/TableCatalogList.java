@@ -0,0 +1,113 @@
+package com.example.polydb;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * The table list behind the table screen. A refresh of one database goes through update(), which
+ * compares the new catalog with the rows already shown by (database, name) and applies only the
+ * difference as one change: tables still there keep their DatabaseTable (new statistics are set
+ * on it), so selection and scroll position survive, and the FilteredList/SortedList above only
+ * see the rows that really came or went. Must only be used from the FX thread.
+ */
+public class TableCatalogList extends ModifiableObservableListBase<DatabaseTable> {
+
+    private final List<DatabaseTable> tables = new ArrayList<>();
+
+    //make the rows of one database match a fresh discovery; returns how many rows were added or removed.
+    //A table renamed outside the application shows up as one removed and one added row: the catalogs
+    //give no identity to tell a rename from a drop and a create, so the selection does not follow it
+    public int update(String dbType, List<DatabaseTable> discovered) {
+        //a name can repeat (the same table in two PostgreSQL schemas), so match them up one by one
+        Map<String, ArrayDeque<DatabaseTable>> fresh = new LinkedHashMap<>();
+        for (DatabaseTable table : discovered) {
+            fresh.computeIfAbsent(table.getName(), name -> new ArrayDeque<>()).add(table);
+        }
+
+        Set<DatabaseTable> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DatabaseTable table : tables) {
+            if (!table.getType().equals(dbType)) {
+                continue;
+            }
+            ArrayDeque<DatabaseTable> sameName = fresh.get(table.getName());
+            DatabaseTable current = sameName == null ? null : sameName.poll();
+            if (current == null) {
+                gone.add(table);
+            } else {
+                copyStatistics(current, table);
+            }
+        }
+        //whatever was not matched is new, kept in discovery order
+        List<DatabaseTable> added = new ArrayList<>();
+        for (ArrayDeque<DatabaseTable> sameName : fresh.values()) {
+            added.addAll(sameName);
+        }
+
+        if (gone.isEmpty() && added.isEmpty()) {
+            return 0;
+        }
+
+        beginChange();
+        try {
+            //one compacting pass instead of a remove(i) per table, each removal reported at its index at that point
+            int kept = 0;
+            for (int i = 0; i < tables.size(); i++) {
+                DatabaseTable table = tables.get(i);
+                if (gone.contains(table)) {
+                    nextRemove(kept, table);
+                } else {
+                    tables.set(kept++, table);
+                }
+            }
+            tables.subList(kept, tables.size()).clear();
+
+            if (!added.isEmpty()) {
+                int from = tables.size();
+                tables.addAll(added);
+                nextAdd(from, tables.size());
+            }
+        } finally {
+            endChange();
+        }
+        return gone.size() + added.size();
+    }
+
+    private static void copyStatistics(DatabaseTable from, DatabaseTable to) {
+        to.setEstimatedRows(from.getEstimatedRows());
+        to.setSizeBytes(from.getSizeBytes());
+        to.setLastAnalyzed(from.getLastAnalyzed());
+    }
+
+    @Override
+    public DatabaseTable get(int index) {
+        return tables.get(index);
+    }
+
+    @Override
+    public int size() {
+        return tables.size();
+    }
+
+    @Override
+    protected void doAdd(int index, DatabaseTable element) {
+        tables.add(index, element);
+    }
+
+    @Override
+    protected DatabaseTable doSet(int index, DatabaseTable element) {
+        return tables.set(index, element);
+    }
+
+    @Override
+    protected DatabaseTable doRemove(int index) {
+        return tables.remove(index);
+    }
+}
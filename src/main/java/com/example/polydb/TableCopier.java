@@ -0,0 +1,778 @@
+package com.example.polydb;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copies the rows of one table into a table on any database type, creating the target first when
+ * asked (SqlDialect.createTableSql maps the column types). Columns are matched by name (the target
+ * may have extra columns, they get their defaults), and booleans are mapped to numbers and back
+ * so e.g. a PostgreSQL boolean lands in a MySQL TINYINT.
+ *
+ * A table with a single-column numeric primary key is split into key ranges of about commitEvery
+ * keys. Several workers take ranges off a shared queue; for each range a reader thread streams the
+ * rows (StreamingFetch) into a small bounded queue and the worker writes them out in batches, so
+ * reading and writing overlap and a slow target holds the reader back instead of filling memory.
+ * Every range is one target transaction and is recorded in a CopyCheckpoint once committed, so a
+ * copy that failed or was cancelled can resume with the ranges that are not in the target yet.
+ * Any other table is copied as one range, committed every commitEvery rows. Nothing records which
+ * of its rows are already in the target, so it can't be resumed and needs an empty target.
+ * Values are read with the getter that fits the source column type and bound as those objects;
+ * only a text source column going into a non-text target column is parsed (DmlEngine.convert).
+ */
+public class TableCopier {
+
+    public static final int DEFAULT_COMMIT_EVERY = 10_000;
+    public static final int DEFAULT_WORKERS = 4;
+    private static final int BATCH_SIZE = 1000;
+    //batches a reader may be ahead of its writer
+    private static final int QUEUE_BATCHES = 4;
+    //a sparse key gets wider ranges rather than millions of empty ones
+    private static final int MAX_CHUNKS = 100_000;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    //end of a range in the reader -> writer queue
+    private static final List<Object[]> END = new ArrayList<>();
+
+    private final String sourceType;
+    private final String sourceTable;
+    private final String targetType;
+    private final String targetTable;
+    private final int commitEvery;
+    private final JobProgress progress;
+
+    private int workers = DEFAULT_WORKERS;
+    private boolean createTarget = false;
+    private Path checkpointFile;
+    private boolean resume = false;
+
+    //set up by run() before the workers start
+    private List<TableSchema.ColumnInfo> sourceColumns;
+    private List<TableSchema.ColumnInfo> targetColumns;
+    private TableSchema sourceSchema;
+    private String selectSql;
+    private String insertSql;
+    private int fetchSize;
+    private Plan plan;
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled = false;
+    private volatile boolean failed = false;
+    private final AtomicLong rowsCopied = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicInteger chunksDone = new AtomicInteger();
+    private final AtomicLong lastProgress = new AtomicLong();
+    private long started;
+
+    public TableCopier(String sourceType, String sourceTable, String targetType, String targetTable,
+                       int commitEvery, JobProgress progress) {
+        this.sourceType = sourceType;
+        this.sourceTable = sourceTable;
+        this.targetType = targetType;
+        this.targetTable = targetTable;
+        this.commitEvery = commitEvery;
+        this.progress = progress;
+    }
+
+    //ranges copied at the same time; capped by the connection pools and the number of ranges
+    public void setWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    //create the target table from the source columns when it doesn't exist
+    public void setCreateTarget(boolean createTarget) {
+        this.createTarget = createTarget;
+    }
+
+    //where committed ranges are recorded, null for none; resume continues an earlier run from that file
+    public void setCheckpoint(Path checkpointFile, boolean resume) {
+        this.checkpointFile = checkpointFile;
+        this.resume = resume;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        cancelStatements();
+    }
+
+    private void cancelStatements() {
+        for (Statement stmt : statements) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("Could not cancel statement: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean stopped() {
+        return cancelled || failed;
+    }
+
+    public CopyResult run() throws SQLException, IOException {
+        started = System.nanoTime();
+        if (sourceType.equals(targetType) && sourceTable.equalsIgnoreCase(targetTable)) {
+            throw new SQLException("Source and target are the same table");
+        }
+
+        try (RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.BULK, sourceType,
+                "Copy " + sourceTable + " to " + targetType + "." + targetTable, null)) {
+            op.onCancel(this::cancel);
+
+            boolean created;
+            try (Connection source = ConnectionPool.forType(sourceType).getConnection();
+                 Connection target = ConnectionPool.forType(targetType).getConnection()) {
+                created = prepare(source, target);
+            }
+
+            CopyCheckpoint checkpoint = null;
+            if (plan.isRanged() && checkpointFile != null) {
+                String copyId = CopyCheckpoint.copyId(sourceType, sourceTable, targetType, targetTable);
+                //a freshly created target has none of the ranges an old checkpoint lists
+                checkpoint = resume && !created ? CopyCheckpoint.load(checkpointFile, copyId) : null;
+                if (checkpoint != null && checkpoint.getKeyColumn().equalsIgnoreCase(plan.keyColumn)) {
+                    plan = new Plan(plan.keyColumn, checkpoint.getStart(), checkpoint.getChunkKeys(), checkpoint.getChunks());
+                } else {
+                    if (checkpoint != null) {
+                        checkpoint.close();
+                    }
+                    checkpoint = CopyCheckpoint.create(checkpointFile, copyId, plan.keyColumn, plan.start,
+                            plan.chunkKeys, plan.chunkCount);
+                }
+            }
+
+            try {
+                Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+                for (int chunk = 0; chunk < plan.chunkCount; chunk++) {
+                    if (checkpoint == null || !checkpoint.isDone(chunk)) {
+                        pending.add(chunk);
+                    }
+                }
+                int skipped = plan.chunkCount - pending.size();
+                chunksDone.set(skipped);
+                int workerCount = Math.max(1, Math.min(Math.min(workers, pending.size()), connectionLimit()));
+
+                progress.message("Copying " + sourceType + "." + sourceTable + " to " + targetType + "." + targetTable
+                        + (plan.isRanged() ? " in " + plan.chunkCount + " key ranges, " + workerCount + " workers" : "")
+                        + (skipped > 0 ? ", resuming after " + skipped + " committed ranges" : "") + "...");
+                progress.progress(plan.isRanged() ? skipped : -1, plan.isRanged() ? plan.chunkCount : 1);
+
+                runWorkers(pending, workerCount, checkpoint);
+
+                if (checkpoint != null && !cancelled) {
+                    checkpoint.delete();
+                }
+                progress.message(progressText());
+                progress.progress(1, 1);
+                return new CopyResult(rowsCopied.get(), bytesRead.get(), (System.nanoTime() - started) / 1_000_000,
+                        workerCount, plan.chunkCount, skipped, cancelled);
+            } finally {
+                if (checkpoint != null) {
+                    checkpoint.close();
+                }
+            }
+        }
+    }
+
+    //schemas, target table, column mapping and key ranges; true when the target was created
+    private boolean prepare(Connection source, Connection target) throws SQLException {
+        sourceSchema = SchemaCache.get(source, sourceType, sourceTable);
+        if (sourceSchema.getColumns().isEmpty()) {
+            throw new SQLException("Table " + sourceTable + " not found in " + sourceType);
+        }
+        //it may have been created or dropped outside this application since it was cached
+        SchemaCache.invalidate(targetType, targetTable);
+        TableSchema targetSchema = SchemaCache.get(target, targetType, targetTable);
+        boolean created = false;
+        if (targetSchema.getColumns().isEmpty()) {
+            if (!createTarget) {
+                throw new SQLException("Table " + targetTable + " not found in " + targetType);
+            }
+            createTargetTable(target);
+            targetSchema = SchemaCache.get(target, targetType, targetTable);
+            created = true;
+        }
+
+        //columns both tables have, in source order
+        sourceColumns = new ArrayList<>();
+        targetColumns = new ArrayList<>();
+        for (TableSchema.ColumnInfo column : sourceSchema.getColumns()) {
+            TableSchema.ColumnInfo match = targetSchema.getColumn(column.getName());
+            if (match != null) {
+                sourceColumns.add(column);
+                targetColumns.add(match);
+            }
+        }
+        if (sourceColumns.isEmpty()) {
+            throw new SQLException("No column of " + sourceTable + " exists in " + targetTable);
+        }
+
+        DmlEngine sourceDml = new DmlEngine(sourceSchema);
+        DmlEngine targetDml = new DmlEngine(targetSchema);
+        selectSql = selectSql(sourceDml, sourceColumns);
+        insertSql = targetDml.insertSql(targetColumns);
+        fetchSize = StreamingFetch.initialFetchSize(sourceSchema);
+        plan = plan(source, sourceDml);
+
+        //one range commits as it goes but has no checkpoint, a second run would add the same rows again
+        if (!plan.isRanged()) {
+            if (resume) {
+                throw new SQLException("This copy can't be resumed: " + sourceTable
+                        + " is not split into key ranges (that needs a single numeric primary key). Empty "
+                        + targetTable + " and copy again.");
+            }
+            if (!created && hasRows(target, targetDml)) {
+                throw new SQLException(targetType + "." + targetTable + " already has rows, and " + sourceTable
+                        + " has no single numeric primary key to tell which of them were copied before. Empty it first.");
+            }
+        }
+        return created;
+    }
+
+    private boolean hasRows(Connection target, DmlEngine targetDml) throws SQLException {
+        String sql = "SELECT 1 FROM " + targetDml.quotedTable() + SqlDialects.forType(targetType).limitClause(1, 0);
+        try (Statement stmt = target.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next();
+        }
+    }
+
+    private void createTargetTable(Connection target) throws SQLException {
+        String sql = SqlDialects.forType(targetType).createTableSql(targetTable,
+                sourceSchema.getColumns(), sourceSchema.getPrimaryKeys());
+        progress.message("Creating " + targetType + "." + targetTable + "...");
+        try (Statement stmt = target.createStatement()) {
+            RunningOperations.executeDdl("ddl.create_table", targetType, targetTable, stmt, sql);
+        }
+        if (!target.getAutoCommit()) {
+            target.commit();
+        }
+        SchemaCache.invalidate(targetType, targetTable);
+    }
+
+    //key ranges from MIN/MAX of a single-column numeric primary key (an index lookup), else one range
+    private Plan plan(Connection source, DmlEngine sourceDml) throws SQLException {
+        List<String> keys = sourceSchema.getPrimaryKeys();
+        TableSchema.ColumnInfo key = keys.size() == 1 ? sourceSchema.getColumn(keys.get(0)) : null;
+        if (key == null || !isRangeKey(key)) {
+            return Plan.SINGLE;
+        }
+
+        String quotedKey = sourceDml.quoteColumn(key.getName());
+        String sql = "SELECT MIN(" + quotedKey + "), MAX(" + quotedKey + ") FROM " + sourceDml.quotedTable();
+        BigDecimal min;
+        BigDecimal max;
+        try (Statement stmt = source.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            min = rs.getBigDecimal(1);
+            max = rs.getBigDecimal(2);
+        }
+        //empty table, or keys so large that start + n * chunkKeys could overflow
+        BigDecimal limit = BigDecimal.valueOf(Long.MAX_VALUE / 4);
+        if (min == null || max == null || min.abs().compareTo(limit) > 0 || max.abs().compareTo(limit) > 0) {
+            return Plan.SINGLE;
+        }
+
+        long start = min.setScale(0, RoundingMode.FLOOR).longValue();
+        long end = max.setScale(0, RoundingMode.CEILING).longValue();
+        long keyCount = end - start + 1;
+        long chunkKeys = Math.max(commitEvery, (keyCount + MAX_CHUNKS - 1) / MAX_CHUNKS);
+        int chunkCount = (int) ((keyCount + chunkKeys - 1) / chunkKeys);
+        return new Plan(key.getName(), start, chunkKeys, chunkCount);
+    }
+
+    private static boolean isRangeKey(TableSchema.ColumnInfo key) {
+        switch (key.getJdbcType()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                //Oracle NUMBER without precision reports a negative scale, ranges still cover every value
+                return key.getDecimalDigits() <= 0;
+            default:
+                return false;
+        }
+    }
+
+    //each worker holds one connection of each pool; leave one of each to the rest of the application
+    private int connectionLimit() throws SQLException {
+        ConnectionPool sourcePool = ConnectionPool.forType(sourceType);
+        ConnectionPool targetPool = ConnectionPool.forType(targetType);
+        if (sourcePool == targetPool) {
+            return (sourcePool.getMaxSize() - 1) / 2;
+        }
+        return Math.min(sourcePool.getMaxSize(), targetPool.getMaxSize()) - 1;
+    }
+
+    private void runWorkers(Queue<Integer> pending, int workerCount, CopyCheckpoint checkpoint)
+            throws SQLException, IOException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                futures.add(executor.submit(() -> {
+                    work(pending, checkpoint, executor);
+                    return null;
+                }));
+            }
+
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    //the first failure stops the other workers, their errors are only a consequence
+                    if (failure == null && !cancelled) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                        failed = true;
+                        cancelStatements();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                }
+            }
+            if (failure != null) {
+                throw asSqlOrIo(failure);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void work(Queue<Integer> pending, CopyCheckpoint checkpoint, ExecutorService readers) throws Exception {
+        try (Connection source = ConnectionPool.forType(sourceType).getConnection();
+             Connection target = ConnectionPool.forType(targetType).getConnection()) {
+            target.setAutoCommit(false);
+            Integer chunk;
+            while (!stopped() && (chunk = pending.poll()) != null) {
+                if (!copyChunk(chunk, source, target, readers)) {
+                    break;
+                }
+                if (checkpoint != null) {
+                    checkpoint.markDone(chunk);
+                }
+                chunksDone.incrementAndGet();
+                reportProgress(true);
+            }
+        }
+    }
+
+    //reader thread -> queue -> this thread; true when the range was committed
+    private boolean copyChunk(int chunk, Connection source, Connection target, ExecutorService readers) throws Exception {
+        long chunkStarted = System.nanoTime();
+        BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        AtomicBoolean writerDone = new AtomicBoolean(false);
+        Future<?> reader = readers.submit(() -> {
+            read(chunk, source, queue, writerDone);
+            return null;
+        });
+
+        boolean committed = false;
+        long written = 0;
+        try (PreparedStatement write = target.prepareStatement(insertSql)) {
+            statements.add(write);
+            try {
+                long uncommitted = 0;
+                List<Object[]> batch;
+                while ((batch = queue.take()) != END && !stopped()) {
+                    for (Object[] row : batch) {
+                        for (int i = 0; i < row.length; i++) {
+                            DmlEngine.bindValue(write, i + 1, targetColumns.get(i), row[i]);
+                        }
+                        write.addBatch();
+                    }
+                    write.executeBatch();
+                    written += batch.size();
+                    uncommitted += batch.size();
+                    rowsWritten.addAndGet(batch.size());
+                    //only a table copied as one range commits as it goes
+                    if (!plan.isRanged() && uncommitted >= commitEvery) {
+                        target.commit();
+                        rowsCopied.addAndGet(uncommitted);
+                        uncommitted = 0;
+                    }
+                    reportProgress(false);
+                }
+                awaitReader(reader);
+                if (!stopped()) {
+                    target.commit();
+                    rowsCopied.addAndGet(uncommitted);
+                    committed = true;
+                }
+            } finally {
+                statements.remove(write);
+            }
+        } finally {
+            writerDone.set(true);
+            if (!committed) {
+                rollbackQuietly(target);
+                rowsWritten.addAndGet(-written);
+                //the reader must be off the source connection before it is used again or returned
+                try {
+                    reader.get();
+                } catch (ExecutionException e) {
+                    //already reported by awaitReader, or caused by the stop
+                }
+            }
+        }
+        Metrics.record("copy.chunk", targetType, targetTable, System.nanoTime() - chunkStarted);
+        return committed;
+    }
+
+    private void read(int chunk, Connection source, BlockingQueue<List<Object[]>> queue, AtomicBoolean writerDone)
+            throws SQLException, InterruptedException {
+        try (PreparedStatement read = StreamingFetch.prepare(source, sourceType, selectSql + plan.where(chunk, sourceType), fetchSize)) {
+            statements.add(read);
+            try {
+                plan.bind(read, chunk);
+                try (ResultSet rs = read.executeQuery()) {
+                    StreamingFetch.Meter meter = StreamingFetch.meter(rs, sourceSchema, fetchSize);
+                    int columnCount = sourceColumns.size();
+                    List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                    long batchBytes = 0;
+                    while (!stopped() && rs.next()) {
+                        Object[] row = new Object[columnCount];
+                        long rowBytes = 0;
+                        for (int i = 0; i < columnCount; i++) {
+                            row[i] = readValue(rs, i);
+                            rowBytes += sizeOf(row[i]);
+                        }
+                        meter.rowRead(meter.wantsSample() ? rowBytes : -1);
+                        batch.add(row);
+                        batchBytes += rowBytes;
+                        if (batch.size() == BATCH_SIZE) {
+                            bytesRead.addAndGet(batchBytes);
+                            if (!handOver(queue, batch, writerDone)) {
+                                return;
+                            }
+                            batch = new ArrayList<>(BATCH_SIZE);
+                            batchBytes = 0;
+                        }
+                    }
+                    bytesRead.addAndGet(batchBytes);
+                    if (!batch.isEmpty() && !handOver(queue, batch, writerDone)) {
+                        return;
+                    }
+                    meter.finish();
+                }
+            } finally {
+                statements.remove(read);
+            }
+            //one short read transaction per range instead of one snapshot held for the whole copy
+            if (!source.getAutoCommit()) {
+                source.commit();
+            }
+        } finally {
+            handOver(queue, END, writerDone);
+        }
+    }
+
+    //blocks while the queue is full; false when the writer stopped taking batches
+    private boolean handOver(BlockingQueue<List<Object[]>> queue, List<Object[]> batch, AtomicBoolean writerDone)
+            throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writerDone.get() || stopped()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //the target value for source column i, read with the getter for the source type;
+    //text is only parsed when a text column goes into a non-text one
+    private Object readValue(ResultSet rs, int i) throws SQLException {
+        TableSchema.ColumnInfo from = sourceColumns.get(i);
+        TableSchema.ColumnInfo to = targetColumns.get(i);
+        if (isText(from)) {
+            String text = rs.getString(i + 1);
+            return isText(to) ? text : DmlEngine.convert(to, text);
+        }
+
+        Object value;
+        switch (from.getJdbcType()) {
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return rs.getBytes(i + 1);
+            case Types.BIT:
+            case Types.BOOLEAN:
+                //"t", "true" or "1" depending on the driver, so read it as a boolean
+                value = rs.getBoolean(i + 1);
+                break;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                value = rs.getLong(i + 1);
+                break;
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                //exact, BIGINT too because MySQL BIGINT UNSIGNED does not fit a long
+                value = rs.getBigDecimal(i + 1);
+                break;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                value = rs.getDouble(i + 1);
+                break;
+            case Types.DATE:
+                value = rs.getDate(i + 1);
+                break;
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                value = rs.getTime(i + 1);
+                break;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                value = rs.getTimestamp(i + 1);
+                break;
+            default:
+                value = rs.getObject(i + 1);
+                break;
+        }
+        if (rs.wasNull() || value == null) {
+            return null;
+        }
+        return toTarget(value, to);
+    }
+
+    //booleans and numbers are interchangeable, a text target gets the value's text; anything else the driver converts
+    private static Object toTarget(Object value, TableSchema.ColumnInfo to) {
+        boolean booleanTarget = to.getJdbcType() == Types.BIT || to.getJdbcType() == Types.BOOLEAN;
+        if (value instanceof Boolean) {
+            return booleanTarget ? value : (Object) ((Boolean) value ? 1 : 0);
+        }
+        if (booleanTarget && value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        if (isText(to)) {
+            return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        }
+        return value;
+    }
+
+    private static boolean isText(TableSchema.ColumnInfo column) {
+        switch (column.getJdbcType()) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 1;
+        } else if (value instanceof String) {
+            return ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return 8;
+    }
+
+    private static void awaitReader(Future<?> reader) throws Exception {
+        try {
+            reader.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            //connection is broken, the pool drops it on release
+        }
+    }
+
+    //what run() throws for a worker failure
+    private static SQLException asSqlOrIo(Exception e) throws IOException {
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        }
+        return e instanceof SQLException ? (SQLException) e : new SQLException("Copy failed: " + e.getMessage(), e);
+    }
+
+    private void reportProgress(boolean force) {
+        long now = System.nanoTime();
+        long last = lastProgress.get();
+        if ((force || now - last > PROGRESS_INTERVAL_NANOS) && lastProgress.compareAndSet(last, now)) {
+            progress.message(progressText());
+            if (plan.isRanged()) {
+                progress.progress(chunksDone.get(), plan.chunkCount);
+            }
+        }
+    }
+
+    private String progressText() {
+        double seconds = Math.max(0.001, (System.nanoTime() - started) / 1e9);
+        long rows = rowsWritten.get();
+        String text = String.format("%,d rows copied (%,.0f rows/s, %.1f MB/s)",
+                rows, rows / seconds, bytesRead.get() / seconds / (1024 * 1024));
+        return plan.isRanged() ? text + String.format(", %,d of %,d ranges", chunksDone.get(), plan.chunkCount) : text;
+    }
+
+    private static String selectSql(DmlEngine dml, List<TableSchema.ColumnInfo> columns) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(dml.quoteColumn(columns.get(i).getName()));
+        }
+        return sql.append(" FROM ").append(dml.quotedTable()).toString();
+    }
+
+    //how the key is split: range n covers start + n * chunkKeys up to the next range
+    private static class Plan {
+        static final Plan SINGLE = new Plan(null, 0, 0, 1);
+
+        final String keyColumn;
+        final long start;
+        final long chunkKeys;
+        final int chunkCount;
+
+        Plan(String keyColumn, long start, long chunkKeys, int chunkCount) {
+            this.keyColumn = keyColumn;
+            this.start = start;
+            this.chunkKeys = chunkKeys;
+            this.chunkCount = chunkCount;
+        }
+
+        boolean isRanged() {
+            return keyColumn != null;
+        }
+
+        //the first range is open below and the last open above, so keys added since the plan are copied too
+        Long lower(int chunk) {
+            return !isRanged() || chunk == 0 ? null : start + chunk * chunkKeys;
+        }
+
+        Long upper(int chunk) {
+            return !isRanged() || chunk == chunkCount - 1 ? null : start + (chunk + 1) * chunkKeys;
+        }
+
+        String where(int chunk, String dbType) throws SQLException {
+            if (!isRanged() || chunkCount == 1) {
+                return "";
+            }
+            String key = SqlDialects.forType(dbType).quoteIdentifier(keyColumn);
+            if (lower(chunk) == null) {
+                return " WHERE " + key + " < ?";
+            } else if (upper(chunk) == null) {
+                return " WHERE " + key + " >= ?";
+            }
+            return " WHERE " + key + " >= ? AND " + key + " < ?";
+        }
+
+        void bind(PreparedStatement stmt, int chunk) throws SQLException {
+            int index = 1;
+            if (lower(chunk) != null) {
+                stmt.setLong(index++, lower(chunk));
+            }
+            if (upper(chunk) != null) {
+                stmt.setLong(index, upper(chunk));
+            }
+        }
+    }
+
+    public static class CopyResult {
+        private final long rows;
+        private final long bytes;
+        private final long elapsedMillis;
+        private final int workers;
+        private final int chunks;
+        private final int resumedChunks;
+        private final boolean cancelled;
+
+        public CopyResult(long rows, long bytes, long elapsedMillis, int workers, int chunks, int resumedChunks,
+                          boolean cancelled) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+            this.workers = workers;
+            this.chunks = chunks;
+            this.resumedChunks = resumedChunks;
+            this.cancelled = cancelled;
+        }
+
+        //rows committed by this run
+        public long getRows() {
+            return rows;
+        }
+
+        //approximate bytes read from the source
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        //ranges an earlier run had already committed
+        public int getResumedChunks() {
+            return resumedChunks;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedMillis == 0 ? 0 : bytes * 1000.0 / elapsedMillis / (1024 * 1024);
+        }
+    }
+}
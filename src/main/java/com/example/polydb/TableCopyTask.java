@@ -0,0 +1,49 @@
+package com.example.polydb;
+
+import javafx.concurrent.Task;
+
+import java.nio.file.Path;
+
+/*
+ * Runs a TableCopier in the background and shows its progress on the FX thread.
+ * Committed key ranges go to CopyCheckpoint.defaultPath(), so an interrupted copy can be resumed.
+ */
+public class TableCopyTask extends Task<TableCopier.CopyResult> {
+
+    private final TableCopier copier;
+
+    public TableCopyTask(String sourceType, String sourceTable, String targetType, String targetTable,
+                         int workers, boolean createTarget, boolean resume) {
+        this.copier = new TableCopier(sourceType, sourceTable, targetType, targetTable,
+                TableCopier.DEFAULT_COMMIT_EVERY, new JobProgress() {
+                    @Override
+                    public void message(String text) {
+                        updateMessage(text);
+                    }
+
+                    @Override
+                    public void progress(double done, double total) {
+                        updateProgress(done, total);
+                    }
+                });
+        copier.setWorkers(workers);
+        copier.setCreateTarget(createTarget);
+        copier.setCheckpoint(checkpointFile(sourceType, sourceTable, targetType, targetTable), resume);
+    }
+
+    public static Path checkpointFile(String sourceType, String sourceTable, String targetType, String targetTable) {
+        return CopyCheckpoint.defaultPath(sourceType, sourceTable, targetType, targetTable);
+    }
+
+    @Override
+    protected TableCopier.CopyResult call() throws Exception {
+        return copier.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        copier.cancel();
+        return cancelled;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * Finds the tables of each database, with row estimates, size and last analyze time from the
+ * catalog (SqlDialect.discoverTables, one query per database). Every source runs on its own
+ * virtual thread so a slow or unreachable server only delays its own list.
+ */
+public class TableDiscovery {
+
+    public static final String[] SOURCES = SqlDialects.names().toArray(new String[0]);
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    //start loading one source in the background, failing with a TimeoutException after the deadline
+    public static CompletableFuture<List<DatabaseTable>> discoverAsync(String dbType, long deadlineMillis) {
+        Deadline deadline = new Deadline();
+        CompletableFuture<List<DatabaseTable>> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return discover(dbType, deadline);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR).orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+
+        //orTimeout only completes the future; stop the query too, so a hung server doesn't keep
+        //a pooled connection until the network timeout and repeated refreshes can't drain the pool
+        future.whenComplete((tables, error) -> {
+            if (error instanceof TimeoutException) {
+                deadline.passed = true;
+                RunningOperations.Operation op = deadline.operation;
+                if (op != null) {
+                    op.cancel();
+                }
+            }
+        });
+        return future;
+    }
+
+    public static List<DatabaseTable> discover(String dbType) throws SQLException {
+        return discover(dbType, new Deadline());
+    }
+
+    private static List<DatabaseTable> discover(String dbType, Deadline deadline) throws SQLException {
+        SqlDialect dialect = SqlDialects.forType(dbType);
+
+        return Metrics.timed("discovery", dialect.getName(), null, () -> {
+            List<DatabaseTable> tables = new ArrayList<>();
+            try (Connection conn = ConnectionPool.forType(dbType).getConnection();
+                 RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.METADATA,
+                         dialect.getName(), "Table list", conn)) {
+                deadline.operation = op;
+                //the deadline passed while we waited for the connection, give it straight back
+                if (deadline.passed) {
+                    throw new SQLException("Table list for " + dbType + " timed out");
+                }
+                //the event leaves out the connection acquire, that has its own
+                DbEvents.MetadataLookup event = new DbEvents.MetadataLookup();
+                event.begin();
+                tables.addAll(dialect.discoverTables(conn));
+                event.finish(dialect.getName(), null, "tables", tables.size());
+            }
+            return tables;
+        });
+    }
+
+    //shared by a discovery and its timeout: whichever comes second sees the other
+    private static class Deadline {
+        volatile RunningOperations.Operation operation;
+        volatile boolean passed;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.polydb;
+
+import javafx.concurrent.Task;
+
+import java.nio.file.Path;
+
+/*
+ * Runs a TableExporter in the background and shows its progress on the FX thread.
+ */
+public class TableExportTask extends Task<TableExporter.ExportResult> {
+
+    private final TableExporter exporter;
+
+    public TableExportTask(String dbType, String tableName, String quotedTableName, Path outputFile,
+                           TableExporter.Format format, boolean gzip) {
+        this.exporter = new TableExporter(dbType, tableName, quotedTableName, outputFile, format, gzip,
+                new JobProgress() {
+                    @Override
+                    public void message(String text) {
+                        updateMessage(text);
+                    }
+
+                    @Override
+                    public void progress(double done, double total) {
+                        updateProgress(done, total);
+                    }
+                });
+    }
+
+    @Override
+    protected TableExporter.ExportResult call() throws Exception {
+        return exporter.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        exporter.cancel();
+        return cancelled;
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.polydb;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Writes a whole table to a CSV or JSON Lines file, optionally gzipped.
+ * Rows are streamed from a forward-only cursor (see StreamingFetch) and written as they
+ * arrive, so memory use is the same for a thousand rows or a billion.
+ * No JavaFX in here: the GUI runs it through TableExportTask, the command line (PolyCli) directly.
+ */
+public class TableExporter {
+
+    public enum Format { CSV, JSONL }
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+
+    private final String dbType;
+    private final String tableName;
+    private final String quotedTableName;
+    private final Path outputFile;
+    private final Format format;
+    private final boolean gzip;
+    private final JobProgress progress;
+
+    private volatile Statement statement;
+    private volatile boolean cancelled = false;
+
+    public TableExporter(String dbType, String tableName, String quotedTableName, Path outputFile,
+                         Format format, boolean gzip, JobProgress progress) {
+        this.dbType = dbType;
+        this.tableName = tableName;
+        this.quotedTableName = quotedTableName;
+        this.outputFile = outputFile;
+        this.format = format;
+        this.gzip = gzip;
+        this.progress = progress;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public ExportResult run() throws SQLException, IOException {
+        long started = System.nanoTime();
+        long rows = 0;
+        StreamingFetch.Meter meter = null;
+        progress.message("Exporting...");
+        progress.progress(-1, 1);
+
+        FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        CountingOutputStream counted = new CountingOutputStream(Channels.newOutputStream(channel));
+        OutputStream stream = new BufferedOutputStream(counted, WRITE_BUFFER_SIZE);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, WRITE_BUFFER_SIZE);
+        }
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+             Connection conn = ConnectionPool.forType(dbType).getConnection();
+             RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.BULK, dbType,
+                     "Export " + tableName + " to " + outputFile.getFileName(), conn)) {
+            op.onCancel(this::cancel);
+            TableSchema schema = SchemaCache.get(conn, dbType, tableName);
+            int fetchSize = StreamingFetch.initialFetchSize(schema);
+
+            try (PreparedStatement stmt = StreamingFetch.prepare(conn, dbType, "SELECT * FROM " + quotedTableName, fetchSize);
+                 ResultSet rs = executeStreaming(stmt)) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                meter = StreamingFetch.meter(rs, schema, fetchSize);
+                String[] names = new String[columnCount];
+                int[] types = new int[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    names[i] = metaData.getColumnName(i + 1);
+                    types[i] = metaData.getColumnType(i + 1);
+                }
+
+                CsvWriter csv = new CsvWriter(out);
+                if (format == Format.CSV) {
+                    csv.writeRecord(names);
+                }
+                String[] jsonKeys = format == Format.JSONL ? jsonKeys(names) : null;
+                String[] values = new String[columnCount];
+                long lastProgress = System.nanoTime();
+
+                while (!isCancelled() && rs.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    if (format == Format.CSV) {
+                        csv.writeRecord(values);
+                    } else {
+                        writeJsonLine(out, jsonKeys, types, values);
+                    }
+                    rows++;
+                    meter.rowRead(meter.wantsSample() ? StreamingFetch.measureRow(rs, columnCount) : -1);
+
+                    long now = System.nanoTime();
+                    if (now - lastProgress > PROGRESS_INTERVAL_NANOS) {
+                        lastProgress = now;
+                        progress.message(progressText(rows, counted.getCount(), started));
+                    }
+                }
+                meter.finish();
+            }
+        } catch (SQLException e) {
+            //Statement.cancel() makes the driver throw, that is expected
+            if (!isCancelled()) {
+                throw e;
+            }
+        } finally {
+            statement = null;
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        progress.message(progressText(rows, counted.getCount(), started));
+        progress.progress(1, 1);
+        return new ExportResult(rows, counted.getCount(), elapsedMillis, outputFile, isCancelled(),
+                meter == null ? 0 : meter.getRoundTrips(), meter == null ? 0 : meter.getFetchSize());
+    }
+
+    private ResultSet executeStreaming(PreparedStatement stmt) throws SQLException {
+        statement = stmt;
+        return stmt.executeQuery();
+    }
+
+    //"name": prefixes, escaped once instead of on every row
+    private static String[] jsonKeys(String[] names) {
+        String[] keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(i == 0 ? "{" : ",");
+            appendJsonString(sb, names[i]);
+            keys[i] = sb.append(':').toString();
+        }
+        return keys;
+    }
+
+    private static void writeJsonLine(Writer out, String[] keys, int[] types, String[] values) throws IOException {
+        StringBuilder sb = new StringBuilder(128);
+        for (int i = 0; i < values.length; i++) {
+            sb.append(keys[i]);
+            String value = values[i];
+            if (value == null) {
+                sb.append("null");
+            } else if (isJsonNumber(types[i], value)) {
+                sb.append(value);
+            } else if (types[i] == Types.BOOLEAN || types[i] == Types.BIT) {
+                sb.append(JdbcValues.parseBoolean(value));
+            } else {
+                appendJsonString(sb, value);
+            }
+        }
+        if (values.length == 0) {
+            sb.append('{');
+        }
+        sb.append("}\n");
+        out.write(sb.toString());
+    }
+
+    //numeric columns are written bare, except values JSON can't represent (NaN, Infinity)
+    private static boolean isJsonNumber(int type, String value) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return !value.isEmpty() && !value.contains("N") && !value.contains("I");
+            default:
+                return false;
+        }
+    }
+
+    static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String progressText(long rows, long bytes, long started) {
+        double seconds = Math.max(0.001, (System.nanoTime() - started) / 1e9);
+        return String.format("%,d rows exported (%,.0f rows/s, %.1f MB/s)",
+                rows, rows / seconds, bytes / seconds / (1024 * 1024));
+    }
+
+    //stops the running query, the file keeps the rows written so far
+    public void cancel() {
+        cancelled = true;
+        Statement stmt = statement;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("Could not cancel statement: " + e.getMessage());
+            }
+        }
+    }
+
+    //bytes that reached the file (after gzip)
+    private static class CountingOutputStream extends FilterOutputStream {
+        private volatile long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    public static class ExportResult {
+        private final long rows;
+        private final long bytes;
+        private final long elapsedMillis;
+        private final Path file;
+        private final boolean cancelled;
+        private final long fetchRoundTrips;
+        private final int fetchSize;
+
+        public ExportResult(long rows, long bytes, long elapsedMillis, Path file, boolean cancelled,
+                            long fetchRoundTrips, int fetchSize) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+            this.file = file;
+            this.cancelled = cancelled;
+            this.fetchRoundTrips = fetchRoundTrips;
+            this.fetchSize = fetchSize;
+        }
+
+        public long getFetchRoundTrips() {
+            return fetchRoundTrips;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedMillis == 0 ? 0 : bytes * 1000.0 / elapsedMillis / (1024 * 1024);
+        }
+    }
+}
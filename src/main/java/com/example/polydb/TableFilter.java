@@ -0,0 +1,203 @@
+package com.example.polydb;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Column filters from the filter bar, compiled into a parameterized WHERE clause that runs
+ * on the server together with the page query, so indexes do the searching.
+ * Conditions are ANDed. Instances are immutable, with() returns a new filter.
+ */
+public class TableFilter {
+
+    public enum Operator {
+        EQUALS("="),
+        NOT_EQUALS("<>"),
+        RANGE("between"),
+        STARTS_WITH("starts with"),
+        LIKE("like"),
+        IS_NULL("is null"),
+        IS_NOT_NULL("is not null");
+
+        private final String label;
+
+        Operator(String label) {
+            this.label = label;
+        }
+
+        public boolean needsValue() {
+            return this != IS_NULL && this != IS_NOT_NULL;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    //escape character for LIKE, '!' needs no escaping in any of the three dialects' string literals
+    private static final char LIKE_ESCAPE = '!';
+
+    public static final TableFilter NONE = new TableFilter(Collections.emptyList());
+
+    private final List<Condition> conditions;
+
+    private TableFilter(List<Condition> conditions) {
+        this.conditions = Collections.unmodifiableList(conditions);
+    }
+
+    public TableFilter with(Condition condition) {
+        List<Condition> all = new ArrayList<>(conditions);
+        all.add(condition);
+        return new TableFilter(all);
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    //WHERE body without the WHERE keyword ("" when empty), values are added to params in order
+    public String compile(TableSchema schema, List<Object> params) throws SQLException {
+        StringBuilder where = new StringBuilder();
+        for (Condition condition : conditions) {
+            if (where.length() > 0) where.append(" AND ");
+            where.append(condition.compile(schema, params));
+        }
+        return where.toString();
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        for (Condition condition : conditions) {
+            parts.add(condition.toString());
+        }
+        return String.join(" AND ", parts);
+    }
+
+    public static class Condition {
+        private final String column;
+        private final Operator operator;
+        private final String value;
+        private final String value2;
+
+        //value2 is only used by RANGE, either end of a range may be empty
+        public Condition(String column, Operator operator, String value, String value2) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value == null ? "" : value.trim();
+            this.value2 = value2 == null ? "" : value2.trim();
+        }
+
+        public String getColumn() { return column; }
+        public Operator getOperator() { return operator; }
+        public String getValue() { return value; }
+        public String getValue2() { return value2; }
+
+        private String compile(TableSchema schema, List<Object> params) throws SQLException {
+            TableSchema.ColumnInfo info = schema.getColumn(column);
+            if (info == null) {
+                throw new SQLException("Column " + column + " no longer exists");
+            }
+            String quoted = schema.getDialect().quoteIdentifier(info.getName());
+
+            switch (operator) {
+                case IS_NULL:
+                    return quoted + " IS NULL";
+                case IS_NOT_NULL:
+                    return quoted + " IS NOT NULL";
+                case EQUALS:
+                case NOT_EQUALS:
+                    params.add(typedValue(info, value));
+                    return quoted + " " + operator.label + " ?";
+                case RANGE:
+                    if (value.isEmpty() && value2.isEmpty()) {
+                        throw new SQLException("Enter at least one end of the range for " + column);
+                    }
+                    if (value2.isEmpty()) {
+                        params.add(typedValue(info, value));
+                        return quoted + " >= ?";
+                    }
+                    if (value.isEmpty()) {
+                        params.add(typedValue(info, value2));
+                        return quoted + " <= ?";
+                    }
+                    params.add(typedValue(info, value));
+                    params.add(typedValue(info, value2));
+                    return quoted + " BETWEEN ? AND ?";
+                case STARTS_WITH:
+                    checkText(info);
+                    //a constant prefix can use a B-tree index, a leading % can't
+                    params.add(escapeLike(value) + "%");
+                    return quoted + " LIKE ? ESCAPE '" + LIKE_ESCAPE + "'";
+                case LIKE:
+                    checkText(info);
+                    params.add(value);
+                    return quoted + " LIKE ?";
+                default:
+                    throw new SQLException("Unsupported filter " + operator);
+            }
+        }
+
+        private static Object typedValue(TableSchema.ColumnInfo info, String text) throws SQLException {
+            if (text.isEmpty()) {
+                throw new SQLException("Enter a value for " + info.getName() + " (use 'is null' to find empty values)");
+            }
+            //convert() reports text the column can't take as an SQLException
+            return DmlEngine.convert(info, text);
+        }
+
+        //LIKE on numbers and dates needs casts that would stop index use, so it is text columns only
+        private static void checkText(TableSchema.ColumnInfo info) throws SQLException {
+            switch (info.getJdbcType()) {
+                case java.sql.Types.CHAR:
+                case java.sql.Types.VARCHAR:
+                case java.sql.Types.LONGVARCHAR:
+                case java.sql.Types.NCHAR:
+                case java.sql.Types.NVARCHAR:
+                case java.sql.Types.LONGNVARCHAR:
+                case java.sql.Types.CLOB:
+                case java.sql.Types.NCLOB:
+                    return;
+                default:
+                    throw new SQLException("'" + info.getName() + "' is not a text column, use = or a range instead");
+            }
+        }
+
+        private static String escapeLike(String text) {
+            StringBuilder sb = new StringBuilder(text.length() + 4);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                    sb.append(LIKE_ESCAPE);
+                }
+                sb.append(c);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            switch (operator) {
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    return column + " " + operator;
+                case RANGE:
+                    if (value2.isEmpty()) return column + " >= " + value;
+                    if (value.isEmpty()) return column + " <= " + value2;
+                    return column + " between " + value + " and " + value2;
+                case STARTS_WITH:
+                case LIKE:
+                    return column + " " + operator + " '" + value + "'";
+                default:
+                    return column + " " + operator + " " + value;
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.polydb;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Runs one page query in the background and hands rows to the UI in chunks as they arrive.
+ * Rows are read straight into typed ColumnarRowStore batches, no String per cell.
+ * Cancelling the task also cancels the running JDBC statement on the server.
+ * The page is read through a driver cursor (StreamingFetch) with a fetch size tuned to the row width.
+ */
+public class TableLoadTask extends Task<KeysetPager.PageResult> {
+
+    //send rows to the FX thread every CHUNK_SIZE rows or CHUNK_MILLIS, whichever comes first
+    private static final int CHUNK_SIZE = 1000;
+    private static final long CHUNK_MILLIS = 100;
+
+    private final String dbType;
+    private final KeysetPager pager;
+    private final KeysetPager.Direction direction;
+    private final String jumpValue;
+    private final Consumer<ColumnarRowStore> onColumns;
+    private final Consumer<ColumnarRowStore.Batch> onRows;
+
+    private volatile Statement statement;
+    private volatile KeysetPager.PageQuery query;
+    private volatile StreamingFetch.Meter meter;
+
+    //onColumns and onRows are always called on the FX thread
+    public TableLoadTask(String dbType, KeysetPager pager, KeysetPager.Direction direction, String jumpValue,
+                         Consumer<ColumnarRowStore> onColumns,
+                         Consumer<ColumnarRowStore.Batch> onRows) {
+        this.dbType = dbType;
+        this.pager = pager;
+        this.direction = direction;
+        this.jumpValue = jumpValue;
+        this.onColumns = onColumns;
+        this.onRows = onRows;
+    }
+
+    //the query that was run, available once the task has succeeded
+    public KeysetPager.PageQuery getQuery() {
+        return query;
+    }
+
+    //fetch statistics of the page read, null if the query never ran
+    public StreamingFetch.Meter getMeter() {
+        return meter;
+    }
+
+    @Override
+    protected KeysetPager.PageResult call() throws Exception {
+        updateMessage("Loading...");
+        int rowCount = 0;
+        boolean hasMore = false;
+        Object[] firstKey = null;
+        Object[] lastKey = null;
+
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
+             RunningOperations.Operation op = RunningOperations.start(OperationTimeouts.Kind.READ, dbType,
+                     "Load page of " + pager.getTable().getName(), conn)) {
+            op.onCancel(() -> cancel());
+            pager.init(conn);
+            KeysetPager.PageQuery pageQuery = pager.buildQuery(direction, jumpValue);
+            query = pageQuery;
+
+            int fetchSize = Math.min(StreamingFetch.initialFetchSize(pager.getSchema()), pageQuery.getLimit() + 1);
+            try (PreparedStatement stmt = StreamingFetch.prepare(conn, dbType, pageQuery.getSql(), fetchSize)) {
+                statement = stmt;
+                op.track(stmt);
+                for (int i = 0; i < pageQuery.getParams().size(); i++) {
+                    stmt.setObject(i + 1, pageQuery.getParams().get(i));
+                }
+                if (isCancelled()) {
+                    return new KeysetPager.PageResult(0, false, null, null);
+                }
+
+                String table = pager.getSchema().getTableName();
+                DbEvents.Query queryEvent = new DbEvents.Query();
+                queryEvent.begin();
+                long queryStarted = System.nanoTime();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    int columnCount = metaData.getColumnCount();
+                    StreamingFetch.Meter fetchMeter = StreamingFetch.meter(rs, pager.getSchema(), fetchSize);
+                    meter = fetchMeter;
+
+                    List<String> columnNames = new ArrayList<>();
+                    for (int i = 1; i <= columnCount; i++) {
+                        String columnName = metaData.getColumnName(i);
+                        // For Oracle, ensure we handle case properly
+                        columnName = pager.getSchema().getDialect().normalizeName(columnName);
+                        columnNames.add(columnName);
+                    }
+                    ColumnarRowStore store = new ColumnarRowStore(columnNames, ColumnarRowStore.kindsFor(metaData));
+                    Platform.runLater(() -> {
+                        if (!isCancelled()) {
+                            onColumns.accept(store);
+                        }
+                    });
+
+                    int[] keyIndexes = keyIndexes(columnNames);
+
+                    //previous pages come back in reverse order, so they are shown in one go at the end
+                    int expectedRows = pageQuery.isReversed() ? pageQuery.getLimit() : Math.min(CHUNK_SIZE, pageQuery.getLimit());
+                    ColumnarRowStore.BatchBuilder chunk = new ColumnarRowStore.BatchBuilder(store.getKindsCopy(), expectedRows);
+                    long lastFlush = System.nanoTime();
+                    DbEvents.RowMaterialize readEvent = new DbEvents.RowMaterialize();
+                    readEvent.begin();
+
+                    while (!isCancelled() && rs.next()) {
+                        if (rowCount == pageQuery.getLimit()) {
+                            hasMore = true;
+                            break;
+                        }
+
+                        chunk.appendRow(rs);
+                        fetchMeter.rowRead(fetchMeter.wantsSample() ? StreamingFetch.measureRow(rs, columnCount) : -1);
+
+                        Object[] key = readKey(rs, keyIndexes);
+                        if (rowCount == 0) {
+                            firstKey = key;
+                            Metrics.record("load.first_row", dbType, table, System.nanoTime() - queryStarted);
+                        }
+                        lastKey = key;
+                        rowCount++;
+
+                        if (!pageQuery.isReversed() && (chunk.getRowCount() >= CHUNK_SIZE
+                                || System.nanoTime() - lastFlush > CHUNK_MILLIS * 1_000_000)) {
+                            flush(chunk.build(false));
+                            chunk = chunk.newBuilder(CHUNK_SIZE);
+                            lastFlush = System.nanoTime();
+                            updateMessage(String.format("%,d rows fetched...", rowCount));
+                        }
+                    }
+
+                    if (pageQuery.isReversed()) {
+                        Object[] swap = firstKey;
+                        firstKey = lastKey;
+                        lastKey = swap;
+                    }
+                    flush(chunk.build(pageQuery.isReversed()));
+                    fetchMeter.finish();
+                    if (!isCancelled()) {
+                        if (rowCount == 0) {
+                            Metrics.record("load.first_row", dbType, table, System.nanoTime() - queryStarted);
+                        }
+                        Metrics.record("load.last_row", dbType, table, System.nanoTime() - queryStarted);
+                    }
+                    readEvent.finish(dbType, table, rowCount, fetchMeter.getBytes(), fetchMeter.getRoundTrips());
+                    queryEvent.finish("load.page", dbType, table, pageQuery.getSql(), rowCount, fetchMeter.getBytes(),
+                            isCancelled());
+                }
+            }
+        } catch (SQLException e) {
+            //Statement.cancel() makes the driver throw, that is expected
+            if (!isCancelled()) {
+                throw e;
+            }
+        } finally {
+            statement = null;
+        }
+
+        StreamingFetch.Meter fetchMeter = meter;
+        String fetchInfo = fetchMeter == null ? "" : " (" + fetchMeter.describe() + ")";
+        updateMessage(isCancelled()
+                ? String.format("Cancelled after %,d rows", rowCount)
+                : String.format("%,d rows loaded", rowCount) + fetchInfo);
+        return new KeysetPager.PageResult(rowCount, hasMore, firstKey, lastKey);
+    }
+
+    private int[] keyIndexes(List<String> columnNames) {
+        List<String> keys = pager.getKeyColumns();
+        int[] indexes = new int[keys.size()];
+        for (int k = 0; k < keys.size(); k++) {
+            indexes[k] = -1;
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (columnNames.get(i).equalsIgnoreCase(keys.get(k))) {
+                    indexes[k] = i + 1;
+                    break;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    //keep the key as the driver's own objects so it binds back with the right type
+    private Object[] readKey(ResultSet rs, int[] keyIndexes) throws SQLException {
+        Object[] key = new Object[keyIndexes.length];
+        for (int k = 0; k < keyIndexes.length; k++) {
+            key[k] = keyIndexes[k] > 0 ? rs.getObject(keyIndexes[k]) : null;
+        }
+        return key;
+    }
+
+    private void flush(ColumnarRowStore.Batch chunk) {
+        if (chunk.getRowCount() == 0) {
+            return;
+        }
+        Platform.runLater(() -> {
+            //a refresh may have replaced this load while the chunk was queued
+            if (!isCancelled()) {
+                onRows.accept(chunk);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Statement stmt = statement;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("Could not cancel statement: " + e.getMessage());
+            }
+        }
+        return cancelled;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.polydb;
 
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -16,13 +17,25 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
 import javax.swing.text.html.Option;
 import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 public class TableManagController {
 
@@ -33,6 +46,12 @@ public class TableManagController {
     @FXML
     private TableColumn<DatabaseTable, String> typeColumn;
     @FXML
+    private TableColumn<DatabaseTable, Long> rowsColumn;
+    @FXML
+    private TableColumn<DatabaseTable, Long> sizeColumn;
+    @FXML
+    private TableColumn<DatabaseTable, LocalDateTime> analyzedColumn;
+    @FXML
     private ComboBox<String> dbFilterComboBox;
     @FXML
     private TextField searchField;
@@ -44,17 +63,42 @@ public class TableManagController {
     private Button editButton;
     @FXML
     private Label refreshMessage;
+    @FXML
+    private HBox sourceStatusBox;
+    //loading/error state of each database, in SqlDialects.names() order
+    private final Map<String, Label> sourceStatus = new LinkedHashMap<>();
+
+    //how long a single database gets to return its table list
+    private static final long DISCOVERY_DEADLINE_MILLIS = 15_000;
+    private static final DateTimeFormatter ANALYZED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private long refreshGeneration = 0;
 
-    ObservableList<DatabaseTable> allTables = FXCollections.observableArrayList();
+    TableCatalogList allTables = new TableCatalogList();
     private FilteredList<DatabaseTable> filteredTables = new FilteredList<>(allTables);
 
     public void initialize() {
         // Set up the table columns
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         typeColumn.setCellValueFactory(new PropertyValueFactory<>("type"));
+        //catalog statistics: sorted on the raw numbers, shown formatted, blank when unknown
+        rowsColumn.setCellValueFactory(new PropertyValueFactory<>("estimatedRows"));
+        rowsColumn.setCellFactory(column -> formattedCell(rows -> String.format("%,d", rows)));
+        sizeColumn.setCellValueFactory(new PropertyValueFactory<>("sizeBytes"));
+        sizeColumn.setCellFactory(column -> formattedCell(TableManagController::formatSize));
+        analyzedColumn.setCellValueFactory(new PropertyValueFactory<>("lastAnalyzed"));
+        analyzedColumn.setCellFactory(column -> formattedCell(time -> time.format(ANALYZED_FORMAT)));
+
+        for (String source : SqlDialects.names()) {
+            Label label = new Label();
+            label.setStyle("-fx-font-weight: bold;");
+            label.setTextFill(Color.GRAY);
+            sourceStatus.put(source, label);
+            sourceStatusBox.getChildren().add(label);
+        }
 
         // Set up the ComboBox
-        dbFilterComboBox.getItems().addAll("All Databases", "PostgreSQL", "MySQL", "OracleDB");
+        dbFilterComboBox.getItems().add("All Databases");
+        dbFilterComboBox.getItems().addAll(SqlDialects.names());
 
         // Set the filtered list to the TableView
         tablesTableView.setItems(filteredTables);
@@ -90,21 +134,60 @@ public class TableManagController {
         //disable edit button at first
         editButton.disableProperty().bind(tablesTableView.getSelectionModel().selectedItemProperty().isNull());
 
+        StartupTimer.mark("table screen");
+
         // Load data
         handleRefresh(false);
     }
 
 
+    private static <T> TableCell<DatabaseTable, T> formattedCell(Function<T, String> format) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(T value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : format.apply(value));
+            }
+        };
+    }
+
+    //1,536 -> 1.5 KB, 429,496,729,600 -> 400.0 GB
+    static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB", "PB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
     //search feature
     private void filterTables(String filterText) {
-        if (filterText == null || filterText.isEmpty()) {
-            filteredTables.setPredicate(table -> true);
-        } else {
-            String lowerCaseFilter = filterText.toLowerCase();
-            filteredTables.setPredicate(table ->
-                    table.getName().toLowerCase().contains(lowerCaseFilter)
-            );
-        }
+        filteredTables.setPredicate(DatabaseTable.nameFilter(filterText));
+    }
+
+    @FXML
+    //free-form SQL, opened on the database of the selected table
+    public void handleOpenSqlConsole() {
+        DatabaseTable selected = tablesTableView.getSelectionModel().getSelectedItem();
+        SqlConsoleWindow.show(tablesTableView.getScene().getWindow(), selected == null ? null : selected.getType());
+    }
+
+    @FXML
+    //latency of every database operation so far, per backend and table
+    public void handleShowMetrics() {
+        MetricsWindow.show(tablesTableView.getScene().getWindow());
+    }
+
+    @FXML
+    //what is talking to the databases right now, with cancel and the timeouts
+    public void handleShowRunning() {
+        RunningOperationsWindow.show(tablesTableView.getScene().getWindow());
     }
 
     @FXML
@@ -116,116 +199,81 @@ public class TableManagController {
     //for refresh
     public void handleRefresh(boolean userTrig) {
 
-        //clear existing data
-        allTables.clear();
+        //results from an older refresh that arrive late are ignored
+        long generation = ++refreshGeneration;
 
-        //load the new data
-        loadPostgresDatabaseTables();
-        loadMySQLDatabaseTables();
-        loadOracleTables();
+        List<CompletableFuture<List<DatabaseTable>>> loads = new ArrayList<>();
+        for (String source : TableDiscovery.SOURCES) {
+            setSourceStatus(source, source + ": loading...", Color.GRAY, null);
 
-        if (userTrig) {
-            refreshMessage.setText("Data Refreshed!");
-            refreshMessage.setOpacity(1);
-
-            PauseTransition pause = new PauseTransition(Duration.seconds(3));
-            pause.setOnFinished(e -> refreshMessage.setText(""));
-            pause.play();
+            CompletableFuture<List<DatabaseTable>> load = TableDiscovery.discoverAsync(source, DISCOVERY_DEADLINE_MILLIS);
+            load.whenComplete((tables, error) -> Platform.runLater(() -> {
+                if (generation != refreshGeneration) {
+                    return;
+                }
+                if (error == null) {
+                    //apply this source's differences as soon as it finishes, rows that are still there stay put
+                    int changed = allTables.update(source, tables);
+                    StartupTimer.mark("first tables");
+                    //on a manual refresh also say how many rows the diff touched
+                    String changes = userTrig && changed > 0 ? " (" + changed + " changed)" : "";
+                    setSourceStatus(source, source + ": " + tables.size() + " tables" + changes, Color.web("#2ecc71"), null);
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    String message = cause instanceof TimeoutException
+                            ? "no response after " + DISCOVERY_DEADLINE_MILLIS / 1000 + "s"
+                            : cause.getMessage();
+                    System.err.println("Database connection error (" + source + "): " + message);
+                    setSourceStatus(source, source + ": error", Color.web("#FA5F55"), message);
+                }
+            }));
+            loads.add(load);
         }
 
-    }
-
-    //loading tables
-    private void loadPostgresDatabaseTables() {
-
-        //postgres
-        String url = "jdbc:postgresql://localhost:5432/TestD";
-        String user = "postgres";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password)) {
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet rs = metaData.getTables(null, null, null, new String[]{"TABLE"});
-
-            if (!rs.isBeforeFirst()) {
-                System.out.println("No tables found in the database");
-            }
-
-            while (rs.next()) {
-                System.out.println("Found table: " + rs.getString("TABLE_NAME"));
-                allTables.add(new DatabaseTable(rs.getString("TABLE_NAME"), "PostgreSQL"));
-            }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> {
+            Platform.runLater(() -> {
+                if (!userTrig) {
+                    //first load after opening the screen: the list is as complete as it gets
+                    startupFinished();
+                    return;
+                }
+                if (generation != refreshGeneration) {
+                    return;
+                }
+                refreshMessage.setText("Data Refreshed!");
+                refreshMessage.setOpacity(1);
+
+                PauseTransition pause = new PauseTransition(Duration.seconds(3));
+                pause.setOnFinished(e -> refreshMessage.setText(""));
+                pause.play();
+            });
+            return null;
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Database connection error:");
-            e.printStackTrace();
-            // You might want to show an alert to the user here
-        }
     }
 
-    private void loadMySQLDatabaseTables() {
-
-        String url = "jdbc:mysql://localhost:3306/world";
-        String user = "root";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password)) {
-
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet rs = metaData.getTables("world", null, "%", new String[]{"TABLE"});
-
-            if (!rs.isBeforeFirst()) {
-                System.out.println("No tables found in the database");
-            }
-
-            while (rs.next()) {
-                System.out.println("Found table: " + rs.getString("TABLE_NAME"));
-                allTables.add(new DatabaseTable(rs.getString("TABLE_NAME"), "MySQL"));
+    private void startupFinished() {
+        StartupTimer.mark("table list");
+        //timings only go to stdout for a -Dpolydb.startup.benchmark=true run
+        if (StartupTimer.BENCHMARK) {
+            String report = StartupTimer.report();
+            if (report != null) {
+                System.out.println(report);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Database connection error:");
-            e.printStackTrace();
-            // You might want to show an alert to the user here
+            System.out.println(StartupTimer.toJson());
+            Platform.exit();
         }
-
     }
 
-    private void loadOracleTables() {
-
-        String url = "jdbc:oracle:thin:@localhost:1521/free";
-        String user = "system";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password)) {
-
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet rs = metaData.getTables(null, "SYSTEM", "%", new String[]{"TABLE"});
-
-            if (!rs.isBeforeFirst()) {
-                System.out.println("No tables found in the database");
-            }
-
-            while (rs.next()) {
-
-                String tableName = rs.getString("TABLE_NAME");
-
-                if (tableName.startsWith("SYS_") ||
-                        tableName.startsWith("WRH$") ||
-                        tableName.startsWith("WRI$") ||
-                        tableName.startsWith("AU$")) {
-                    continue;
-                }
-
-                System.out.println("Found table: " + rs.getString("TABLE_NAME"));
-                allTables.add(new DatabaseTable(rs.getString("TABLE_NAME"), "OracleDB"));
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Database connection error:");
-            e.printStackTrace();
-            // You might want to show an alert to the user here
+    //loading/error state shown for each database
+    private void setSourceStatus(String source, String text, Color color, String details) {
+        Label label = sourceStatus.get(source);
+        if (label == null) {
+            return;
         }
+        label.setText(text);
+        label.setTextFill(color);
+        label.setTooltip(details == null ? null : new Tooltip(details));
     }
 
     //remove feature
@@ -268,60 +316,19 @@ public class TableManagController {
         String tableName = table.getName();
         String dbType = table.getType();
 
-        try {
-            switch (dbType) {
-                case "PostgreSQL":
-                    return deletePostgresTable(tableName);
-                case "MySQL":
-                    return deleteMySQLTable(tableName);
-                case "OracleDB":
-                    return deleteOracleTable(tableName);
-                default:
-                    return false;
-            }
+        //the table is going away, forget its cached schema
+        SchemaCache.invalidate(dbType, tableName);
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
+             Statement stmt = conn.createStatement()) {
+            String sql = SqlDialects.forType(dbType).dropTableSql(tableName);
+            RunningOperations.executeDdl("ddl.drop_table", dbType, tableName, stmt, sql);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
-    private boolean deletePostgresTable(String tableName) throws SQLException {
-        String url = "jdbc:postgresql://localhost:5432/TestD";
-        String user = "postgres";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute("DROP TABLE \"" + tableName + "\" CASCADE");
-            return true;
-        }
-    }
-
-    private boolean deleteMySQLTable(String tableName) throws SQLException {
-        String url = "jdbc:mysql://localhost:3306/world";
-        String user = "root";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute("DROP TABLE `" + tableName + "`");
-            return true;
-        }
-    }
-
-    private boolean deleteOracleTable(String tableName) throws SQLException {
-        String url = "jdbc:oracle:thin:@localhost:1521/free";
-        String user = "system";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement stmt = conn.createStatement()) {
-            // Oracle requires uppercase table names
-            stmt.execute("DROP TABLE \"" + tableName.toUpperCase() + "\" CASCADE CONSTRAINTS");
-            return true;
-        }
-    }
-
     private void showAlert(String title, String content, Alert.AlertType type) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -333,10 +340,10 @@ public class TableManagController {
     //add table
     public void handleAddTable() {
 
-        ObservableList<String> dbList = FXCollections.observableArrayList("PostgreSQL", "MySQL", "OracleDB");
+        ObservableList<String> dbList = FXCollections.observableArrayList(SqlDialects.names());
 
         //(1)
-        ChoiceDialog<String> dbEnter = new ChoiceDialog<>("PostgreSQL", dbList);
+        ChoiceDialog<String> dbEnter = new ChoiceDialog<>(dbList.get(0), dbList);
 
         dbEnter.setTitle("Select Database");
         dbEnter.setHeaderText("Choose Database Type");
@@ -366,27 +373,14 @@ public class TableManagController {
         }
 
         String tableName = tableResult.get();
+        SchemaCache.invalidate(dbType, tableName);
 
         //(3) - create table in dbs
         try {
             boolean success = false;
 
-            //switch sees which db to pick
-
-            switch (dbType) {
-                case "PostgreSQL":
-                    success = addPostgresTable(tableName);
-                    handleRefresh();
-                    break;
-                case "MySQL":
-                    success = addMySQLTable(tableName);
-                    handleRefresh();
-                    break;
-                case "OracleDB":
-                    success = addOracleTable(tableName);
-                    handleRefresh();
-                    break;
-            }
+            success = addTable(dbType, tableName);
+            handleRefresh();
 
             //success and error message handling
             if (success) {
@@ -403,77 +397,22 @@ public class TableManagController {
     }
 
 
-    private boolean addPostgresTable(String tableName) throws SQLException {
+    private boolean addTable(String dbType, String tableName) throws SQLException {
 
-        String url = "jdbc:postgresql://localhost:5432/TestD";
-        String user = "postgres";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
              Statement statement = conn.createStatement()) {
 
-            String sql = "CREATE TABLE \"" + tableName + "\" (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "name VARCHAR(255)" +
-                    ")";
-
-            statement.execute(sql);
+            String sql = SqlDialects.forType(dbType).createTableSql(tableName);
+            RunningOperations.executeDdl("ddl.create_table", dbType, tableName, statement, sql);
             return true; //success (handleAdd table method)
         } catch (SQLException e) {
 
-            System.err.println("PostgreSQL Error: " + e.getMessage());
+            System.err.println(dbType + " Error: " + e.getMessage());
             return false;
 
         }
     }
 
-    private boolean addMySQLTable(String tableName) throws SQLException {
-
-        String url = "jdbc:mysql://localhost:3306/world";
-        String user = "root";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement statement = conn.createStatement()) {
-
-            String sql = "CREATE TABLE `" + tableName + "` (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY, " + // MySQL uses AUTO_INCREMENT, not SERIAL
-                    "name VARCHAR(255)" +
-                    ")";
-
-            statement.execute(sql);
-            return true; //success (handleAdd table method)
-        } catch (SQLException e) {
-
-            System.err.println("MySQL Error: " + e.getMessage());
-            return false;
-
-        }
-    }
-
-    private boolean addOracleTable(String tableName) throws SQLException {
-        String url = "jdbc:oracle:thin:@localhost:1521/free";
-        String user = "system";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement statement = conn.createStatement()) {
-
-            // Create table with regular NUMBER column instead of auto-generated identity
-            String sql = "CREATE TABLE \"" + tableName.toUpperCase() + "\" (" +
-                    "id NUMBER DEFAULT 1 PRIMARY KEY, " +  // Regular NUMBER column, editable
-                    "name VARCHAR(255)" +
-                    ")";
-
-            statement.execute(sql);
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Oracle Error: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     public void handleRenameTable() {
 
         DatabaseTable selectedTable = tablesTableView.getSelectionModel().getSelectedItem();
@@ -526,57 +465,12 @@ public class TableManagController {
         String beforeName = table.getName();
         String dbType = table.getType();
 
-        try {
-            switch (dbType) {
-                case "PostgreSQL":
-                    return renamePostgreSQLTable(beforeName, newName);
-                case "MySQL":
-                    return renameMySQLTable(beforeName, newName);
-                case "OracleDB":
-                    return renameOracleDBTable(beforeName, newName);
-                default:
-                    return false;
-            }
-        } catch (SQLException e) {
-            throw e;
-        }
-    }
-
-    private boolean renamePostgreSQLTable(String beforeName, String newName) throws SQLException {
-        String url = "jdbc:postgresql://localhost:5432/TestD";
-        String user = "postgres";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement statement = conn.createStatement()) {
-            String sql = "ALTER TABLE \"" + beforeName + "\" RENAME TO \"" + newName + "\"";
-            statement.execute(sql);
-            return true;
-        }
-    }
-
-    private boolean renameMySQLTable(String beforeName, String newName) throws SQLException {
-        String url = "jdbc:mysql://localhost:3306/world";
-        String user = "root";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
-             Statement statement = conn.createStatement()) {
-            String sql = "RENAME TABLE `" + beforeName + "` TO `" + newName + "`";
-            statement.execute(sql);
-            return true;
-        }
-    }
-
-    private boolean renameOracleDBTable(String beforeName, String newName) throws SQLException {
-        String url = "jdbc:oracle:thin:@localhost:1521/free";
-        String user = "system";
-        String password = "samplePass";
-
-        try (Connection conn = DriverManager.getConnection(url, user, password);
+        SchemaCache.invalidate(dbType, beforeName);
+        SchemaCache.invalidate(dbType, newName);
+        try (Connection conn = ConnectionPool.forType(dbType).getConnection();
              Statement statement = conn.createStatement()) {
-            String sql = "ALTER TABLE \"" + beforeName.toUpperCase() + "\" RENAME TO \"" + newName.toUpperCase() + "\"";
-            statement.execute(sql);
+            String sql = SqlDialects.forType(dbType).renameTableSql(beforeName, newName);
+            RunningOperations.executeDdl("ddl.rename_table", dbType, beforeName, statement, sql);
             return true;
         }
     }
@@ -0,0 +1,145 @@
+package com.example.polydb;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Column names, types, nullability and primary key of one table,
+ * read in a single metadata pass. Instances are immutable, get them from SchemaCache.
+ */
+public class TableSchema {
+
+    private final String dbType;
+    private final String tableName;
+    private final List<ColumnInfo> columns;
+    private final List<String> primaryKeys;
+
+    //package-private so tests can build a schema without a database
+    TableSchema(String dbType, String tableName, List<ColumnInfo> columns, List<String> primaryKeys) {
+        this.dbType = dbType;
+        this.tableName = tableName;
+        this.columns = Collections.unmodifiableList(columns);
+        this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+    }
+
+    public static TableSchema load(Connection conn, String dbType, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        SqlDialect dialect = SqlDialects.forType(dbType);
+        String storedName = dialect.normalizeName(tableName);
+
+        List<ColumnInfo> columns = new ArrayList<>();
+        try (ResultSet rs = metaData.getColumns(null, null, storedName, null)) {
+            while (rs.next()) {
+                String columnName = rs.getString("COLUMN_NAME");
+                // For Oracle, ensure we handle case properly
+                columnName = dialect.normalizeName(columnName);
+                columns.add(new ColumnInfo(
+                        columnName,
+                        rs.getString("TYPE_NAME"),
+                        rs.getInt("DATA_TYPE"),
+                        rs.getInt("COLUMN_SIZE"),
+                        rs.getInt("DECIMAL_DIGITS"),
+                        rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+            }
+        }
+
+        //KEY_SEQ keeps composite keys in index order
+        Map<Short, String> keysBySeq = new TreeMap<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(null, null, storedName)) {
+            while (rs.next()) {
+                keysBySeq.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+        }
+
+        return new TableSchema(dbType, tableName, columns, new ArrayList<>(keysBySeq.values()));
+    }
+
+    public String getDbType() {
+        return dbType;
+    }
+
+    public SqlDialect getDialect() {
+        return SqlDialects.of(dbType);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<ColumnInfo> getColumns() {
+        return columns;
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (ColumnInfo column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    public List<String> getColumnTypes() {
+        List<String> types = new ArrayList<>(columns.size());
+        for (ColumnInfo column : columns) {
+            types.add(column.getTypeName());
+        }
+        return types;
+    }
+
+    public List<String> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    public boolean hasPrimaryKey() {
+        return !primaryKeys.isEmpty();
+    }
+
+    //position of a column, -1 when missing (case-insensitive, Oracle names are upper-cased)
+    public int indexOf(String columnName) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public ColumnInfo getColumn(String columnName) {
+        int index = indexOf(columnName);
+        return index < 0 ? null : columns.get(index);
+    }
+
+    public static class ColumnInfo {
+        private final String name;
+        private final String typeName;
+        private final int jdbcType;
+        private final int size;
+        private final int decimalDigits;
+        private final boolean nullable;
+
+        public ColumnInfo(String name, String typeName, int jdbcType, int size, int decimalDigits, boolean nullable) {
+            this.name = name;
+            this.typeName = typeName;
+            this.jdbcType = jdbcType;
+            this.size = size;
+            this.decimalDigits = decimalDigits;
+            this.nullable = nullable;
+        }
+
+        public String getName() { return name; }
+        //database type name, e.g. VARCHAR, int4, NUMBER
+        public String getTypeName() { return typeName; }
+        //java.sql.Types constant
+        public int getJdbcType() { return jdbcType; }
+        public int getSize() { return size; }
+        public int getDecimalDigits() { return decimalDigits; }
+        public boolean isNullable() { return nullable; }
+    }
+}
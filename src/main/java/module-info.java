@@ -4,8 +4,15 @@ module com.example.polydb {
     requires java.sql;
     requires java.desktop;
     requires jdk.compiler;
+    requires jdk.jfr;
 
 
     opens com.example.polydb to javafx.fxml;
     exports com.example.polydb;
+
+    uses com.example.polydb.SqlDialect;
+    provides com.example.polydb.SqlDialect with
+            com.example.polydb.PostgresDialect,
+            com.example.polydb.MySqlDialect,
+            com.example.polydb.OracleDialect;
 }
\ No newline at end of file
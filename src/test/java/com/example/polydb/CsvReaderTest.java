@@ -0,0 +1,126 @@
+package com.example.polydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvReaderTest {
+
+    @Test
+    void plainRecords() throws IOException {
+        assertEquals(List.of(List.of("id", "name"), List.of("1", "Kabul")), readAll("id,name\n1,Kabul\n"));
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a,b\nc,d"));
+    }
+
+    @Test
+    void emptyFieldsAreKept() throws IOException {
+        assertEquals(List.of(List.of("", "x", "", "")), readAll(",x,,\n"));
+    }
+
+    @Test
+    void quotedFieldsKeepCommasLineBreaksAndEscapedQuotes() throws IOException {
+        List<List<String>> records = readAll("\"Smith, J\",\"line one\nline two\",\"say \"\"hi\"\"\"\n");
+
+        assertEquals(List.of(List.of("Smith, J", "line one\nline two", "say \"hi\"")), records);
+    }
+
+    @Test
+    void quotedEmptyFieldIsEmpty() throws IOException {
+        assertEquals(List.of(List.of("", "b")), readAll("\"\",b\n"));
+    }
+
+    @Test
+    void crlfAndLfLineEndingsMix() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b"), List.of("c")), readAll("a\r\nb\nc\r\n"));
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        assertEquals(List.of(List.of("id", "name")), readAll("\uFEFFid,name\n"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertNull(new CsvReader(new StringReader("")).next());
+        assertNull(new CsvReader(new StringReader("\uFEFF")).next());
+    }
+
+    @Test
+    void recordNumbersCountRecordsNotLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a\n\"b\nstill b\"\nc\n"));
+
+        reader.next();
+        assertEquals(1, reader.getRecordNumber());
+        reader.next();
+        assertEquals(2, reader.getRecordNumber());
+        assertEquals("c", reader.next()[0]);
+        assertEquals(3, reader.getRecordNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void sameResultWhenTheInputArrivesOneCharacterAtATime() throws IOException {
+        String csv = "\uFEFFid,\"quote \"\"x\"\"\"\r\n2,\"multi\r\nline\"\r\n";
+
+        assertEquals(readAll(csv), readAll(new OneCharReader(csv)));
+        assertEquals(List.of(List.of("id", "quote \"x\""), List.of("2", "multi\r\nline")), readAll(csv));
+    }
+
+    @Test
+    void fieldLongerThanTheBuffer() throws IOException {
+        char[] chars = new char[200_000];
+        Arrays.fill(chars, 'x');
+        String big = new String(chars);
+
+        assertEquals(List.of(List.of("1", big), List.of("2", "y")), readAll("1,\"" + big + "\"\n2,y\n"));
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        return readAll(new StringReader(csv));
+    }
+
+    private static List<List<String>> readAll(Reader in) throws IOException {
+        CsvReader reader = new CsvReader(in);
+        List<List<String>> records = new ArrayList<>();
+        String[] record;
+        while ((record = reader.next()) != null) {
+            records.add(List.of(record));
+        }
+        return records;
+    }
+
+    //hands out one character per read() so every buffer refill boundary is exercised
+    private static class OneCharReader extends Reader {
+        private final String text;
+        private int position = 0;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
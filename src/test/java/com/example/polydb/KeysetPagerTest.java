@@ -0,0 +1,225 @@
+package com.example.polydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPagerTest {
+
+    private static final List<TableSchema.ColumnInfo> ORDER_COLUMNS = List.of(
+            new TableSchema.ColumnInfo("id", "int8", Types.BIGINT, 19, 0, false),
+            new TableSchema.ColumnInfo("customer", "varchar", Types.VARCHAR, 100, 0, true),
+            new TableSchema.ColumnInfo("placed", "date", Types.DATE, 13, 0, false));
+
+    @Test
+    void firstPageIsOrderedByThePrimaryKey() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.FIRST, null);
+
+        assertTrue(pager.isKeyset());
+        assertEquals("SELECT * FROM \"orders\" ORDER BY \"id\" ASC LIMIT 1001", query.getSql());
+        assertTrue(query.getParams().isEmpty());
+        assertFalse(query.isReversed());
+    }
+
+    @Test
+    void nextPageSeeksPastTheLastKey() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{1L}, new Object[]{1000L});
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"id\" > ?) ORDER BY \"id\" ASC LIMIT 1001", query.getSql());
+        assertEquals(List.of(1000L), query.getParams());
+    }
+
+    @Test
+    void previousPageReadsBackwardsFromTheFirstKey() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{1L}, new Object[]{1000L});
+        loaded(pager, KeysetPager.Direction.NEXT, new Object[]{1001L}, new Object[]{2000L});
+        loaded(pager, KeysetPager.Direction.NEXT, new Object[]{2001L}, new Object[]{3000L});
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.PREVIOUS, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"id\" < ?) ORDER BY \"id\" DESC LIMIT 1001", query.getSql());
+        assertEquals(List.of(2001L), query.getParams());
+        assertTrue(query.isReversed());
+    }
+
+    @Test
+    void currentPageReloadsFromItsFirstKeyInclusive() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{5L}, new Object[]{900L});
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.CURRENT, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"id\" >= ?) ORDER BY \"id\" ASC LIMIT 1001", query.getSql());
+        assertEquals(List.of(5L), query.getParams());
+    }
+
+    @Test
+    void jumpParsesTheValueForTheLeadingKeyColumn() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.JUMP, "500");
+
+        assertEquals("SELECT * FROM \"orders\" WHERE \"id\" >= ? ORDER BY \"id\" ASC LIMIT 1001", query.getSql());
+        assertEquals(List.of(500L), query.getParams());
+    }
+
+    @Test
+    void filterIsAndedBeforeTheSeekPredicate() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+        pager.setFilter(TableFilter.NONE.with(
+                new TableFilter.Condition("customer", TableFilter.Operator.EQUALS, "ACME", "")));
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{1L}, new Object[]{1000L});
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"customer\" = ?) AND ((\"id\" > ?)) ORDER BY \"id\" ASC LIMIT 1001",
+                query.getSql());
+        assertEquals(List.of("ACME", 1000L), query.getParams());
+    }
+
+    @Test
+    void sortColumnComesBeforeThePrimaryKey() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of("id"));
+        pager.setSort(List.of(new KeysetPager.SortKey("placed", true)));
+        init(pager, List.of("id"));
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{"2024-05-01", 1L}, new Object[]{"2024-03-01", 77L});
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertEquals(List.of("placed", "id"), pager.getKeyColumns());
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"placed\" < ?) OR (\"placed\" = ? AND \"id\" > ?)"
+                + " ORDER BY \"placed\" DESC, \"id\" ASC LIMIT 1001", query.getSql());
+        assertEquals(Arrays.asList("2024-03-01", "2024-03-01", 77L), query.getParams());
+    }
+
+    @Test
+    void nullableSortColumnStaysOnTheKeysetWithNullsLast() throws SQLException {
+        KeysetPager pager = sortedOnCustomer("PostgreSQL", false);
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{"a", 1L}, new Object[]{"m", 7L});
+
+        KeysetPager.PageQuery first = pager.buildQuery(KeysetPager.Direction.FIRST, null);
+        KeysetPager.PageQuery next = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertTrue(pager.isKeyset());
+        assertEquals("SELECT * FROM \"orders\" ORDER BY \"customer\" ASC NULLS LAST, \"id\" ASC LIMIT 1001",
+                first.getSql());
+        assertEquals("SELECT * FROM \"orders\" WHERE ((\"customer\" > ? OR \"customer\" IS NULL))"
+                + " OR (\"customer\" = ? AND \"id\" > ?)"
+                + " ORDER BY \"customer\" ASC NULLS LAST, \"id\" ASC LIMIT 1001", next.getSql());
+        assertEquals(Arrays.asList("m", "m", 7L), next.getParams());
+    }
+
+    @Test
+    void pageEndingInNullsContinuesWithinTheNulls() throws SQLException {
+        KeysetPager pager = sortedOnCustomer("PostgreSQL", false);
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{"a", 1L}, new Object[]{null, 7L});
+
+        KeysetPager.PageQuery next = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        //nothing sorts after NULL, so only the tie-breaker branch is left
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"customer\" IS NULL AND \"id\" > ?)"
+                + " ORDER BY \"customer\" ASC NULLS LAST, \"id\" ASC LIMIT 1001", next.getSql());
+        assertEquals(List.of(7L), next.getParams());
+    }
+
+    @Test
+    void previousPageFromNullsTakesEveryValueBeforeThem() throws SQLException {
+        KeysetPager pager = sortedOnCustomer("PostgreSQL", false);
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{"a", 1L}, new Object[]{"m", 7L});
+        loaded(pager, KeysetPager.Direction.NEXT, new Object[]{"n", 8L}, new Object[]{"z", 9L});
+        loaded(pager, KeysetPager.Direction.NEXT, new Object[]{null, 10L}, new Object[]{null, 20L});
+
+        KeysetPager.PageQuery previous = pager.buildQuery(KeysetPager.Direction.PREVIOUS, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"customer\" IS NOT NULL)"
+                + " OR (\"customer\" IS NULL AND \"id\" < ?)"
+                + " ORDER BY \"customer\" DESC NULLS FIRST, \"id\" DESC LIMIT 1001", previous.getSql());
+        assertEquals(List.of(10L), previous.getParams());
+    }
+
+    @Test
+    void descendingNullableSortPutsNullsFirst() throws SQLException {
+        KeysetPager pager = sortedOnCustomer("PostgreSQL", true);
+        loaded(pager, KeysetPager.Direction.FIRST, new Object[]{null, 1L}, new Object[]{"m", 7L});
+
+        KeysetPager.PageQuery next = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertEquals("SELECT * FROM \"orders\" WHERE (\"customer\" < ?) OR (\"customer\" = ? AND \"id\" > ?)"
+                + " ORDER BY \"customer\" DESC NULLS FIRST, \"id\" ASC LIMIT 1001", next.getSql());
+        assertEquals(Arrays.asList("m", "m", 7L), next.getParams());
+    }
+
+    @Test
+    void mySqlSortsNullsLastWithALeadingIsNullKey() throws SQLException {
+        KeysetPager pager = sortedOnCustomer("MySQL", false);
+
+        KeysetPager.PageQuery first = pager.buildQuery(KeysetPager.Direction.FIRST, null);
+
+        assertEquals("SELECT * FROM `orders` ORDER BY (`customer` IS NULL) ASC, `customer` ASC, `id` ASC LIMIT 1001",
+                first.getSql());
+    }
+
+    @Test
+    void tableWithoutPrimaryKeyUsesOffsetPaging() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of());
+        KeysetPager.PageQuery first = pager.buildQuery(KeysetPager.Direction.FIRST, null);
+        pager.pageLoaded(first, new KeysetPager.PageResult(1000, true, null, null));
+
+        KeysetPager.PageQuery next = pager.buildQuery(KeysetPager.Direction.NEXT, null);
+
+        assertFalse(pager.isKeyset());
+        assertEquals("SELECT * FROM \"orders\" ORDER BY 1 LIMIT 1001", first.getSql());
+        assertEquals("SELECT * FROM \"orders\" ORDER BY 1 LIMIT 1001 OFFSET 1000", next.getSql());
+        assertTrue(pager.describePage().contains("no primary key"));
+    }
+
+    @Test
+    void jumpWithoutPrimaryKeyNeedsAPageNumber() throws SQLException {
+        KeysetPager pager = pager("PostgreSQL", List.of());
+
+        KeysetPager.PageQuery query = pager.buildQuery(KeysetPager.Direction.JUMP, "3");
+
+        assertEquals("SELECT * FROM \"orders\" ORDER BY 1 LIMIT 1001 OFFSET 2000", query.getSql());
+        assertThrows(SQLException.class,
+                () -> pager.buildQuery(KeysetPager.Direction.JUMP, "abc"));
+    }
+
+    private static KeysetPager pager(String dbType, List<String> primaryKeys) {
+        KeysetPager pager = new KeysetPager(new DatabaseTable("orders", dbType),
+                SqlDialects.of(dbType).quoteIdentifier("orders"));
+        init(pager, primaryKeys);
+        return pager;
+    }
+
+    private static void init(KeysetPager pager, List<String> primaryKeys) {
+        pager.init(new TableSchema(pager.getTable().getType(), "orders", ORDER_COLUMNS, primaryKeys));
+    }
+
+    private static KeysetPager sortedOnCustomer(String dbType, boolean descending) {
+        KeysetPager pager = pager(dbType, List.of("id"));
+        pager.setSort(List.of(new KeysetPager.SortKey("customer", descending)));
+        init(pager, List.of("id"));
+        return pager;
+    }
+
+    //what the load task reports after showing a forward page
+    private static void loaded(KeysetPager pager, KeysetPager.Direction direction, Object[] firstKey, Object[] lastKey)
+            throws SQLException {
+        KeysetPager.PageQuery query = pager.buildQuery(direction, null);
+        pager.pageLoaded(query, new KeysetPager.PageResult(1000, true, firstKey, lastKey));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.polydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlScriptTest {
+
+    private static final SqlDialect POSTGRES = SqlDialects.of("PostgreSQL");
+    private static final SqlDialect MYSQL = SqlDialects.of("MySQL");
+    private static final SqlDialect ORACLE = SqlDialects.of("OracleDB");
+
+    @Test
+    void semicolonsEndStatementsOutsideQuotesAndComments() {
+        String script = "INSERT INTO t VALUES ('a;b', \"c;d\");\n"
+                + "-- note; not a statement\n"
+                + "/* also; not */ SELECT 1;\n"
+                + "SELECT 2";
+
+        List<String> expected = List.of("INSERT INTO t VALUES ('a;b', \"c;d\")",
+                "-- note; not a statement\n/* also; not */ SELECT 1", "SELECT 2");
+        assertEquals(expected, SqlScript.split(script, POSTGRES));
+        assertEquals(expected, SqlScript.split(script, MYSQL));
+        assertEquals(expected, SqlScript.split(script, ORACLE));
+    }
+
+    @Test
+    void doubledQuoteIsAnEscapedOne() {
+        assertEquals(List.of("SELECT 'it''s; fine'", "SELECT 2"),
+                SqlScript.split("SELECT 'it''s; fine'; SELECT 2;", MYSQL));
+    }
+
+    @Test
+    void emptyStatementsAndTrailingCommentsAreDropped() {
+        assertEquals(List.of("SELECT 1"), SqlScript.split(";;\nSELECT 1;\n;\n-- done\n", POSTGRES));
+    }
+
+    @Test
+    void postgresTriggerEndsAtItsSemicolon() {
+        String script = "CREATE TRIGGER trg AFTER INSERT ON t FOR EACH ROW EXECUTE FUNCTION f();\n"
+                + "INSERT INTO t VALUES (1);\n"
+                + "SELECT 1;";
+
+        assertEquals(List.of("CREATE TRIGGER trg AFTER INSERT ON t FOR EACH ROW EXECUTE FUNCTION f()",
+                "INSERT INTO t VALUES (1)", "SELECT 1"), SqlScript.split(script, POSTGRES));
+    }
+
+    @Test
+    void postgresDollarQuotedFunctionBodyIsOneStatement() {
+        String script = "CREATE FUNCTION f() RETURNS int AS $$ SELECT 1; $$ LANGUAGE sql;\nSELECT f();";
+
+        assertEquals(List.of("CREATE FUNCTION f() RETURNS int AS $$ SELECT 1; $$ LANGUAGE sql", "SELECT f()"),
+                SqlScript.split(script, POSTGRES));
+    }
+
+    @Test
+    void postgresTaggedDollarQuotesMayNestOtherTags() {
+        String script = "DO $body$\nBEGIN\n  EXECUTE $q$UPDATE t SET a = 1; $q$;\nEND\n$body$;\nSELECT 2;";
+
+        assertEquals(List.of("DO $body$\nBEGIN\n  EXECUTE $q$UPDATE t SET a = 1; $q$;\nEND\n$body$", "SELECT 2"),
+                SqlScript.split(script, POSTGRES));
+    }
+
+    @Test
+    void postgresParametersAndDollarNamesAreNotQuotes() {
+        assertEquals(List.of("PREPARE p AS SELECT $1 FROM a$b", "EXECUTE p(1)"),
+                SqlScript.split("PREPARE p AS SELECT $1 FROM a$b; EXECUTE p(1);", POSTGRES));
+    }
+
+    @Test
+    void postgresTransactionControlIsSplitAsWritten() {
+        assertEquals(List.of("BEGIN", "UPDATE t SET a = 1", "ROLLBACK"),
+                SqlScript.split("BEGIN;\nUPDATE t SET a = 1;\nROLLBACK;\n", POSTGRES));
+    }
+
+    @Test
+    void mysqlHasNoSlashOrDollarRules() {
+        String script = "CREATE TRIGGER trg BEFORE INSERT ON t FOR EACH ROW SET NEW.a = 1;\n"
+                + "START TRANSACTION;\n"
+                + "SELECT '$$' FROM `x;y`;";
+
+        assertEquals(List.of("CREATE TRIGGER trg BEFORE INSERT ON t FOR EACH ROW SET NEW.a = 1",
+                "START TRANSACTION", "SELECT '$$' FROM `x;y`"), SqlScript.split(script, MYSQL));
+    }
+
+    @Test
+    void oraclePlsqlBlockRunsUntilTheSlashLine() {
+        String script = "CREATE OR REPLACE PROCEDURE p AS\nBEGIN\n  UPDATE t SET a = 1;\n  COMMIT;\nEND;\n/\n"
+                + "BEGIN\n  p;\nEND;\n/\n"
+                + "SELECT 1 FROM dual;";
+
+        assertEquals(List.of("CREATE OR REPLACE PROCEDURE p AS\nBEGIN\n  UPDATE t SET a = 1;\n  COMMIT;\nEND;",
+                "BEGIN\n  p;\nEND;", "SELECT 1 FROM dual"), SqlScript.split(script, ORACLE));
+    }
+
+    @Test
+    void oracleSlashLineAlsoEndsAPlainStatement() {
+        assertEquals(List.of("SELECT 1 FROM dual", "SELECT 2 FROM dual"),
+                SqlScript.split("SELECT 1 FROM dual\n/\nSELECT 2 FROM dual;", ORACLE));
+    }
+
+    @Test
+    void oracleDollarIsNotAQuote() {
+        assertEquals(List.of("SELECT 'a' FROM v$session WHERE x = '$$'", "SELECT 2 FROM dual"),
+                SqlScript.split("SELECT 'a' FROM v$session WHERE x = '$$'; SELECT 2 FROM dual;", ORACLE));
+    }
+}
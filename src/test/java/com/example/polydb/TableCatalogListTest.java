@@ -0,0 +1,184 @@
+package com.example.polydb;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableCatalogListTest {
+
+    private TableCatalogList list;
+    //every change as "+name@index" / "-name@index", in the order the listener saw them
+    private List<String> events;
+    //a copy kept up to date only from the change events, must always equal the list
+    private List<DatabaseTable> mirror;
+    private int changeCount;
+
+    @BeforeEach
+    void setUp() {
+        list = new TableCatalogList();
+        events = new ArrayList<>();
+        mirror = new ArrayList<>();
+        changeCount = 0;
+        list.addListener((ListChangeListener<DatabaseTable>) c -> {
+            changeCount++;
+            while (c.next()) {
+                for (DatabaseTable removed : c.getRemoved()) {
+                    events.add("-" + removed.getName() + "@" + c.getFrom());
+                }
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    events.add("+" + c.getList().get(i).getName() + "@" + i);
+                }
+                mirror.subList(c.getFrom(), c.getFrom() + c.getRemovedSize()).clear();
+                mirror.addAll(c.getFrom(), c.getAddedSubList());
+            }
+        });
+    }
+
+    @Test
+    void firstUpdateAddsEverythingInDiscoveryOrder() {
+        int changed = list.update("PostgreSQL", tables("PostgreSQL", "orders", "customers"));
+
+        assertEquals(2, changed);
+        assertEquals(1, changeCount);
+        assertEquals(List.of("+orders@0", "+customers@1"), events);
+        assertEquals(List.of("orders", "customers"), names());
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void unchangedCatalogKeepsRowsAndOnlyCopiesStatistics() {
+        list.update("PostgreSQL", tables("PostgreSQL", "orders", "customers"));
+        DatabaseTable orders = list.get(0);
+        events.clear();
+        changeCount = 0;
+
+        List<DatabaseTable> fresh = tables("PostgreSQL", "orders", "customers");
+        fresh.get(0).setEstimatedRows(42L);
+        fresh.get(0).setSizeBytes(8192L);
+        int changed = list.update("PostgreSQL", fresh);
+
+        assertEquals(0, changed);
+        assertEquals(0, changeCount);
+        assertSame(orders, list.get(0));
+        assertEquals(42L, orders.getEstimatedRows());
+        assertEquals(8192L, orders.getSizeBytes());
+    }
+
+    @Test
+    void removalsAreReportedAtTheirIndexAfterEarlierRemovals() {
+        list.update("PostgreSQL", tables("PostgreSQL", "a", "b", "c", "d", "e"));
+        events.clear();
+        changeCount = 0;
+
+        int changed = list.update("PostgreSQL", tables("PostgreSQL", "a", "c", "e"));
+
+        assertEquals(2, changed);
+        assertEquals(1, changeCount);
+        assertEquals(List.of("-b@1", "-d@2"), events);
+        assertEquals(List.of("a", "c", "e"), names());
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void removalsAndAdditionsComeAsOneChange() {
+        list.update("PostgreSQL", tables("PostgreSQL", "a", "b", "c"));
+        events.clear();
+        changeCount = 0;
+
+        int changed = list.update("PostgreSQL", tables("PostgreSQL", "x", "c", "a"));
+
+        assertEquals(2, changed);
+        assertEquals(1, changeCount);
+        assertEquals(List.of("-b@1", "+x@2"), events);
+        assertEquals(List.of("a", "c", "x"), names());
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void otherDatabasesAreLeftAlone() {
+        list.update("PostgreSQL", tables("PostgreSQL", "orders"));
+        list.update("MySQL", tables("MySQL", "city", "country"));
+        list.update("OracleDB", tables("OracleDB", "EMP"));
+        events.clear();
+
+        int changed = list.update("MySQL", tables("MySQL", "country"));
+
+        assertEquals(1, changed);
+        assertEquals(List.of("-city@1"), events);
+        assertEquals(List.of("orders", "country", "EMP"), names());
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void sameNameInTwoSchemasIsMatchedOneByOne() {
+        //new rows are added grouped by name
+        list.update("PostgreSQL", tables("PostgreSQL", "log", "users", "log"));
+        assertEquals(List.of("log", "log", "users"), names());
+        DatabaseTable firstLog = list.get(0);
+        DatabaseTable users = list.get(2);
+        events.clear();
+
+        int changed = list.update("PostgreSQL", tables("PostgreSQL", "log", "users"));
+
+        assertEquals(1, changed);
+        assertEquals(List.of("-log@1"), events);
+        assertSame(firstLog, list.get(0));
+        assertSame(users, list.get(1));
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void renameOutsideTheApplicationIsARemoveAndAnAdd() {
+        list.update("PostgreSQL", tables("PostgreSQL", "a", "old_name"));
+        DatabaseTable a = list.get(0);
+        DatabaseTable old = list.get(1);
+        events.clear();
+
+        //equal statistics (both empty) are not taken as evidence of a rename
+        int changed = list.update("PostgreSQL", tables("PostgreSQL", "a", "new_name"));
+
+        assertEquals(2, changed);
+        assertEquals(List.of("-old_name@1", "+new_name@1"), events);
+        assertSame(a, list.get(0));
+        assertEquals("old_name", old.getName());
+        assertNotSame(old, list.get(1));
+        assertEquals(list, mirror);
+    }
+
+    @Test
+    void emptyDiscoveryRemovesEveryRowOfThatDatabase() {
+        list.update("OracleDB", tables("OracleDB", "EMP", "DEPT"));
+        events.clear();
+
+        int changed = list.update("OracleDB", new ArrayList<>());
+
+        assertEquals(2, changed);
+        assertEquals(List.of("-EMP@0", "-DEPT@0"), events);
+        assertTrue(list.isEmpty());
+        assertEquals(list, mirror);
+    }
+
+    private static List<DatabaseTable> tables(String dbType, String... names) {
+        List<DatabaseTable> tables = new ArrayList<>();
+        for (String name : names) {
+            tables.add(new DatabaseTable(name, dbType));
+        }
+        return tables;
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (DatabaseTable table : list) {
+            names.add(table.getName());
+        }
+        return names;
+    }
+}
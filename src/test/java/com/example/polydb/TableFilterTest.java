@@ -0,0 +1,148 @@
+package com.example.polydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableFilterTest {
+
+    private static final TableSchema ORDERS = new TableSchema("PostgreSQL", "orders", List.of(
+            new TableSchema.ColumnInfo("id", "int8", Types.BIGINT, 19, 0, false),
+            new TableSchema.ColumnInfo("customer", "varchar", Types.VARCHAR, 100, 0, true),
+            new TableSchema.ColumnInfo("placed", "date", Types.DATE, 13, 0, true),
+            new TableSchema.ColumnInfo("total", "numeric", Types.NUMERIC, 12, 2, true)),
+            List.of("id"));
+
+    @Test
+    void emptyFilterCompilesToNothing() throws SQLException {
+        List<Object> params = new ArrayList<>();
+
+        assertEquals("", TableFilter.NONE.compile(ORDERS, params));
+        assertTrue(params.isEmpty());
+    }
+
+    @Test
+    void conditionsAreAndedWithTypedParametersInOrder() throws SQLException {
+        TableFilter filter = TableFilter.NONE
+                .with(condition("id", TableFilter.Operator.EQUALS, "42"))
+                .with(condition("customer", TableFilter.Operator.NOT_EQUALS, "ACME"))
+                .with(condition("placed", TableFilter.Operator.IS_NOT_NULL, ""));
+        List<Object> params = new ArrayList<>();
+
+        String where = filter.compile(ORDERS, params);
+
+        assertEquals("\"id\" = ? AND \"customer\" <> ? AND \"placed\" IS NOT NULL", where);
+        assertEquals(List.of(42L, "ACME"), params);
+    }
+
+    @Test
+    void withLeavesTheOriginalFilterUnchanged() {
+        TableFilter one = TableFilter.NONE.with(condition("id", TableFilter.Operator.IS_NULL, ""));
+        TableFilter two = one.with(condition("customer", TableFilter.Operator.IS_NULL, ""));
+
+        assertTrue(TableFilter.NONE.isEmpty());
+        assertEquals(1, one.getConditions().size());
+        assertEquals(2, two.getConditions().size());
+    }
+
+    @Test
+    void rangeWithBothEndsIsBetween() throws SQLException {
+        List<Object> params = new ArrayList<>();
+
+        String where = TableFilter.NONE.with(new TableFilter.Condition("placed", TableFilter.Operator.RANGE,
+                "2024-01-01", "2024-12-31")).compile(ORDERS, params);
+
+        assertEquals("\"placed\" BETWEEN ? AND ?", where);
+        assertEquals(List.of(Date.valueOf("2024-01-01"), Date.valueOf("2024-12-31")), params);
+    }
+
+    @Test
+    void rangeWithOneEndIsOpen() throws SQLException {
+        List<Object> from = new ArrayList<>();
+        List<Object> to = new ArrayList<>();
+
+        assertEquals("\"id\" >= ?", TableFilter.NONE.with(
+                new TableFilter.Condition("id", TableFilter.Operator.RANGE, "10", "")).compile(ORDERS, from));
+        assertEquals("\"id\" <= ?", TableFilter.NONE.with(
+                new TableFilter.Condition("id", TableFilter.Operator.RANGE, "", "20")).compile(ORDERS, to));
+        assertEquals(List.of(10L), from);
+        assertEquals(List.of(20L), to);
+    }
+
+    @Test
+    void rangeWithoutEndsIsRejected() {
+        TableFilter filter = TableFilter.NONE.with(new TableFilter.Condition("id", TableFilter.Operator.RANGE, " ", ""));
+
+        assertThrows(SQLException.class, () -> filter.compile(ORDERS, new ArrayList<>()));
+    }
+
+    @Test
+    void startsWithEscapesLikeWildcards() throws SQLException {
+        List<Object> params = new ArrayList<>();
+
+        String where = TableFilter.NONE.with(condition("customer", TableFilter.Operator.STARTS_WITH, "50%_off!"))
+                .compile(ORDERS, params);
+
+        assertEquals("\"customer\" LIKE ? ESCAPE '!'", where);
+        assertEquals(List.of("50!%!_off!!%"), params);
+    }
+
+    @Test
+    void likePassesThePatternThrough() throws SQLException {
+        List<Object> params = new ArrayList<>();
+
+        String where = TableFilter.NONE.with(condition("customer", TableFilter.Operator.LIKE, "%corp%"))
+                .compile(ORDERS, params);
+
+        assertEquals("\"customer\" LIKE ?", where);
+        assertEquals(List.of("%corp%"), params);
+    }
+
+    @Test
+    void likeOnANonTextColumnIsRejected() {
+        TableFilter filter = TableFilter.NONE.with(condition("total", TableFilter.Operator.STARTS_WITH, "1"));
+
+        assertThrows(SQLException.class, () -> filter.compile(ORDERS, new ArrayList<>()));
+    }
+
+    @Test
+    void valueTheColumnCantTakeIsAnSqlException() {
+        TableFilter notANumber = TableFilter.NONE.with(condition("id", TableFilter.Operator.EQUALS, "abc"));
+        TableFilter notADate = TableFilter.NONE.with(condition("placed", TableFilter.Operator.EQUALS, "yesterday"));
+        TableFilter missing = TableFilter.NONE.with(condition("id", TableFilter.Operator.EQUALS, ""));
+
+        assertThrows(SQLException.class, () -> notANumber.compile(ORDERS, new ArrayList<>()));
+        assertThrows(SQLException.class, () -> notADate.compile(ORDERS, new ArrayList<>()));
+        assertThrows(SQLException.class, () -> missing.compile(ORDERS, new ArrayList<>()));
+    }
+
+    @Test
+    void droppedColumnIsAnSqlException() {
+        TableFilter filter = TableFilter.NONE.with(condition("discount", TableFilter.Operator.IS_NULL, ""));
+
+        assertThrows(SQLException.class, () -> filter.compile(ORDERS, new ArrayList<>()));
+    }
+
+    @Test
+    void columnsAreQuotedForTheTablesDialect() throws SQLException {
+        TableSchema city = new TableSchema("MySQL", "city", List.of(
+                new TableSchema.ColumnInfo("Name", "CHAR", Types.CHAR, 35, 0, false)), List.of());
+
+        String where = TableFilter.NONE.with(condition("Name", TableFilter.Operator.EQUALS, "Kabul"))
+                .compile(city, new ArrayList<>());
+
+        assertEquals("`Name` = ?", where);
+    }
+
+    private static TableFilter.Condition condition(String column, TableFilter.Operator operator, String value) {
+        return new TableFilter.Condition(column, operator, value, "");
+    }
+}